@@ -44,18 +44,22 @@ class BlockingRequestBuilder {
     private static final String OS_METRIC_NAME = MachineMetric.getOSMetricName();
     private final MachineMetricFactory machineMetricFactory = new MachineMetricFactory();
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator;
     private final long timeoutNano;
 
-    BlockingRequestBuilder(CloudWatchMetricConfig config, BlockingQueue<MetricDatum> queue) {
+    BlockingRequestBuilder(CloudWatchMetricConfig config,
+            BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this.queue = queue;
+        this.aggregator = aggregator;
         this.timeoutNano = TimeUnit.MILLISECONDS.toNanos(config.getQueuePollTimeoutMilli());
     }
 
     /**
      * Returns the next batch of {@link PutMetricDataRequest} to be sent to
      * Amazon CloudWatch, blocking as necessary to gather and accumulate the
-     * necessary statistics. If there is no metrics data, this call blocks
-     * indefinitely. If there is metrics data, this call will block up to about
+     * necessary statistics, including those already summarized by the
+     * aggregator. If there is no metrics data, this call blocks until there
+     * is. If there is metrics data, this call will block up to about
      * {@link CloudWatchMetricConfig#getQueuePollTimeoutMilli()} number of
      * milliseconds.
      */
@@ -71,26 +75,18 @@ class BlockingRequestBuilder {
             MetricDatum datum = queue.poll(timeoutNano - elapsedNano, TimeUnit.NANOSECONDS);
             if (datum == null) {
                 // timed out
-                if (uniqueMetrics.size() > 0) {
+                if (uniqueMetrics.size() > 0 || !aggregator.isEmpty()) {
                     // return whatever we have so far
                     return toPutMetricDataRequests(uniqueMetrics);
                 }
                 // zero AWS related metrics
                 if (AwsSdkMetrics.isMachineMetricExcluded()) {
-                    // Short note: nothing to do, so just wait indefinitely.
-                    // (Long note: There exists a pedagogical case where the
-                    // next statement is executed followed by no subsequent AWS
-                    // traffic whatsoever, and then the machine metric is enabled 
-                    // via JMX.
-                    // In such case, we require the metric generation to be
-                    // disabled and then re-enabled (eg via JMX).
-                    // So why not always wake up periodically instead of going
-                    // into long wait ?
-                    // I (hchar@) think we should optimize for the most typical
-                    // cases instead of the edge cases. Going into long wait has
-                    // the benefit of relatively less runtime footprint.)
-                    datum = queue.take();   
+                    // Nothing to do, so just wait for another period. (Waiting
+                    // on the queue indefinitely would miss the metrics
+                    // summarized by the aggregator, which never go through
+                    // the queue.)
                     startNano = System.nanoTime();
+                    continue;
                 }
             }
             // Note at this point datum is null if and only if there is no
@@ -145,9 +141,11 @@ class BlockingRequestBuilder {
         for (MetricDatum datum: machineMetricFactory.generateMetrics()) {
             summarize(datum, uniqueMetrics);
         }
+        List<MetricDatum> all = new ArrayList<MetricDatum>(uniqueMetrics.values());
+        all.addAll(aggregator.drain());
         List<PutMetricDataRequest> list = new ArrayList<PutMetricDataRequest>();
         List<MetricDatum> data = new ArrayList<MetricDatum>();
-        for (MetricDatum m: uniqueMetrics.values()) {
+        for (MetricDatum m: all) {
             data.add(m);
             if (data.size() == CloudWatchMetricConfig.MAX_METRICS_DATUM_SIZE) {
                 list.addAll(newPutMetricDataRequests(data));
@@ -70,6 +70,11 @@ public class CloudWatchMetricConfig {
      * resource exhaustion.
      */
     public static final int DEFAULT_METRICS_QSIZE = 1000;
+    /**
+     * Default maximum number of requests uploading metric data to Amazon
+     * CloudWatch concurrently.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 4;
     /**
      * Default timeout in millisecond for queue polling.  Set to one-minute
      * which is the finest granularity of Amazon CloudWatch. 
@@ -93,6 +98,8 @@ public class CloudWatchMetricConfig {
     
     private int metricQueueSize = DEFAULT_METRICS_QSIZE;
 
+    private int maxConcurrentUploads = DEFAULT_MAX_CONCURRENT_UPLOADS;
+
     /**
      * Returns the credential provider that holds the credentials to connect to
      * Amazon CloudWatch.
@@ -159,7 +166,9 @@ public class CloudWatchMetricConfig {
 
     /**
      * Configure the metric queue size, overriding the default. Must be at
-     * least 1.
+     * least 1. As metric data are summarized into statistics as they are
+     * collected, this is also the maximum number of distinct metrics
+     * accumulated between two uploads.
      * 
      * @see #DEFAULT_METRICS_QSIZE
      */
@@ -174,4 +183,31 @@ public class CloudWatchMetricConfig {
         setMetricQueueSize(metricQueueSize);
         return this;
     }
+
+    /**
+     * Returns the maximum number of requests uploading metric data to Amazon
+     * CloudWatch concurrently.
+     */
+    public int getMaxConcurrentUploads() {
+        return maxConcurrentUploads;
+    }
+
+    /**
+     * Configure the maximum number of requests uploading metric data to
+     * Amazon CloudWatch concurrently, overriding the default. Must be at
+     * least 1.
+     * 
+     * @see #DEFAULT_MAX_CONCURRENT_UPLOADS
+     */
+    public void setMaxConcurrentUploads(int maxConcurrentUploads) {
+        if (maxConcurrentUploads < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.maxConcurrentUploads = maxConcurrentUploads;
+    }
+
+    public CloudWatchMetricConfig withMaxConcurrentUploads(int maxConcurrentUploads) {
+        setMaxConcurrentUploads(maxConcurrentUploads);
+        return this;
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.metrics.internal.cloudwatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.annotation.ThreadSafe;
+
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.StatisticSet;
+
+/**
+ * An internal accumulator of metric data, summarizing them into statistic sets
+ * per metric name, dimensions and period as they are collected, so that the
+ * memory and the upload volume depend on the number of distinct metrics rather
+ * than on the number of requests.
+ * <p>
+ * Collecting threads never block: each statistic set is updated with atomic
+ * compare-and-set operations. Method {@link #drain()} retires the statistic
+ * sets accumulated so far; a sample racing with it is recorded into a new
+ * statistic set for the next upload.
+ */
+@ThreadSafe
+class MetricAggregator {
+    private final ConcurrentMap<Key, Accumulator> accumulators =
+        new ConcurrentHashMap<Key, Accumulator>();
+    private final long periodMilli;
+    private final int maxMetrics;
+
+    /**
+     * @param periodMilli
+     *            the period in milliseconds over which data of the same metric
+     *            are summarized together
+     * @param maxMetrics
+     *            maximum number of distinct metrics accumulated between two
+     *            uploads; data of additional metrics are dropped
+     */
+    MetricAggregator(long periodMilli, int maxMetrics) {
+        if (periodMilli < 1 || maxMetrics < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.periodMilli = periodMilli;
+        this.maxMetrics = maxMetrics;
+    }
+
+    /**
+     * Summarizes the given datum into the statistics of the respective metric,
+     * returning true if successful or false if there is no space available for
+     * a new metric.
+     */
+    boolean add(MetricDatum datum) {
+        Double value = datum.getValue();
+        if (value == null) {
+            return true;
+        }
+        List<Dimension> dims = new ArrayList<Dimension>(datum.getDimensions());
+        Collections.sort(dims, DimensionComparator.INSTANCE);
+        Date timestamp = datum.getTimestamp();
+        long time = timestamp == null ? System.currentTimeMillis() : timestamp.getTime();
+        Key key = new Key(datum.getMetricName(), dims, time - time % periodMilli);
+        while (true) {
+            Accumulator acc = accumulators.get(key);
+            if (acc == null) {
+                if (accumulators.size() >= maxMetrics) {
+                    return false;
+                }
+                acc = new Accumulator(key, datum.getUnit());
+                Accumulator prev = accumulators.putIfAbsent(key, acc);
+                if (prev != null) {
+                    acc = prev;
+                }
+            }
+            if (acc.add(value)) {
+                return true;
+            }
+            // retired by a concurrent drain
+            accumulators.remove(key, acc);
+        }
+    }
+
+    /**
+     * Retires and returns all the statistics accumulated so far, as metric
+     * datum with statistic values.
+     */
+    List<MetricDatum> drain() {
+        List<MetricDatum> list = new ArrayList<MetricDatum>();
+        for (Map.Entry<Key, Accumulator> e: accumulators.entrySet()) {
+            Accumulator acc = e.getValue();
+            if (accumulators.remove(e.getKey(), acc)) {
+                MetricDatum datum = acc.retire();
+                if (datum != null) {
+                    list.add(datum);
+                }
+            }
+        }
+        return list;
+    }
+
+    /** Returns true if no statistics are currently accumulated. */
+    boolean isEmpty() {
+        return accumulators.isEmpty();
+    }
+
+    /** Identifies a metric within a period. */
+    private static final class Key {
+        private final String metricName;
+        private final List<Dimension> dims;
+        private final long periodStart;
+
+        Key(String metricName, List<Dimension> dims, long periodStart) {
+            this.metricName = metricName;
+            this.dims = dims;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = metricName == null ? 0 : metricName.hashCode();
+            hash = 31 * hash + dims.hashCode();
+            return 31 * hash + (int) (periodStart ^ (periodStart >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return periodStart == that.periodStart
+                && (metricName == null ? that.metricName == null : metricName.equals(that.metricName))
+                && dims.equals(that.dims);
+        }
+    }
+
+    /**
+     * The statistic set of a metric within a period, updated without locking.
+     * Doubles are held as their long bits.
+     */
+    private static final class Accumulator {
+        private final Key key;
+        private final String unit;
+        /** Number of threads currently adding a sample. */
+        private final AtomicInteger writers = new AtomicInteger();
+        private volatile boolean retired;
+        private final AtomicLong sampleCount = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        private final AtomicLong minimum = new AtomicLong(Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+        private final AtomicLong maximum = new AtomicLong(Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY));
+
+        Accumulator(Key key, String unit) {
+            this.key = key;
+            this.unit = unit;
+        }
+
+        /**
+         * Adds the given sample, returning false if this accumulator has
+         * already been retired.
+         */
+        boolean add(double value) {
+            writers.incrementAndGet();
+            try {
+                if (retired) {
+                    return false;
+                }
+                sampleCount.incrementAndGet();
+                long bits;
+                do {
+                    bits = sum.get();
+                } while (!sum.compareAndSet(bits,
+                        Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value)));
+                do {
+                    bits = minimum.get();
+                } while (value < Double.longBitsToDouble(bits)
+                        && !minimum.compareAndSet(bits, Double.doubleToRawLongBits(value)));
+                do {
+                    bits = maximum.get();
+                } while (value > Double.longBitsToDouble(bits)
+                        && !maximum.compareAndSet(bits, Double.doubleToRawLongBits(value)));
+                return true;
+            } finally {
+                writers.decrementAndGet();
+            }
+        }
+
+        /**
+         * Prevents further samples from being added, waits for those being
+         * added to complete, and returns the resulting metric datum; or null
+         * if there is no sample.
+         */
+        MetricDatum retire() {
+            retired = true;
+            while (writers.get() > 0) {
+                Thread.yield();
+            }
+            long count = sampleCount.get();
+            if (count == 0) {
+                return null;
+            }
+            return new MetricDatum()
+                .withMetricName(key.metricName)
+                .withDimensions(key.dims)
+                .withUnit(unit)
+                .withTimestamp(new Date(key.periodStart))
+                .withStatisticValues(new StatisticSet()
+                    .withSampleCount((double) count)
+                    .withSum(Double.longBitsToDouble(sum.get()))
+                    .withMinimum(Double.longBitsToDouble(minimum.get()))
+                    .withMaximum(Double.longBitsToDouble(maximum.get())))
+                ;
+        }
+    }
+}
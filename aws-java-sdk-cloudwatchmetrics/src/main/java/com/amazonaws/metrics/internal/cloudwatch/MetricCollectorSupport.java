@@ -87,6 +87,7 @@ public class MetricCollectorSupport extends MetricCollector {
     private final ServiceMetricCollectorSupport serviceMetricCollector;
 
     private final BlockingQueue<MetricDatum> queue;
+    private final MetricAggregator aggregator;
 //    private final PredefinedMetricTransformer transformer = new PredefinedMetricTransformer();
     private final CloudWatchMetricConfig config;
     private MetricUploaderThread uploaderThread;
@@ -97,8 +98,13 @@ public class MetricCollectorSupport extends MetricCollector {
         }
         this.config = config;
         this.queue = new LinkedBlockingQueue<MetricDatum>(config.getMetricQueueSize());
-        this.requestMetricCollector = new RequestMetricCollectorSupport(queue);
-        this.serviceMetricCollector = new ServiceMetricCollectorSupport(queue);
+        // Metric data are summarized into statistics as they are collected
+        // rather than queued individually
+        this.aggregator = new MetricAggregator(
+                Math.max(1, config.getQueuePollTimeoutMilli()),
+                config.getMetricQueueSize());
+        this.requestMetricCollector = new RequestMetricCollectorSupport(queue, aggregator);
+        this.serviceMetricCollector = new ServiceMetricCollectorSupport(queue, aggregator);
     }
 
     @Override
@@ -107,7 +113,7 @@ public class MetricCollectorSupport extends MetricCollector {
             if (uploaderThread != null) {
                 return false;   // already started
             }
-            uploaderThread = new MetricUploaderThread(config, queue);
+            uploaderThread = new MetricUploaderThread(config, queue, aggregator);
             uploaderThread.start();
         }
         return true;
@@ -14,7 +14,16 @@
  */
 package com.amazonaws.metrics.internal.cloudwatch;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -25,7 +34,9 @@ import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
 import com.amazonaws.util.VersionInfoUtils;
 
 /**
- * A internal daemon thread used to upload request metrics to Amazon CloudWatch.
+ * A internal daemon thread used to upload request metrics to Amazon CloudWatch,
+ * with the help of a pool of daemon threads when more than one request can be
+ * uploaded concurrently.
  */
 class MetricUploaderThread extends Thread {
     private static final String USER_AGENT = MetricUploaderThread.class.getName() + "/" + VersionInfoUtils.getVersion();
@@ -34,11 +45,14 @@ class MetricUploaderThread extends Thread {
     private final AmazonCloudWatchClient cloudwatchClient;
     private final Log log = LogFactory.getLog(getClass());
     private final BlockingRequestBuilder qIterator;
+    /** Used to upload concurrently; or null if uploading one request at a time. */
+    private final ExecutorService uploadExecutor;
 
     MetricUploaderThread(CloudWatchMetricConfig config,
-            BlockingQueue<MetricDatum> queue) {
+            BlockingQueue<MetricDatum> queue, MetricAggregator aggregator) {
         this(config,
              queue,
+             aggregator,
              config.getCredentialsProvider() == null
              ? new AmazonCloudWatchClient()
              : new AmazonCloudWatchClient(config.getCredentialsProvider()));
@@ -46,14 +60,18 @@ class MetricUploaderThread extends Thread {
 
     MetricUploaderThread(CloudWatchMetricConfig config,
         BlockingQueue<MetricDatum> queue,
+        MetricAggregator aggregator,
         AmazonCloudWatchClient client)
     {
         super(THREAD_NAME);
-        if (config == null || queue == null) {
+        if (config == null || queue == null || aggregator == null) {
             throw new IllegalArgumentException();
         }
         this.cloudwatchClient = client;
-        this.qIterator = new BlockingRequestBuilder(config, queue);
+        this.qIterator = new BlockingRequestBuilder(config, queue, aggregator);
+        this.uploadExecutor = config.getMaxConcurrentUploads() > 1
+            ? newUploadExecutor(config.getMaxConcurrentUploads())
+            : null;
         String endpoint = config.getCloudWatchEndPoint();
         if (endpoint != null)
             cloudwatchClient.setEndpoint(endpoint);
@@ -61,24 +79,79 @@ class MetricUploaderThread extends Thread {
         setDaemon(true);
     }
 
+    /**
+     * Returns a pool of the given number of low priority daemon threads.
+     */
+    private static ExecutorService newUploadExecutor(int nThreads) {
+        return Executors.newFixedThreadPool(nThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r);
+                t.setName(THREAD_NAME + "-" + count.incrementAndGet());
+                t.setPriority(MIN_PRIORITY);
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
     @Override
     public void run() {
-        while (!cancelled) {
-            try {
-                Iterable<PutMetricDataRequest> requests = qIterator.nextUploadUnits();
-                for (PutMetricDataRequest req: requests) {
-                    appendUserAgent(req);
-                    log.debug(req);
-                    cloudwatchClient.putMetricData(req);
+        try {
+            while (!cancelled) {
+                try {
+                    Iterable<PutMetricDataRequest> requests = qIterator.nextUploadUnits();
+                    if (uploadExecutor == null) {
+                        for (PutMetricDataRequest req: requests) {
+                            upload(req);
+                            Thread.yield();
+                        }
+                    } else {
+                        uploadConcurrently(requests);
+                    }
+                } catch(InterruptedException e) {
+                    if (!cancelled) {
+                        log.debug("Unexpected interruption ignored");
+                    }
+                } catch(Throwable t) {
+                    log.warn("Unexpected condition; soldier on", t);
                     Thread.yield();
                 }
-            } catch(InterruptedException e) {
-                if (!cancelled) {
-                    log.debug("Unexpected interruption ignored");
+            }
+        } finally {
+            if (uploadExecutor != null) {
+                uploadExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void upload(PutMetricDataRequest req) {
+        appendUserAgent(req);
+        log.debug(req);
+        cloudwatchClient.putMetricData(req);
+    }
+
+    /**
+     * Uploads the given requests using the upload executor, returning once
+     * they have all completed so that uploads never pile up.
+     */
+    private void uploadConcurrently(Iterable<PutMetricDataRequest> requests)
+            throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (final PutMetricDataRequest req: requests) {
+            futures.add(uploadExecutor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    upload(req);
+                    return null;
                 }
-            } catch(Throwable t) {
-                log.warn("Unexpected condition; soldier on", t);
-                Thread.yield();
+            }));
+        }
+        for (Future<?> f: futures) {
+            try {
+                f.get();
+            } catch(ExecutionException e) {
+                log.warn("Unexpected condition; soldier on", e.getCause());
             }
         }
     }
@@ -1452,7 +1452,9 @@ public class ClientConfiguration {
 
     /**
      * Sets the response metadata cache size. By default, it is set to
-     * {@value #DEFAULT_RESPONSE_METADATA_CACHE_SIZE}.
+     * {@value #DEFAULT_RESPONSE_METADATA_CACHE_SIZE}. A size of zero turns
+     * off the capture of response metadata, which clients then no longer
+     * return from {@code getCachedResponseMetadata}.
      * 
      * @param responseMetadataCacheSize
      *            maximum cache size.
@@ -1463,7 +1465,9 @@ public class ClientConfiguration {
 
     /**
      * Sets the response metadata cache size. By default, it is set to
-     * {@value #DEFAULT_RESPONSE_METADATA_CACHE_SIZE}.
+     * {@value #DEFAULT_RESPONSE_METADATA_CACHE_SIZE}. A size of zero turns
+     * off the capture of response metadata, which clients then no longer
+     * return from {@code getCachedResponseMetadata}.
      * 
      * @param responseMetadataCacheSize
      *            maximum cache size.
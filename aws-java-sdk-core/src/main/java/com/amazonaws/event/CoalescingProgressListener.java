@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.event;
+
+import static com.amazonaws.event.ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT;
+import static com.amazonaws.event.ProgressEventType.RESPONSE_BYTE_TRANSFER_EVENT;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.annotation.ThreadSafe;
+
+/**
+ * A progress listener that coalesces the byte transfer events of high-rate
+ * transfers before passing them on to another listener, which then receives
+ * one event per interval or byte threshold instead of one event every few
+ * kilobytes.
+ * <p>
+ * Byte counts are accumulated in lock-free counters. When this listener is the
+ * general progress listener of a request, the byte transfer notifications of
+ * the request and response content reach it through
+ * {@link SDKProgressPublisher} without any event being allocated; only the
+ * coalesced events are allocated, and delivered to the wrapped listener
+ * synchronously or asynchronously as its {@link DeliveryMode} allows. Pending
+ * byte counts are passed on before any other event and whenever the request or
+ * response content ends, so that the wrapped listener sees the same totals and
+ * the same order of events, only in fewer byte transfer events.
+ */
+@ThreadSafe
+public class CoalescingProgressListener implements ProgressListener, DeliveryMode {
+    private final ProgressListener listener;
+    private final long intervalNanos;
+    private final long byteThreshold;
+    private final AtomicLong requestBytes = new AtomicLong();
+    private final AtomicLong responseBytes = new AtomicLong();
+    private final AtomicLong lastDeliveryNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param listener
+     *            the listener to pass the coalesced events on to
+     * @param intervalMillis
+     *            the interval in milliseconds at which pending byte counts
+     *            are passed on, or 0 for no interval
+     * @param byteThreshold
+     *            the number of pending bytes from which they are passed on
+     *            regardless of the interval, or 0 for no threshold
+     */
+    public CoalescingProgressListener(ProgressListener listener,
+            long intervalMillis, long byteThreshold) {
+        if (listener == null)
+            throw new IllegalArgumentException("Progress listener cannot be null.");
+        if (intervalMillis < 0 || byteThreshold < 0) {
+            throw new IllegalArgumentException("intervalMillis=" + intervalMillis
+                    + ", byteThreshold=" + byteThreshold);
+        }
+        this.listener = listener;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.byteThreshold = byteThreshold;
+    }
+
+    /**
+     * Returns the listener the coalesced events are passed on to.
+     */
+    public ProgressListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public void progressChanged(ProgressEvent progressEvent) {
+        ProgressEventType type = progressEvent.getEventType();
+        if (type == REQUEST_BYTE_TRANSFER_EVENT
+        ||  type == RESPONSE_BYTE_TRANSFER_EVENT) {
+            bytesTransferred(type, progressEvent.getBytes());
+            return;
+        }
+        flush();
+        SDKProgressPublisher.deliverEvent(listener, progressEvent);
+    }
+
+    /**
+     * Accumulates a number of bytes transferred, passing on the pending byte
+     * counts if the byte threshold is reached or the interval has elapsed.
+     *
+     * @param type
+     *            either a request or a response byte transfer event type
+     */
+    void bytesTransferred(ProgressEventType type, long bytes) {
+        AtomicLong counter = type == REQUEST_BYTE_TRANSFER_EVENT
+                           ? requestBytes : responseBytes;
+        long pending = counter.addAndGet(bytes);
+        if (byteThreshold > 0 && pending >= byteThreshold) {
+            deliver(type, counter);
+            return;
+        }
+        if (intervalNanos > 0) {
+            long last = lastDeliveryNanos.get();
+            long now = System.nanoTime();
+            // only one of the threads racing past the interval passes it on
+            if (now - last >= intervalNanos
+                    && lastDeliveryNanos.compareAndSet(last, now)) {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Passes on the pending byte counts, if any.
+     */
+    public void flush() {
+        deliver(REQUEST_BYTE_TRANSFER_EVENT, requestBytes);
+        deliver(RESPONSE_BYTE_TRANSFER_EVENT, responseBytes);
+    }
+
+    private void deliver(ProgressEventType type, AtomicLong counter) {
+        long bytes = counter.getAndSet(0);
+        if (bytes != 0)
+            SDKProgressPublisher.deliverEvent(listener, new ProgressEvent(type, bytes));
+    }
+
+    @Override public boolean isSyncCallSafe() { return true; }
+}
@@ -162,6 +162,8 @@ public abstract class ProgressInputStream extends SdkFilterInputStream {
         onEOF();
         unnotifiedByteCount = 0;
         doneEOF = true;
+        if (listener instanceof CoalescingProgressListener)
+            ((CoalescingProgressListener) listener).flush();
     }
 
     public final InputStream getWrappedInputStream() {
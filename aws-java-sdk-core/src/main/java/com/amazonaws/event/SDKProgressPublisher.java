@@ -59,7 +59,7 @@ public class SDKProgressPublisher {
         return deliverEvent(listener, new ProgressEvent(type));
     }
 
-    private static Future<?> deliverEvent(final ProgressListener listener,
+    static Future<?> deliverEvent(final ProgressListener listener,
             final ProgressEvent event) {
         if (SYNC) { // forces all callbacks to be made synchronously
             return quietlyCallListener(listener, event);
@@ -164,6 +164,12 @@ public class SDKProgressPublisher {
             final long bytes) {
         if (listener == ProgressListener.NOOP || listener == null || bytes <= 0)
             return null;
+        if (listener instanceof CoalescingProgressListener
+        && (type == REQUEST_BYTE_TRANSFER_EVENT || type == RESPONSE_BYTE_TRANSFER_EVENT)) {
+            // Accumulated without allocating an event per notification
+            ((CoalescingProgressListener) listener).bytesTransferred(type, bytes);
+            return null;
+        }
         return deliverEvent(listener, new ProgressEvent(type, bytes));
     }
 
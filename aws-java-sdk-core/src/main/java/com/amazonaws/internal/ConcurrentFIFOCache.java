@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.internal;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import com.amazonaws.annotation.ThreadSafe;
+
+/**
+ * A bounded cache that has a FIFO eviction policy when the cache is full.
+ * Unlike {@link FIFOCache}, lookups never block: entries are kept in a
+ * {@link ConcurrentHashMap} and the insertion order in a lock-free queue.
+ * <p>
+ * Under concurrent additions the cache may briefly hold slightly more than
+ * the maximum number of entries before the earliest ones are evicted.
+ *
+ * @param <T>
+ *            value type
+ */
+@ThreadSafe
+public final class ConcurrentFIFOCache<T> {
+    private final ConcurrentMap<String, T> map;
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<String>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize
+     *            the maximum number of entries of the cache
+     */
+    public ConcurrentFIFOCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize " + maxSize
+                    + " must be at least 1");
+        }
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<String, T>(maxSize * 4 / 3 + 1);
+    }
+
+    /**
+     * Adds an entry to the cache, evicting the earliest entries if necessary.
+     */
+    public T add(String key, T value) {
+        T previous = map.put(key, value);
+        if (previous == null) {
+            insertionOrder.add(key);
+            while (map.size() > maxSize) {
+                String eldest = insertionOrder.poll();
+                if (eldest == null) {
+                    break;
+                }
+                map.remove(eldest);
+            }
+        }
+        return previous;
+    }
+
+    /** Returns the value of the given key; or null of no such entry exists. */
+    public T get(String key) {
+        return map.get(key);
+    }
+
+    /**
+     * Returns the current size of the cache.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum size of the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
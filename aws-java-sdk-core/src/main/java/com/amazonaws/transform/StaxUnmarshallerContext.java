@@ -14,17 +14,29 @@
  */
 package com.amazonaws.transform;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
+import javax.xml.namespace.QName;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 
 /**
@@ -34,15 +46,49 @@ import javax.xml.stream.events.XMLEvent;
  * response. It also tracks the current position and element depth of the
  * document being parsed and provides utilties for accessing the next XML event
  * from the parser, reading element text, handling attribute XML events, etc.
+ * <p>
+ * A context created from an {@link XMLStreamReader} walks the document with
+ * the StAX cursor instead of allocating an {@link XMLEvent} per token. In that
+ * mode {@link #nextEvent()} returns the same mutable event instance on every
+ * call. It holds a copy of the name, attributes, namespace declarations and
+ * text of the current position, so it can be used as the {@link StartElement},
+ * {@link EndElement}, {@link Characters} or {@link Attribute} matching its
+ * event type, but only until the next call to {@link #nextEvent()}.
  */
 public class StaxUnmarshallerContext {
 
     private XMLEvent currentEvent;
     private final XMLEventReader eventReader;
 
+    /** The cursor over the document; null if reading from an event reader. */
+    private final XMLStreamReader streamReader;
+    private final CursorEvent cursorEvent;
+
+    /** Creates the attribute and namespace events requested from the cursor event. */
+    private static final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+    /**
+     * Attributes of the last start element read through the cursor, still to
+     * be returned as attribute events.
+     */
+    private String[] attributeNames = new String[0];
+    private String[] attributeValues = new String[0];
+    private String[] attributeNamespaces = new String[0];
+    private String[] attributePrefixes = new String[0];
+    private int attributeCount;
+    private int attributeIndex;
+    private String currentAttributeValue;
+
     public final Stack<String> stack = new Stack<String>();
     private String stackString = "";
 
+    /**
+     * The path of each element on the stack, so that the stack string doesn't
+     * need to be rebuilt from the whole stack at every end element.
+     */
+    private final List<String> elementPaths = new ArrayList<String>();
+    private boolean attributeInStackString;
+
     private Map<String, String> metadata = new HashMap<String, String>();
     private List<MetadataExpression> metadataExpressions = new ArrayList<MetadataExpression>();
 
@@ -71,6 +117,26 @@ public class StaxUnmarshallerContext {
      */
     public StaxUnmarshallerContext(XMLEventReader eventReader, Map<String, String> headers) {
         this.eventReader = eventReader;
+        this.streamReader = null;
+        this.cursorEvent = null;
+        this.headers = headers;
+    }
+
+    /**
+     * Constructs a new unmarshaller context that reads the document through
+     * the specified StAX cursor, and a set of response headers.
+     *
+     * @param streamReader
+     *            The StAX cursor over the document, positioned at the start of
+     *            the document.
+     * @param headers
+     *            The set of response headers associated with this unmarshaller
+     *            context.
+     */
+    public StaxUnmarshallerContext(XMLStreamReader streamReader, Map<String, String> headers) {
+        this.eventReader = null;
+        this.streamReader = streamReader;
+        this.cursorEvent = new CursorEvent();
         this.headers = headers;
     }
 
@@ -97,6 +163,9 @@ public class StaxUnmarshallerContext {
      * @throws XMLStreamException
      */
     public String readText() throws XMLStreamException {
+        if (streamReader != null) {
+            return readCursorText();
+        }
         if (currentEvent.isAttribute()) {
             Attribute attribute = (Attribute)currentEvent;
             return attribute.getValue();
@@ -180,17 +249,26 @@ public class StaxUnmarshallerContext {
      *         yet).
      */
     public boolean isStartOfDocument() throws XMLStreamException {
+        if (streamReader != null) {
+            return currentEvent == null
+                    && streamReader.getEventType() == XMLStreamConstants.START_DOCUMENT;
+        }
         return eventReader.peek().isStartDocument();
     }
 
     /**
-     * Returns the next XML event for the document being parsed.
+     * Returns the next XML event for the document being parsed. When reading
+     * through a StAX cursor the same event instance is returned on every call,
+     * so callers that need an event after the following call must copy it.
      *
      * @return The next XML event for the document being parsed.
      *
      * @throws XMLStreamException
      */
     public XMLEvent nextEvent() throws XMLStreamException {
+        if (streamReader != null) {
+            return nextCursorEvent();
+        }
         if (attributeIterator != null && attributeIterator.hasNext()) {
             currentEvent = (XMLEvent)attributeIterator.next();
         } else {
@@ -217,6 +295,90 @@ public class StaxUnmarshallerContext {
         return currentEvent;
     }
 
+    /**
+     * Moves the cursor to the next event of the document. The attributes of a
+     * start element are returned as separate events after the start element,
+     * the same way as when reading from an event reader.
+     */
+    private XMLEvent nextCursorEvent() throws XMLStreamException {
+        if (attributeIndex < attributeCount) {
+            currentAttributeValue = attributeValues[attributeIndex];
+            cursorEvent.setAttribute(attributeIndex++);
+        } else {
+            attributeCount = 0;
+            attributeIndex = 0;
+            cursorEvent.set(streamReader);
+            if (cursorEvent.isStartElement()) {
+                captureAttributes();
+            }
+            // The cursor is always left on the event after the current one,
+            // which plays the role of the event reader's peek()
+            if (streamReader.hasNext()) {
+                streamReader.next();
+            }
+        }
+        currentEvent = cursorEvent;
+        updateContext(cursorEvent.eventType, cursorEvent.localName);
+
+        if (!cursorEvent.isEndDocument()
+                && streamReader.getEventType() == XMLStreamConstants.CHARACTERS) {
+            for (MetadataExpression metadataExpression : metadataExpressions) {
+                if (testExpression(metadataExpression.expression, metadataExpression.targetDepth)) {
+                    metadata.put(metadataExpression.key, streamReader.getText());
+                }
+            }
+        }
+
+        return cursorEvent;
+    }
+
+    private void captureAttributes() {
+        attributeCount = streamReader.getAttributeCount();
+        if (attributeCount > attributeNames.length) {
+            attributeNames = new String[attributeCount];
+            attributeValues = new String[attributeCount];
+            attributeNamespaces = new String[attributeCount];
+            attributePrefixes = new String[attributeCount];
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            attributeNames[i] = streamReader.getAttributeLocalName(i);
+            attributeValues[i] = streamReader.getAttributeValue(i);
+            attributeNamespaces[i] = streamReader.getAttributeNamespace(i);
+            attributePrefixes[i] = streamReader.getAttributePrefix(i);
+        }
+    }
+
+    private String readCursorText() throws XMLStreamException {
+        if (currentEvent.isAttribute()) {
+            return currentAttributeValue;
+        }
+
+        String text = null;
+        StringBuilder sb = null;
+        while (true) {
+            int eventType = streamReader.getEventType();
+            if (eventType == XMLStreamConstants.CHARACTERS
+                    || eventType == XMLStreamConstants.CDATA) {
+                if (text == null) {
+                    text = streamReader.getText();
+                } else {
+                    if (sb == null) {
+                        sb = new StringBuilder(text);
+                    }
+                    sb.append(streamReader.getTextCharacters(),
+                            streamReader.getTextStart(),
+                            streamReader.getTextLength());
+                }
+                streamReader.next();
+            } else if (eventType == XMLStreamConstants.END_ELEMENT) {
+                if (sb != null) return sb.toString();
+                return text == null ? "" : text;
+            } else {
+                throw new RuntimeException("Encountered unexpected event: " + eventType);
+            }
+        }
+    }
+
     /**
      * Returns any metadata collected through metadata expressions while this
      * context was reading the XML events from the XML document.
@@ -271,21 +433,374 @@ public class StaxUnmarshallerContext {
         if (event == null) return;
 
         if (event.isEndElement()) {
-            stack.pop();
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
-            }
+            updateContext(XMLStreamConstants.END_ELEMENT, null);
         } else if (event.isStartElement()) {
-            stack.push(event.asStartElement().getName().getLocalPart());
-            stackString += "/" + event.asStartElement().getName().getLocalPart();
+            updateContext(XMLStreamConstants.START_ELEMENT,
+                    event.asStartElement().getName().getLocalPart());
         } else if (event.isAttribute()) {
-            Attribute attribute = (Attribute)event;
-            stackString = "";
-            for (String s : stack) {
-                stackString += "/" + s;
+            updateContext(XMLStreamConstants.ATTRIBUTE,
+                    ((Attribute)event).getName().getLocalPart());
+        }
+    }
+
+    private void updateContext(int eventType, String localName) {
+        if (eventType == XMLStreamConstants.END_ELEMENT) {
+            stack.pop();
+            elementPaths.remove(elementPaths.size() - 1);
+            stackString = currentElementPath();
+            attributeInStackString = false;
+        } else if (eventType == XMLStreamConstants.START_ELEMENT) {
+            String elementPath = currentElementPath() + "/" + localName;
+            stack.push(localName);
+            // An element following an attribute is appended to the attribute's
+            // path, as the stack string has always been built that way
+            stackString = attributeInStackString
+                    ? stackString + "/" + localName
+                    : elementPath;
+            elementPaths.add(elementPath);
+        } else if (eventType == XMLStreamConstants.ATTRIBUTE) {
+            stackString = currentElementPath() + "/@" + localName;
+            attributeInStackString = true;
+        }
+    }
+
+    private String currentElementPath() {
+        return elementPaths.isEmpty() ? "" : elementPaths.get(elementPaths.size() - 1);
+    }
+
+    /**
+     * Reusable event describing the current position of the StAX cursor. The
+     * name, namespace declarations and text of the position are copied when
+     * the cursor moves, so the event can be viewed as the specific event
+     * interface of its type; the attributes of a start element are read from
+     * the ones captured by the enclosing context.
+     */
+    private final class CursorEvent implements StartElement, EndElement, Characters, Attribute {
+        private int eventType;
+        private String localName;
+        private String namespaceURI;
+        private String prefix;
+        private String attributeValue;
+        private final StringBuilder text = new StringBuilder();
+
+        private String[] namespacePrefixes = new String[0];
+        private String[] namespaceURIs = new String[0];
+        private int namespaceCount;
+
+        void set(XMLStreamReader reader) {
+            eventType = reader.getEventType();
+            localName = null;
+            namespaceURI = null;
+            prefix = null;
+            attributeValue = null;
+            namespaceCount = 0;
+            text.setLength(0);
+            if (eventType == XMLStreamConstants.START_ELEMENT
+                    || eventType == XMLStreamConstants.END_ELEMENT) {
+                localName = reader.getLocalName();
+                namespaceURI = reader.getNamespaceURI();
+                prefix = reader.getPrefix();
+                captureNamespaces(reader);
+            } else if (isCharacters()) {
+                text.append(reader.getTextCharacters(),
+                        reader.getTextStart(), reader.getTextLength());
+            }
+        }
+
+        void setAttribute(int index) {
+            eventType = XMLStreamConstants.ATTRIBUTE;
+            localName = attributeNames[index];
+            namespaceURI = attributeNamespaces[index];
+            prefix = attributePrefixes[index];
+            attributeValue = attributeValues[index];
+            namespaceCount = 0;
+            text.setLength(0);
+        }
+
+        private void captureNamespaces(XMLStreamReader reader) {
+            namespaceCount = reader.getNamespaceCount();
+            if (namespaceCount > namespacePrefixes.length) {
+                namespacePrefixes = new String[namespaceCount];
+                namespaceURIs = new String[namespaceCount];
+            }
+            for (int i = 0; i < namespaceCount; i++) {
+                namespacePrefixes[i] = reader.getNamespacePrefix(i);
+                namespaceURIs[i] = reader.getNamespaceURI(i);
+            }
+        }
+
+        @Override
+        public int getEventType() {
+            return eventType;
+        }
+
+        @Override
+        public Location getLocation() {
+            return null;
+        }
+
+        @Override
+        public boolean isStartElement() {
+            return eventType == XMLStreamConstants.START_ELEMENT;
+        }
+
+        @Override
+        public boolean isAttribute() {
+            return eventType == XMLStreamConstants.ATTRIBUTE;
+        }
+
+        @Override
+        public boolean isNamespace() {
+            return eventType == XMLStreamConstants.NAMESPACE;
+        }
+
+        @Override
+        public boolean isEndElement() {
+            return eventType == XMLStreamConstants.END_ELEMENT;
+        }
+
+        @Override
+        public boolean isEntityReference() {
+            return eventType == XMLStreamConstants.ENTITY_REFERENCE;
+        }
+
+        @Override
+        public boolean isProcessingInstruction() {
+            return eventType == XMLStreamConstants.PROCESSING_INSTRUCTION;
+        }
+
+        @Override
+        public boolean isCharacters() {
+            return eventType == XMLStreamConstants.CHARACTERS
+                    || eventType == XMLStreamConstants.CDATA
+                    || eventType == XMLStreamConstants.SPACE;
+        }
+
+        @Override
+        public boolean isStartDocument() {
+            return eventType == XMLStreamConstants.START_DOCUMENT;
+        }
+
+        @Override
+        public boolean isEndDocument() {
+            return eventType == XMLStreamConstants.END_DOCUMENT;
+        }
+
+        @Override
+        public StartElement asStartElement() {
+            if (!isStartElement()) throw new ClassCastException("Not a start element: " + this);
+            return this;
+        }
+
+        @Override
+        public EndElement asEndElement() {
+            if (!isEndElement()) throw new ClassCastException("Not an end element: " + this);
+            return this;
+        }
+
+        @Override
+        public Characters asCharacters() {
+            if (!isCharacters()) throw new ClassCastException("Not characters: " + this);
+            return this;
+        }
+
+        @Override
+        public QName getSchemaType() {
+            return null;
+        }
+
+        @Override
+        public QName getName() {
+            return new QName(namespaceURI == null ? "" : namespaceURI, localName,
+                    prefix == null ? "" : prefix);
+        }
+
+        @Override
+        public Iterator<Attribute> getAttributes() {
+            if (!isStartElement() || attributeCount == 0) {
+                return Collections.<Attribute>emptyList().iterator();
+            }
+            List<Attribute> attributes = new ArrayList<Attribute>(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.add(eventFactory.createAttribute(
+                        attributePrefixes[i] == null ? "" : attributePrefixes[i],
+                        attributeNamespaces[i] == null ? "" : attributeNamespaces[i],
+                        attributeNames[i], attributeValues[i]));
+            }
+            return attributes.iterator();
+        }
+
+        @Override
+        public Attribute getAttributeByName(QName name) {
+            if (!isStartElement()) return null;
+            for (int i = 0; i < attributeCount; i++) {
+                String namespace = attributeNamespaces[i] == null ? "" : attributeNamespaces[i];
+                if (name.getLocalPart().equals(attributeNames[i])
+                        && name.getNamespaceURI().equals(namespace)) {
+                    return eventFactory.createAttribute(
+                            attributePrefixes[i] == null ? "" : attributePrefixes[i],
+                            namespace, attributeNames[i], attributeValues[i]);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Iterator<Namespace> getNamespaces() {
+            if (namespaceCount == 0) {
+                return Collections.<Namespace>emptyList().iterator();
+            }
+            List<Namespace> namespaces = new ArrayList<Namespace>(namespaceCount);
+            for (int i = 0; i < namespaceCount; i++) {
+                namespaces.add(namespacePrefixes[i] == null
+                        ? eventFactory.createNamespace(namespaceURIs[i])
+                        : eventFactory.createNamespace(namespacePrefixes[i], namespaceURIs[i]));
             }
-            stackString += "/@" + attribute.getName().getLocalPart();
+            return namespaces.iterator();
+        }
+
+        /**
+         * Returns null; the namespaces in scope aren't kept once the cursor
+         * has moved on. Only the namespaces declared on this element can be
+         * resolved, through {@link #getNamespaceURI(String)}.
+         */
+        @Override
+        public NamespaceContext getNamespaceContext() {
+            return null;
+        }
+
+        @Override
+        public String getNamespaceURI(String prefix) {
+            String declaredPrefix = prefix == null ? "" : prefix;
+            for (int i = 0; i < namespaceCount; i++) {
+                String namespacePrefix = namespacePrefixes[i] == null ? "" : namespacePrefixes[i];
+                if (namespacePrefix.equals(declaredPrefix)) return namespaceURIs[i];
+            }
+            if (declaredPrefix.equals(this.prefix == null ? "" : this.prefix)) return namespaceURI;
+            return null;
+        }
+
+        @Override
+        public String getData() {
+            return text.toString();
+        }
+
+        @Override
+        public boolean isWhiteSpace() {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCData() {
+            return eventType == XMLStreamConstants.CDATA;
+        }
+
+        @Override
+        public boolean isIgnorableWhiteSpace() {
+            return eventType == XMLStreamConstants.SPACE;
+        }
+
+        @Override
+        public String getValue() {
+            return attributeValue;
+        }
+
+        @Override
+        public String getDTDType() {
+            return "CDATA";
+        }
+
+        @Override
+        public boolean isSpecified() {
+            return true;
+        }
+
+        @Override
+        public void writeAsEncodedUnicode(Writer writer) throws XMLStreamException {
+            try {
+                switch (eventType) {
+                case XMLStreamConstants.START_ELEMENT:
+                    writer.write('<');
+                    writeName(writer, prefix, localName);
+                    for (int i = 0; i < namespaceCount; i++) {
+                        writer.write(" xmlns");
+                        if (namespacePrefixes[i] != null && namespacePrefixes[i].length() > 0) {
+                            writer.write(':');
+                            writer.write(namespacePrefixes[i]);
+                        }
+                        writer.write("=\"");
+                        writeEscaped(writer, namespaceURIs[i], true);
+                        writer.write('"');
+                    }
+                    for (int i = 0; i < attributeCount; i++) {
+                        writer.write(' ');
+                        writeAttribute(writer, attributePrefixes[i], attributeNames[i], attributeValues[i]);
+                    }
+                    writer.write('>');
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    writer.write("</");
+                    writeName(writer, prefix, localName);
+                    writer.write('>');
+                    break;
+                case XMLStreamConstants.ATTRIBUTE:
+                    writeAttribute(writer, prefix, localName, attributeValue);
+                    break;
+                case XMLStreamConstants.CDATA:
+                    writer.write("<![CDATA[");
+                    writer.write(getData());
+                    writer.write("]]>");
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    writeEscaped(writer, getData(), false);
+                    break;
+                case XMLStreamConstants.START_DOCUMENT:
+                    writer.write("<?xml version=\"1.0\"?>");
+                    break;
+                default:
+                    break;
+                }
+            } catch (IOException e) {
+                throw new XMLStreamException(e);
+            }
+        }
+
+        private void writeAttribute(Writer writer, String prefix, String name, String value)
+                throws IOException {
+            writeName(writer, prefix, name);
+            writer.write("=\"");
+            writeEscaped(writer, value, true);
+            writer.write('"');
+        }
+
+        private void writeName(Writer writer, String prefix, String name) throws IOException {
+            if (prefix != null && prefix.length() > 0) {
+                writer.write(prefix);
+                writer.write(':');
+            }
+            writer.write(name);
+        }
+
+        private void writeEscaped(Writer writer, String value, boolean attribute)
+                throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '<') writer.write("&lt;");
+                else if (c == '>') writer.write("&gt;");
+                else if (c == '&') writer.write("&amp;");
+                else if (attribute && c == '"') writer.write("&quot;");
+                else writer.write(c);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return localName == null ? String.valueOf(eventType)
+                    : eventType + ": " + localName;
         }
     }
 
@@ -14,8 +14,8 @@
  */
 package com.amazonaws.util;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.amazonaws.ResponseMetadata;
 
@@ -23,9 +23,14 @@ import com.amazonaws.ResponseMetadata;
  * Cache of response metadata for recently executed requests for diagnostic
  * purposes. This cache has a max size and as entries are added, the oldest
  * entry is aged out once the max size has been reached.
+ * <p>
+ * Entries are kept in a fixed-size ring, so adding an entry, which happens on
+ * every request, never takes a lock; lookups scan the ring. A cache of size
+ * zero records nothing.
  */
 public class ResponseMetadataCache {
-    private final InternalCache internalCache;
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong nextSequence = new AtomicLong();
 
 
     /**
@@ -36,7 +41,7 @@ public class ResponseMetadataCache {
      *            The maximum size of this cache.
      */
     public ResponseMetadataCache(int maxEntries) {
-        internalCache = new InternalCache(maxEntries);
+        entries = new AtomicReferenceArray<Entry>(Math.max(0, maxEntries));
     }
 
     /**
@@ -48,9 +53,11 @@ public class ResponseMetadataCache {
      * @param metadata
      *            The metadata for this entry.
      */
-    public synchronized void add(Object obj, ResponseMetadata metadata) {
-        if (obj == null) return;
-        internalCache.put(System.identityHashCode(obj), metadata);
+    public void add(Object obj, ResponseMetadata metadata) {
+        if (obj == null || entries.length() == 0) return;
+        long sequence = nextSequence.getAndIncrement();
+        entries.set((int) (sequence % entries.length()),
+                new Entry(System.identityHashCode(obj), sequence, metadata));
     }
 
     /**
@@ -63,32 +70,37 @@ public class ResponseMetadataCache {
      * @return The response metadata associated with the given object key,
      *         otherwise null if no metadata is associated with that object.
      */
-    public synchronized ResponseMetadata get(Object obj) {
+    public ResponseMetadata get(Object obj) {
         // System.identityHashCode isn't guaranteed to be unique
         // on all platforms, but should be reasonable enough to use
         // for a few requests at a time.  We can always easily move
         // to our own unique IDs if needed.
-        return internalCache.get(System.identityHashCode(obj));
+        int key = System.identityHashCode(obj);
+        Entry latest = null;
+        for (int i = 0; i < entries.length(); i++) {
+            Entry entry = entries.get(i);
+            if (entry != null && entry.key == key
+                    && (latest == null || entry.sequence > latest.sequence)) {
+                latest = entry;
+            }
+        }
+        return latest == null ? null : latest.metadata;
     }
 
 
     /**
-     * Simple implementation of LinkedHashMap that overrides the
-     * <code>removeEldestEntry</code> method to turn LinkedHashMap into a
-     * LRU(ish) cache that automatically evicts old entries.
+     * The metadata recorded for a request, along with the order in which it
+     * was added so that the latest wins if a request is executed again.
      */
-    private static final class InternalCache extends LinkedHashMap<Integer, ResponseMetadata> {
-        private static final long serialVersionUID = 1L;
-        private int maxSize;
-
-        public InternalCache(int maxSize) {
-            super(maxSize);
-            this.maxSize = maxSize;
-        }
+    private static final class Entry {
+        private final int key;
+        private final long sequence;
+        private final ResponseMetadata metadata;
 
-        @Override
-        protected boolean removeEldestEntry(Entry<Integer,ResponseMetadata> eldest) {
-            return size() > maxSize;
+        private Entry(int key, long sequence, ResponseMetadata metadata) {
+            this.key = key;
+            this.sequence = sequence;
+            this.metadata = metadata;
         }
     }
 }
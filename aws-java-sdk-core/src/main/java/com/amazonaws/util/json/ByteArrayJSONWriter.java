@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.util.json;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A {@link JSONWriter} that encodes the JSON text as UTF-8 directly into a
+ * reusable per-thread byte buffer, instead of building it in a
+ * <code>StringWriter</code> and encoding the resulting string afterwards.
+ * <p>
+ * The buffer is only borrowed while the text is being written. Call
+ * {@link #getBytes()} once the text is complete to obtain an exactly sized
+ * copy of the encoded bytes, which can be used as the content of a request and
+ * its content length; this also hands the buffer back for reuse by the next
+ * writer on the same thread.
+ */
+public class ByteArrayJSONWriter extends JSONWriter {
+
+    /** Buffers that grew past this size are not kept for reuse. */
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private static final ThreadLocal<Utf8Buffer> retainedBuffer = new ThreadLocal<Utf8Buffer>();
+
+    private final Utf8Buffer buffer;
+
+    private byte[] bytes;
+
+    public ByteArrayJSONWriter() {
+        this(borrowBuffer());
+    }
+
+    private ByteArrayJSONWriter(Utf8Buffer buffer) {
+        super(buffer);
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the UTF-8 encoded JSON text written so far. No more values can be
+     * written once this method has been called.
+     */
+    public byte[] getBytes() {
+        if (bytes == null) {
+            bytes = buffer.toByteArray();
+            returnBuffer(buffer);
+        }
+        return bytes;
+    }
+
+    private static Utf8Buffer borrowBuffer() {
+        Utf8Buffer buffer = retainedBuffer.get();
+        if (buffer == null) {
+            return new Utf8Buffer(INITIAL_BUFFER_SIZE);
+        }
+        // Nested writers on the same thread get a buffer of their own
+        retainedBuffer.set(null);
+        buffer.reset();
+        return buffer;
+    }
+
+    private static void returnBuffer(Utf8Buffer buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+            retainedBuffer.set(buffer);
+        }
+    }
+
+    /**
+     * A growable byte buffer that encodes the characters written to it as
+     * UTF-8.
+     */
+    private static final class Utf8Buffer extends Writer {
+        private byte[] buf;
+        private int count;
+
+        /** A high surrogate waiting for the low surrogate of its pair. */
+        private char highSurrogate;
+
+        Utf8Buffer(int size) {
+            buf = new byte[size];
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        void reset() {
+            count = 0;
+            highSurrogate = 0;
+        }
+
+        byte[] toByteArray() {
+            flushUnpairedSurrogate();
+            return Arrays.copyOf(buf, count);
+        }
+
+        @Override
+        public void write(int c) {
+            encode((char) c);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            ensureCapacity(count + len);
+            for (int i = off; i < off + len; i++) {
+                encode(cbuf[i]);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            ensureCapacity(count + len);
+            for (int i = off; i < off + len; i++) {
+                encode(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void encode(char c) {
+            if (highSurrogate != 0) {
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(highSurrogate, c);
+                    highSurrogate = 0;
+                    ensureCapacity(count + 4);
+                    buf[count++] = (byte) (0xF0 | (codePoint >> 18));
+                    buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                    return;
+                }
+                flushUnpairedSurrogate();
+            }
+            if (c < 0x80) {
+                if (count == buf.length) {
+                    ensureCapacity(count + 1);
+                }
+                buf[count++] = (byte) c;
+            } else if (c < 0x800) {
+                ensureCapacity(count + 2);
+                buf[count++] = (byte) (0xC0 | (c >> 6));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                writeReplacement();
+            } else {
+                ensureCapacity(count + 3);
+                buf[count++] = (byte) (0xE0 | (c >> 12));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        /**
+         * Encodes a pending high surrogate without its low surrogate the same
+         * way as {@link String#getBytes(java.nio.charset.Charset)}.
+         */
+        private void flushUnpairedSurrogate() {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                writeReplacement();
+            }
+        }
+
+        private void writeReplacement() {
+            ensureCapacity(count + 1);
+            buf[count++] = (byte) '?';
+        }
+
+        private void ensureCapacity(int minCapacity) {
+            if (minCapacity > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, minCapacity));
+            }
+        }
+    }
+}
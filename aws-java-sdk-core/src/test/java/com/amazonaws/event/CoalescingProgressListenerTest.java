@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.event;
+
+import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestBytesTransferred;
+import static com.amazonaws.event.SDKProgressPublisher.publishRequestContentLength;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonWebServiceRequest;
+
+public class CoalescingProgressListenerTest {
+
+    private static class RecordingListener extends SyncProgressListener {
+        private final List<ProgressEvent> events = new ArrayList<ProgressEvent>();
+
+        @Override
+        public synchronized void progressChanged(ProgressEvent progressEvent) {
+            events.add(progressEvent);
+        }
+
+        synchronized long bytesTransferred() {
+            long total = 0;
+            for (ProgressEvent e : events) {
+                if (e.getEventType() == ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT)
+                    total += e.getBytes();
+            }
+            return total;
+        }
+    }
+
+    @Test
+    public void coalescesUpToByteThreshold() {
+        RecordingListener recorder = new RecordingListener();
+        ProgressListener listener = new CoalescingProgressListener(recorder, 0, 100);
+        for (int i = 0; i < 10; i++)
+            publishRequestBytesTransferred(listener, 30);
+        assertEquals(2, recorder.events.size());
+        assertEquals(120, recorder.events.get(0).getBytes());
+        assertEquals(120, recorder.events.get(1).getBytes());
+
+        // pending bytes are passed on before any other event
+        publishProgress(listener, ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT);
+        assertEquals(4, recorder.events.size());
+        assertEquals(ProgressEventType.REQUEST_BYTE_TRANSFER_EVENT, recorder.events.get(2).getEventType());
+        assertEquals(60, recorder.events.get(2).getBytes());
+        assertEquals(ProgressEventType.CLIENT_REQUEST_SUCCESS_EVENT, recorder.events.get(3).getEventType());
+        assertEquals(300, recorder.bytesTransferred());
+    }
+
+    @Test
+    public void passesOnOtherByteCountEvents() {
+        RecordingListener recorder = new RecordingListener();
+        ProgressListener listener = new CoalescingProgressListener(recorder, 0, 0);
+        publishRequestContentLength(listener, 1000);
+        assertEquals(1, recorder.events.size());
+        assertEquals(ProgressEventType.REQUEST_CONTENT_LENGTH_EVENT, recorder.events.get(0).getEventType());
+        assertEquals(1000, recorder.events.get(0).getBytes());
+    }
+
+    @Test
+    public void coalescesOverInterval() throws InterruptedException {
+        RecordingListener recorder = new RecordingListener();
+        ProgressListener listener = new CoalescingProgressListener(recorder, 1, 0);
+        publishRequestBytesTransferred(listener, 10);
+        Thread.sleep(10);
+        publishRequestBytesTransferred(listener, 10);
+        assertEquals(20, recorder.bytesTransferred());
+    }
+
+    @Test
+    public void flushesAtEndOfContent() throws Exception {
+        RecordingListener recorder = new RecordingListener();
+        AmazonWebServiceRequest req = new AmazonWebServiceRequest() {};
+        req.setGeneralProgressListener(new CoalescingProgressListener(recorder, 0, 0));
+        InputStream is = ProgressInputStream.inputStreamForRequest(
+                new ByteArrayInputStream(new byte[100000]), req);
+        byte[] buf = new byte[1000];
+        while (is.read(buf) != -1)
+            ;
+        assertEquals(1, recorder.events.size());
+        assertEquals(100000, recorder.bytesTransferred());
+        is.close();
+        assertEquals(1, recorder.events.size());
+    }
+}
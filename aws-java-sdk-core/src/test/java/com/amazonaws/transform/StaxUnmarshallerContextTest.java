@@ -0,0 +1,162 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import org.junit.Test;
+
+import com.amazonaws.ResponseMetadata;
+
+/**
+ * Verifies that reading a document through the StAX cursor is equivalent to
+ * reading it through an event reader.
+ */
+public class StaxUnmarshallerContextTest {
+
+    private static final String DOCUMENT =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<DescribeResponse xmlns=\"http://example.com/doc/\">"
+            + "<DescribeResult>"
+            + "<item id=\"i-1\" state=\"running\"><value>first &amp; <![CDATA[second]]></value>"
+            + "<nested><value>n</value></nested></item>"
+            + "<item><!-- comment --><value></value><empty/></item>"
+            + "<value>café 😀</value>"
+            + "</DescribeResult>"
+            + "<ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata>"
+            + "</DescribeResponse>";
+
+    private static final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+    @Test
+    public void cursorMatchesEventReader() throws Exception {
+        StaxUnmarshallerContext eventContext = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLEventReader(new StringReader(DOCUMENT)));
+        StaxUnmarshallerContext cursorContext = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLStreamReader(new StringReader(DOCUMENT)), null);
+
+        List<String> expected = trace(eventContext);
+        List<String> actual = trace(cursorContext);
+
+        assertEquals(expected, actual);
+        assertEquals("request-id", cursorContext.getMetadata().get(ResponseMetadata.AWS_REQUEST_ID));
+        assertEquals(eventContext.getMetadata(), cursorContext.getMetadata());
+    }
+
+    @Test
+    public void cursorReusesEvent() throws Exception {
+        StaxUnmarshallerContext context = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLStreamReader(new StringReader(DOCUMENT)), null);
+        assertTrue(context.isStartOfDocument());
+        XMLEvent first = context.nextEvent();
+        assertTrue(first.isStartDocument());
+        assertFalse(context.isStartOfDocument());
+        assertSame(first, context.nextEvent());
+    }
+
+    @Test
+    public void cursorEventMatchesEventReaderEvents() throws Exception {
+        StaxUnmarshallerContext eventContext = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLEventReader(new StringReader(DOCUMENT)));
+        StaxUnmarshallerContext cursorContext = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLStreamReader(new StringReader(DOCUMENT)), null);
+
+        assertEquals(describeEvents(eventContext), describeEvents(cursorContext));
+    }
+
+    @Test
+    public void cursorEventWritesCurrentPosition() throws Exception {
+        StaxUnmarshallerContext context = new StaxUnmarshallerContext(
+                xmlInputFactory.createXMLStreamReader(new StringReader(
+                        "<a:item xmlns:a=\"urn:a\" id=\"x&amp;&quot;y\">1 &lt; 2</a:item>")), null);
+        context.nextEvent();
+        StringWriter writer = new StringWriter();
+        XMLEvent event;
+        while (!(event = context.nextEvent()).isEndDocument()) {
+            event.writeAsEncodedUnicode(writer);
+        }
+        assertEquals("<a:item xmlns:a=\"urn:a\" id=\"x&amp;&quot;y\">id=\"x&amp;&quot;y\""
+                + "1 &lt; 2</a:item>", writer.toString());
+    }
+
+    private static List<String> describeEvents(StaxUnmarshallerContext context) throws Exception {
+        List<String> events = new ArrayList<String>();
+        while (true) {
+            XMLEvent xmlEvent = context.nextEvent();
+            if (xmlEvent.isEndDocument()) {
+                return events;
+            }
+            if (xmlEvent.isStartElement()) {
+                StartElement startElement = xmlEvent.asStartElement();
+                String entry = "start " + startElement.getName();
+                for (Iterator<?> it = startElement.getAttributes(); it.hasNext();) {
+                    Attribute attribute = (Attribute) it.next();
+                    entry += " " + attribute.getName() + "=" + attribute.getValue();
+                }
+                Attribute id = startElement.getAttributeByName(new QName("id"));
+                entry += " id=" + (id == null ? null : id.getValue());
+                events.add(entry);
+            } else if (xmlEvent.isAttribute()) {
+                Attribute attribute = (Attribute) xmlEvent;
+                events.add("attribute " + attribute.getName() + "=" + attribute.getValue());
+            } else if (xmlEvent.isEndElement()) {
+                events.add("end " + xmlEvent.asEndElement().getName());
+            } else if (xmlEvent.isCharacters()) {
+                events.add("characters " + xmlEvent.asCharacters().getData());
+            }
+        }
+    }
+
+    private static List<String> trace(StaxUnmarshallerContext context) throws Exception {
+        context.registerMetadataExpression("ResponseMetadata/RequestId", 2, ResponseMetadata.AWS_REQUEST_ID);
+        List<String> trace = new ArrayList<String>();
+        assertTrue(context.isStartOfDocument());
+        while (true) {
+            XMLEvent xmlEvent = context.nextEvent();
+            if (xmlEvent.isEndDocument()) {
+                trace.add("end");
+                return trace;
+            }
+            if (xmlEvent.isAttribute() || xmlEvent.isStartElement()) {
+                String entry = (xmlEvent.isAttribute() ? "attribute" : "start")
+                        + " depth=" + context.getCurrentDepth()
+                        + " value=" + context.testExpression("value")
+                        + " itemValue=" + context.testExpression("item/value", 3)
+                        + " id=" + context.testExpression("item/@id", 3);
+                if (xmlEvent.isAttribute() || context.testExpression("value")) {
+                    entry += " text=" + context.readText();
+                }
+                trace.add(entry);
+            } else if (xmlEvent.isEndElement()) {
+                trace.add("end depth=" + context.getCurrentDepth());
+            }
+        }
+    }
+}
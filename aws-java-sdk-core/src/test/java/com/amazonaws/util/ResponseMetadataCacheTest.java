@@ -78,6 +78,47 @@ public class ResponseMetadataCacheTest {
         assertNull(cache.get(key));
     }
 
+    /** Tests that the latest metadata wins when a key is added again. */
+    @Test
+    public void testReAddedKey() {
+        ResponseMetadataCache cache = new ResponseMetadataCache(3);
+
+        AmazonWebServiceRequest key = new TestRequest();
+        ResponseMetadata metadata1 = newResponseMetadata();
+        ResponseMetadata metadata2 = newResponseMetadata();
+        cache.add(key, metadata1);
+        cache.add(new TestRequest(), newResponseMetadata());
+        cache.add(key, metadata2);
+
+        assertEquals(metadata2, cache.get(key));
+    }
+
+    /** Tests that concurrent additions keep the latest entries. */
+    @Test
+    public void testConcurrentAdds() throws Exception {
+        final ResponseMetadataCache cache = new ResponseMetadataCache(10);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        cache.add(new TestRequest(), newResponseMetadata());
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        AmazonWebServiceRequest key = new TestRequest();
+        ResponseMetadata metadata = newResponseMetadata();
+        cache.add(key, metadata);
+        assertEquals(metadata, cache.get(key));
+    }
+
     private class TestRequest extends AmazonWebServiceRequest {}
 
     private ResponseMetadata newResponseMetadata() {
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.util.json;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class ByteArrayJSONWriterTest {
+
+    private static final String MIXED_TEXT = "ascii éß €中 😀 \"quoted\"\n";
+
+    @Test
+    public void encodesSameBytesAsStringWriter() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        writeDocument(new JSONWriter(stringWriter));
+
+        ByteArrayJSONWriter jsonWriter = new ByteArrayJSONWriter();
+        writeDocument(jsonWriter);
+
+        assertArrayEquals(stringWriter.toString().getBytes(UTF8),
+                jsonWriter.getBytes());
+    }
+
+    @Test
+    public void encodesUnpairedSurrogatesLikeString() throws Exception {
+        String text = "a\ud800b\udc00c\ud800";
+        ByteArrayJSONWriter jsonWriter = new ByteArrayJSONWriter();
+        jsonWriter.array().value(text).endArray();
+
+        StringWriter stringWriter = new StringWriter();
+        new JSONWriter(stringWriter).array().value(text).endArray();
+
+        assertArrayEquals(stringWriter.toString().getBytes(UTF8),
+                jsonWriter.getBytes());
+    }
+
+    @Test
+    public void reusedBufferDoesNotLeakPreviousContent() throws Exception {
+        ByteArrayJSONWriter first = new ByteArrayJSONWriter();
+        writeDocument(first);
+        first.getBytes();
+
+        ByteArrayJSONWriter second = new ByteArrayJSONWriter();
+        second.object().key("k").value(1).endObject();
+
+        assertArrayEquals("{\"k\":1}".getBytes(UTF8), second.getBytes());
+    }
+
+    @Test
+    public void nestedWritersDoNotShareBuffer() throws Exception {
+        ByteArrayJSONWriter outer = new ByteArrayJSONWriter();
+        outer.object().key("outer");
+
+        ByteArrayJSONWriter inner = new ByteArrayJSONWriter();
+        inner.object().key("inner").value(true).endObject();
+        byte[] innerBytes = inner.getBytes();
+
+        outer.value(false).endObject();
+
+        assertArrayEquals("{\"inner\":true}".getBytes(UTF8), innerBytes);
+        assertArrayEquals("{\"outer\":false}".getBytes(UTF8), outer.getBytes());
+    }
+
+    @Test
+    public void getBytesIsIdempotent() throws Exception {
+        ByteArrayJSONWriter jsonWriter = new ByteArrayJSONWriter();
+        writeDocument(jsonWriter);
+        assertSame(jsonWriter.getBytes(), jsonWriter.getBytes());
+    }
+
+    private static void writeDocument(JSONWriter jsonWriter) throws JSONException {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            large.append(MIXED_TEXT);
+        }
+        jsonWriter.object();
+        jsonWriter.key("Text").value(MIXED_TEXT);
+        jsonWriter.key("Large").value(large.toString());
+        jsonWriter.key("Number").value(42L);
+        jsonWriter.key("Binary").value(ByteBuffer.wrap(MIXED_TEXT.getBytes(UTF8)));
+        jsonWriter.key("List").array().value(true).value(1.5).endArray();
+        jsonWriter.endObject();
+    }
+}
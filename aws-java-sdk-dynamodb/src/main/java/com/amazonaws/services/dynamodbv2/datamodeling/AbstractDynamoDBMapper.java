@@ -16,6 +16,7 @@ package com.amazonaws.services.dynamodbv2.datamodeling;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
@@ -198,6 +199,21 @@ public class AbstractDynamoDBMapper implements IDynamoDBMapper {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+            DynamoDBScanExpression scanExpression, int totalSegments,
+            ExecutorService executorService) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+            DynamoDBScanExpression scanExpression,
+            ParallelScanCheckpoint checkpoint, ExecutorService executorService,
+            DynamoDBMapperConfig config) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public <T> ScanResultPage<T> scanPage(Class<T> clazz,
             DynamoDBScanExpression scanExpression, DynamoDBMapperConfig config) {
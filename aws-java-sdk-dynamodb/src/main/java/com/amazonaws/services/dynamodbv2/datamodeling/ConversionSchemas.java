@@ -23,12 +23,15 @@ import java.nio.ByteBuffer;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -211,6 +214,20 @@ public final class ConversionSchemas {
         private final DynamoDBReflector reflector;
         private final S3ClientCache s3cc;
 
+        /*
+         * The attributes of each class and the fully resolved (un)marshaller
+         * of each getter, so that converting an item only has to invoke the
+         * getters and setters. Reads are lock-free.
+         */
+        private final ConcurrentMap<Class<?>, ItemModel> itemModels =
+                new ConcurrentHashMap<Class<?>, ItemModel>();
+
+        private final ConcurrentMap<Method, ArgumentMarshaller> marshallers =
+                new ConcurrentHashMap<Method, ArgumentMarshaller>();
+
+        private final ConcurrentMap<Method, ArgumentUnmarshaller> unmarshallers =
+                new ConcurrentHashMap<Method, ArgumentUnmarshaller>();
+
         public StandardItemConverter(
                 MarshallerSet marshallerSet,
                 UnmarshallerSet unmarshallerSet,
@@ -272,19 +289,20 @@ public final class ConversionSchemas {
                 return null;
             }
 
-            Class<?> clazz = object.getClass();
+            ItemModel model = getItemModel(object.getClass());
             Map<String, AttributeValue> result =
-                    new HashMap<String, AttributeValue>();
+                    new HashMap<String, AttributeValue>(
+                            model.getters.length * 4 / 3 + 1);
 
-            for (Method getter : reflector.getRelevantGetters(clazz)) {
+            for (int i = 0; i < model.getters.length; i++) {
+                Method getter = model.getters[i];
                 Object getterResult =
                         ReflectionUtils.safeInvoke(getter, object);
 
                 if (getterResult != null) {
                     AttributeValue value = convert(getter, getterResult);
                     if (value != null) {
-                        String name = reflector.getAttributeName(getter);
-                        result.put(name, value);
+                        result.put(model.attributeNames[i], value);
                     }
                 }
             }
@@ -292,12 +310,29 @@ public final class ConversionSchemas {
             return result;
         }
 
+        private ItemModel getItemModel(Class<?> clazz) {
+            ItemModel model = itemModels.get(clazz);
+            if (model == null) {
+                model = new ItemModel(reflector, clazz);
+                ItemModel existing = itemModels.putIfAbsent(clazz, model);
+                if (existing != null) {
+                    model = existing;
+                }
+            }
+            return model;
+        }
+
         private ArgumentMarshaller getMarshaller(Method getter) {
-            ArgumentMarshaller marshaller =
-                    marshallerSet.getMarshaller(getter);
+            ArgumentMarshaller marshaller = marshallers.get(getter);
+            if (marshaller != null) {
+                return marshaller;
+            }
+
+            marshaller = marshallerSet.getMarshaller(getter);
 
             marshaller = augment(getter.getGenericReturnType(), marshaller);
 
+            marshallers.putIfAbsent(getter, marshaller);
             return marshaller;
         }
 
@@ -422,11 +457,11 @@ public final class ConversionSchemas {
                 return result;
             }
 
-            for (Method m : reflector.getRelevantGetters(clazz)) {
-                String attributeName = reflector.getAttributeName(m);
-                AttributeValue av = value.get(attributeName);
+            ItemModel model = getItemModel(clazz);
+            for (int i = 0; i < model.getters.length; i++) {
+                AttributeValue av = value.get(model.attributeNames[i]);
                 if (av != null) {
-                    setValue(result, m, av);
+                    setValue(result, model.getters[i], av);
                 }
             }
 
@@ -450,13 +485,19 @@ public final class ConversionSchemas {
                 Method getter,
                 Method setter) {
 
-            ArgumentUnmarshaller unmarshaller =
-                    unmarshallerSet.getUnmarshaller(getter, setter);
+            ArgumentUnmarshaller unmarshaller = unmarshallers.get(getter);
+            if (unmarshaller != null) {
+                return unmarshaller;
+            }
+
+            unmarshaller = unmarshallerSet.getUnmarshaller(getter, setter);
 
             unmarshaller = augment(
                     setter.getGenericParameterTypes()[0], unmarshaller);
 
-            return new NullableUnmarshaller(unmarshaller);
+            unmarshaller = new NullableUnmarshaller(unmarshaller);
+            unmarshallers.putIfAbsent(getter, unmarshaller);
+            return unmarshaller;
         }
 
         private ArgumentUnmarshaller getMemberUnmarshaller(Type type) {
@@ -635,6 +676,26 @@ public final class ConversionSchemas {
             }
         }
 
+        /**
+         * The relevant getters of a class and the attribute names they map
+         * to, resolved once.
+         */
+        private static final class ItemModel {
+            private final Method[] getters;
+            private final String[] attributeNames;
+
+            private ItemModel(DynamoDBReflector reflector, Class<?> clazz) {
+                Collection<Method> relevantGetters =
+                        reflector.getRelevantGetters(clazz);
+
+                getters = relevantGetters.toArray(
+                        new Method[relevantGetters.size()]);
+                attributeNames = new String[getters.length];
+                for (int i = 0; i < getters.length; i++) {
+                    attributeNames[i] = reflector.getAttributeName(getters[i]);
+                }
+            }
+        }
     }
 
     static interface MarshallerSet {
@@ -1311,11 +1372,11 @@ public final class ConversionSchemas {
 
     static class CachingMarshallerSet implements MarshallerSet {
 
-        private final Map<Method, ArgumentMarshaller> cache =
-                new HashMap<Method, ArgumentMarshaller>();
+        private final ConcurrentMap<Method, ArgumentMarshaller> cache =
+                new ConcurrentHashMap<Method, ArgumentMarshaller>();
 
-        private final Map<Type, ArgumentMarshaller> memberCache =
-                new HashMap<Type, ArgumentMarshaller>();
+        private final ConcurrentMap<Type, ArgumentMarshaller> memberCache =
+                new ConcurrentHashMap<Type, ArgumentMarshaller>();
 
         private final MarshallerSet wrapped;
 
@@ -1325,40 +1386,40 @@ public final class ConversionSchemas {
 
         @Override
         public ArgumentMarshaller getMarshaller(Method getter) {
-            synchronized (cache) {
-                ArgumentMarshaller marshaler = cache.get(getter);
-                if (marshaler != null) {
-                    return marshaler;
-                }
-
-                marshaler = wrapped.getMarshaller(getter);
-                cache.put(getter, marshaler);
+            ArgumentMarshaller marshaler = cache.get(getter);
+            if (marshaler != null) {
                 return marshaler;
             }
+
+            marshaler = wrapped.getMarshaller(getter);
+            if (marshaler != null) {
+                cache.putIfAbsent(getter, marshaler);
+            }
+            return marshaler;
         }
 
         @Override
         public ArgumentMarshaller getMemberMarshaller(Type memberType) {
-            synchronized (memberCache) {
-                ArgumentMarshaller marshaller = memberCache.get(memberType);
-                if (marshaller != null) {
-                    return marshaller;
-                }
-
-                marshaller = wrapped.getMemberMarshaller(memberType);
-                memberCache.put(memberType, marshaller);
+            ArgumentMarshaller marshaller = memberCache.get(memberType);
+            if (marshaller != null) {
                 return marshaller;
             }
+
+            marshaller = wrapped.getMemberMarshaller(memberType);
+            if (marshaller != null) {
+                memberCache.putIfAbsent(memberType, marshaller);
+            }
+            return marshaller;
         }
     }
 
     static class CachingUnmarshallerSet implements UnmarshallerSet {
 
-        private final Map<Method, ArgumentUnmarshaller> cache =
-                new HashMap<Method, ArgumentUnmarshaller>();
+        private final ConcurrentMap<Method, ArgumentUnmarshaller> cache =
+                new ConcurrentHashMap<Method, ArgumentUnmarshaller>();
 
-        private final Map<Type, ArgumentUnmarshaller> memberCache =
-                new HashMap<Type, ArgumentUnmarshaller>();
+        private final ConcurrentMap<Type, ArgumentUnmarshaller> memberCache =
+                new ConcurrentHashMap<Type, ArgumentUnmarshaller>();
 
         private final UnmarshallerSet wrapped;
 
@@ -1371,30 +1432,30 @@ public final class ConversionSchemas {
                 Method getter,
                 Method setter) {
 
-            synchronized (cache) {
-                ArgumentUnmarshaller unmarshaler = cache.get(getter);
-                if (unmarshaler != null) {
-                    return unmarshaler;
-                }
-
-                unmarshaler = wrapped.getUnmarshaller(getter, setter);
-                cache.put(getter, unmarshaler);
+            ArgumentUnmarshaller unmarshaler = cache.get(getter);
+            if (unmarshaler != null) {
                 return unmarshaler;
             }
+
+            unmarshaler = wrapped.getUnmarshaller(getter, setter);
+            if (unmarshaler != null) {
+                cache.putIfAbsent(getter, unmarshaler);
+            }
+            return unmarshaler;
         }
 
         @Override
         public ArgumentUnmarshaller getMemberUnmarshaller(Type memberType) {
-            synchronized (memberCache) {
-                ArgumentUnmarshaller unmarshaller = memberCache.get(memberType);
-                if (unmarshaller != null) {
-                    return unmarshaller;
-                }
-
-                unmarshaller = wrapped.getMemberUnmarshaller(memberType);
-                memberCache.put(memberType, unmarshaller);
+            ArgumentUnmarshaller unmarshaller = memberCache.get(memberType);
+            if (unmarshaller != null) {
                 return unmarshaller;
             }
+
+            unmarshaller = wrapped.getMemberUnmarshaller(memberType);
+            if (unmarshaller != null) {
+                memberCache.putIfAbsent(memberType, unmarshaller);
+            }
+            return unmarshaller;
         }
     }
 
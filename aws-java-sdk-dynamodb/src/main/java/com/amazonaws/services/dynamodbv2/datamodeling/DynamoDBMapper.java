@@ -29,6 +29,9 @@ import java.util.Map.Entry;
 import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -188,6 +191,8 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
     private final AmazonDynamoDB db;
     private final DynamoDBMapperConfig config;
     private final DynamoDBReflector reflector = new DynamoDBReflector();
+    private final ConcurrentMap<ConversionSchema, ItemConverter> converters =
+            new ConcurrentHashMap<ConversionSchema, ItemConverter>();
     private final DynamoDBTableSchemaParser schemaParser = new DynamoDBTableSchemaParser();
     private final VersionIncrementor incrementor = new VersionIncrementor();
 
@@ -1400,6 +1405,13 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
                     new WriteRequest().withDeleteRequest(new DeleteRequest().withKey(key)));
         }
 
+        Integer maxConcurrency = config.getBatchWriteMaxConcurrency();
+        if ( maxConcurrency != null && maxConcurrency > 1 && !requestItems.isEmpty() ) {
+            totalFailedBatches.addAll(new ParallelBatchWriter(
+                    this, requestItems, config.getBatchWriteRetryStrategy(), maxConcurrency).write());
+            requestItems.clear();
+        }
+
         // Break into chunks of 25 items and make service requests to DynamoDB
         while ( !requestItems.isEmpty() ) {
 
@@ -1459,7 +1471,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
      * Process one batch of requests(max 25). It will divide the batch if
      * receives request too large exception(the total size of the request is beyond 1M).
      */
-    private List<FailedBatch> writeOneBatch(
+    List<FailedBatch> writeOneBatch(
             Map<String, List<WriteRequest>> batch,
             BatchWriteRetryStrategy batchWriteRetryStrategy) {
 
@@ -1494,6 +1506,14 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         return failedBatches;
     }
 
+    /**
+     * Sends a single BatchWriteItem request for the given request items.
+     */
+    BatchWriteItemResult batchWriteItem(Map<String, List<WriteRequest>> requestItems) {
+        return db.batchWriteItem(applyBatchOperationUserAgent(
+                new BatchWriteItemRequest().withRequestItems(requestItems)));
+    }
+
     /**
      * Check whether there are throttling exception in the failed batches.
      */
@@ -1561,8 +1581,7 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
 
         while (true) {
             try {
-                result = db.batchWriteItem(applyBatchOperationUserAgent(
-                        new BatchWriteItemRequest().withRequestItems(pendingItems)));
+                result = batchWriteItem(pendingItems);
             } catch (Exception e) {
                 failedBatch = new FailedBatch();
                 failedBatch.setUnprocessedItems(pendingItems);
@@ -1822,6 +1841,22 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
         return new PaginatedParallelScanList<T>(this, clazz, db, parallelScanTask, config.getPaginationLoadingStrategy(), config);
     }
 
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz, DynamoDBScanExpression scanExpression, int totalSegments, ExecutorService executorService) {
+        return parallelScanIterator(clazz, scanExpression, ParallelScanCheckpoint.notStarted(totalSegments), executorService, config);
+    }
+
+    @Override
+    public <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz, DynamoDBScanExpression scanExpression, ParallelScanCheckpoint checkpoint, ExecutorService executorService, DynamoDBMapperConfig config) {
+        if (executorService == null) {
+            throw new IllegalArgumentException("An executor service must be provided for the parallel scan.");
+        }
+        config = mergeConfig(config);
+
+        List<ScanRequest> parallelScanRequests = createParallelScanRequestsFromExpression(clazz, scanExpression, checkpoint.getTotalSegments(), config);
+        return new ParallelScanIterator<T>(this, db, clazz, new ArrayList<ScanRequest>(parallelScanRequests), checkpoint, executorService, config);
+    }
+
     @Override
     public <T> ScanResultPage<T> scanPage(Class<T> clazz, DynamoDBScanExpression scanExpression, DynamoDBMapperConfig config) {
         config = mergeConfig(config);
@@ -2516,11 +2551,29 @@ public class DynamoDBMapper extends AbstractDynamoDBMapper {
     private ItemConverter getConverter(DynamoDBMapperConfig config) {
         ConversionSchema schema = config.getConversionSchema();
 
+        // The standard schemas build converters that depend only on this
+        // mapper's reflector and S3 client cache, so one converter per schema
+        // is reused along with everything it has resolved for each class.
+        boolean reusable = schema instanceof ConversionSchemas.StandardConversionSchema;
+        if (reusable) {
+            ItemConverter converter = converters.get(schema);
+            if (converter != null) {
+                return converter;
+            }
+        }
+
         ConversionSchema.Dependencies params = new ConversionSchema.Dependencies()
                 .with(DynamoDBReflector.class, reflector)
                 .with(S3ClientCache.class, s3cc);
 
-        return schema.getConverter(params);
+        ItemConverter converter = schema.getConverter(params);
+        if (reusable) {
+            ItemConverter existing = converters.putIfAbsent(schema, converter);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return converter;
     }
 
     private void pauseExponentially(int retries) {
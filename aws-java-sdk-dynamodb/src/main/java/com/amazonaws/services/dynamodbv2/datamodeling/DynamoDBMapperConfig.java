@@ -56,6 +56,8 @@ public class DynamoDBMapperConfig {
         private RequestMetricCollector requestMetricCollector;
         private ConversionSchema conversionSchema;
         private BatchWriteRetryStrategy batchWriteRetryStrategy;
+        private Integer batchWriteMaxConcurrency;
+        private Integer paginationPrefetchDepth;
 
         /**
          * Creates a new builder initialized with the {@link #DEFAULT} values.
@@ -70,6 +72,8 @@ public class DynamoDBMapperConfig {
             requestMetricCollector = DEFAULT.getRequestMetricCollector();
             conversionSchema = DEFAULT.getConversionSchema();
             batchWriteRetryStrategy = DEFAULT.getBatchWriteRetryStrategy();
+            batchWriteMaxConcurrency = DEFAULT.getBatchWriteMaxConcurrency();
+            paginationPrefetchDepth = DEFAULT.getPaginationPrefetchDepth();
         }
 
         /**
@@ -291,6 +295,58 @@ public class DynamoDBMapperConfig {
             return this;
         }
 
+        /**
+         * @return the current maximum number of BatchWriteItem calls kept in
+         *         flight by a single batch write
+         */
+        public Integer getBatchWriteMaxConcurrency() {
+            return batchWriteMaxConcurrency;
+        }
+
+        /**
+         * @param value the new maximum number of BatchWriteItem calls kept in
+         *              flight by a single batch write
+         */
+        public void setBatchWriteMaxConcurrency(Integer value) {
+            this.batchWriteMaxConcurrency = value;
+        }
+
+        /**
+         * @param value the new maximum number of BatchWriteItem calls kept in
+         *              flight by a single batch write
+         * @return this builder
+         */
+        public Builder withBatchWriteMaxConcurrency(Integer value) {
+            setBatchWriteMaxConcurrency(value);
+            return this;
+        }
+
+        /**
+         * @return the current number of pages fetched ahead of an
+         *         ITERATION_ONLY iteration
+         */
+        public Integer getPaginationPrefetchDepth() {
+            return paginationPrefetchDepth;
+        }
+
+        /**
+         * @param value the new number of pages fetched ahead of an
+         *              ITERATION_ONLY iteration
+         */
+        public void setPaginationPrefetchDepth(Integer value) {
+            this.paginationPrefetchDepth = value;
+        }
+
+        /**
+         * @param value the new number of pages fetched ahead of an
+         *              ITERATION_ONLY iteration
+         * @return this builder
+         */
+        public Builder withPaginationPrefetchDepth(Integer value) {
+            setPaginationPrefetchDepth(value);
+            return this;
+        }
+
 
         /**
          * Builds a new {@code DynamoDBMapperConfig} object.
@@ -307,7 +363,9 @@ public class DynamoDBMapperConfig {
                     paginationLoadingStrategy,
                     requestMetricCollector,
                     conversionSchema,
-                    batchWriteRetryStrategy);
+                    batchWriteRetryStrategy,
+                    batchWriteMaxConcurrency,
+                    paginationPrefetchDepth);
         }
     }
 
@@ -390,7 +448,9 @@ public class DynamoDBMapperConfig {
          * means the list could only be iterated once.
          * <p>
          * Use this configuration to reduce the memory overhead when handling
-         * large DynamoDB items.
+         * large DynamoDB items. Combine it with a
+         * {@link DynamoDBMapperConfig#getPaginationPrefetchDepth() prefetch depth}
+         * to fetch the next pages while the current one is being consumed.
          */
         ITERATION_ONLY,
 
@@ -641,6 +701,8 @@ public class DynamoDBMapperConfig {
     private final RequestMetricCollector requestMetricCollector;
     private final ConversionSchema conversionSchema;
     private final BatchWriteRetryStrategy batchWriteRetryStrategy;
+    private final Integer batchWriteMaxConcurrency;
+    private final Integer paginationPrefetchDepth;
 
     /**
      * Legacy constructor, using default PaginationLoadingStrategy
@@ -711,7 +773,9 @@ public class DynamoDBMapperConfig {
                 paginationLoadingStrategy,
                 requestMetricCollector,
                 ConversionSchemas.DEFAULT,
-                new DefaultBatchWriteRetryStrategy());
+                new DefaultBatchWriteRetryStrategy(),
+                null,
+                null);
     }
 
     private DynamoDBMapperConfig(
@@ -723,8 +787,18 @@ public class DynamoDBMapperConfig {
             PaginationLoadingStrategy paginationLoadingStrategy,
             RequestMetricCollector requestMetricCollector,
             ConversionSchema conversionSchema,
-            BatchWriteRetryStrategy batchWriteRetryStrategy) {
+            BatchWriteRetryStrategy batchWriteRetryStrategy,
+            Integer batchWriteMaxConcurrency,
+            Integer paginationPrefetchDepth) {
 
+        if (batchWriteMaxConcurrency != null && batchWriteMaxConcurrency < 1) {
+            throw new IllegalArgumentException(
+                    "batchWriteMaxConcurrency must be at least 1");
+        }
+        if (paginationPrefetchDepth != null && paginationPrefetchDepth < 0) {
+            throw new IllegalArgumentException(
+                    "paginationPrefetchDepth must not be negative");
+        }
         this.saveBehavior = saveBehavior;
         this.consistentReads = consistentReads;
         this.tableNameOverride = tableNameOverride;
@@ -734,6 +808,8 @@ public class DynamoDBMapperConfig {
         this.requestMetricCollector = requestMetricCollector;
         this.conversionSchema = conversionSchema;
         this.batchWriteRetryStrategy = batchWriteRetryStrategy;
+        this.batchWriteMaxConcurrency = batchWriteMaxConcurrency;
+        this.paginationPrefetchDepth = paginationPrefetchDepth;
     }
 
     /**
@@ -741,7 +817,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(SaveBehavior saveBehavior) {
         this(saveBehavior, null, null, null, null, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -750,7 +826,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ConsistentReads consistentReads) {
         this(null, consistentReads, null, null, null, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -758,7 +834,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameOverride tableNameOverride) {
         this(null, null, tableNameOverride, null, null, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -766,7 +842,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver) {
         this(null, null, null, tableNameResolver, null, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -774,7 +850,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, null, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -782,7 +858,7 @@ public class DynamoDBMapperConfig {
      */
     public DynamoDBMapperConfig(TableNameResolver tableNameResolver, ObjectTableNameResolver objectTableNameResolver) {
         this(null, null, null, tableNameResolver, objectTableNameResolver, null, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -793,14 +869,14 @@ public class DynamoDBMapperConfig {
             PaginationLoadingStrategy paginationLoadingStrategy) {
 
         this(null, null, null, null, null, paginationLoadingStrategy, null,
-                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy());
+                ConversionSchemas.DEFAULT, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
      * Constructs a new configuration object with the conversion schema given.
      */
     public DynamoDBMapperConfig(ConversionSchema conversionSchema) {
-        this(null, null, null, null, null, null, null, conversionSchema, new DefaultBatchWriteRetryStrategy());
+        this(null, null, null, null, null, null, null, conversionSchema, new DefaultBatchWriteRetryStrategy(), null, null);
     }
 
     /**
@@ -833,6 +909,8 @@ public class DynamoDBMapperConfig {
             this.requestMetricCollector = defaults.getRequestMetricCollector();
             this.conversionSchema = defaults.getConversionSchema();
             this.batchWriteRetryStrategy = defaults.getBatchWriteRetryStrategy();
+            this.batchWriteMaxConcurrency = defaults.getBatchWriteMaxConcurrency();
+            this.paginationPrefetchDepth = defaults.getPaginationPrefetchDepth();
 
         } else {
 
@@ -874,6 +952,14 @@ public class DynamoDBMapperConfig {
                     ? defaults.getBatchWriteRetryStrategy()
                     : overrides.getBatchWriteRetryStrategy();
 
+            this.batchWriteMaxConcurrency = (overrides.getBatchWriteMaxConcurrency() == null)
+                    ? defaults.getBatchWriteMaxConcurrency()
+                    : overrides.getBatchWriteMaxConcurrency();
+
+            this.paginationPrefetchDepth = (overrides.getPaginationPrefetchDepth() == null)
+                    ? defaults.getPaginationPrefetchDepth()
+                    : overrides.getPaginationPrefetchDepth();
+
         }
     }
 
@@ -957,6 +1043,33 @@ public class DynamoDBMapperConfig {
         return batchWriteRetryStrategy;
     }
 
+    /**
+     * Returns the maximum number of BatchWriteItem calls that
+     * {@link DynamoDBMapper#batchWrite(List, List, DynamoDBMapperConfig)}
+     * keeps in flight at once, or null if not specified. With a value greater
+     * than one, the mapper adjusts the number of concurrent calls to the
+     * UnprocessedItems returned by DynamoDB, and resends unprocessed items
+     * as part of its next outgoing batches. The default of one sends a
+     * single batch at a time.
+     */
+    public Integer getBatchWriteMaxConcurrency() {
+        return batchWriteMaxConcurrency;
+    }
+
+    /**
+     * Returns the number of pages that a paginated list in
+     * {@link PaginationLoadingStrategy#ITERATION_ONLY ITERATION_ONLY} mode
+     * fetches in the background ahead of its iterator, or null if not
+     * specified. Pages are fetched one after another, since each starts from
+     * the last key of the previous one, but while the caller is still
+     * consuming earlier pages; at most this many pages are held in memory in
+     * addition to the current one. The default of zero fetches each page only
+     * when the iterator reaches it.
+     */
+    public Integer getPaginationPrefetchDepth() {
+        return paginationPrefetchDepth;
+    }
+
     /**
      * Default configuration uses UPDATE behavior for saves and EVENTUALly
      * consistent reads, with no table name override and lazy-loading strategy.
@@ -970,5 +1083,7 @@ public class DynamoDBMapperConfig {
             PaginationLoadingStrategy.LAZY_LOADING,
             null,  // RequestMetricCollector
             ConversionSchemas.DEFAULT,
-            new DefaultBatchWriteRetryStrategy());
+            new DefaultBatchWriteRetryStrategy(),
+            1, // BatchWriteMaxConcurrency
+            0); // PaginationPrefetchDepth
 }
@@ -17,6 +17,7 @@ package com.amazonaws.services.dynamodbv2.datamodeling;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
@@ -510,6 +511,60 @@ public interface IDynamoDBMapper {
             DynamoDBScanExpression scanExpression, int totalSegments,
             DynamoDBMapperConfig config);
 
+    /**
+     * Scans through an Amazon DynamoDB table on logically partitioned segments
+     * in parallel and streams the matching results, using the default
+     * configuration.
+     *
+     * @see DynamoDBMapper#parallelScanIterator(Class, DynamoDBScanExpression,
+     *      ParallelScanCheckpoint, ExecutorService, DynamoDBMapperConfig)
+     */
+    <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+            DynamoDBScanExpression scanExpression, int totalSegments,
+            ExecutorService executorService);
+
+    /**
+     * Scans through an Amazon DynamoDB table on logically partitioned segments
+     * in parallel, starting from the given checkpoint, and streams the
+     * matching results as they arrive. Unlike
+     * {@link #parallelScan(Class, DynamoDBScanExpression, int, DynamoDBMapperConfig)},
+     * the segments are scanned on the given executor, by no more threads than
+     * it has, and at most one page per thread is held in memory while waiting
+     * for the caller to consume it; scanning pauses while the caller falls
+     * behind.
+     * <p>
+     * The progress of the scan can be read from
+     * {@link ParallelScanIterator#getCheckpoint()} and passed back to this
+     * method to resume an interrupted scan. The iterator should be closed if
+     * it is not consumed entirely.
+     *
+     * @param <T>
+     *            The type of the objects being returned.
+     * @param clazz
+     *            The class annotated with DynamoDB annotations describing how
+     *            to store the object data in Amazon DynamoDB.
+     * @param scanExpression
+     *            Details on how to run the scan, including any filters to apply
+     *            to limit results.
+     * @param checkpoint
+     *            The progress to resume the scan from, which also sets the
+     *            number of segments; use
+     *            {@link ParallelScanCheckpoint#notStarted(int)} for a new scan.
+     * @param executorService
+     *            The executor to scan the segments on. It is not shut down by
+     *            the scan.
+     * @param config
+     *            The configuration to use for this scan, which overrides the
+     *            default provided at object construction.
+     * @return An iterator over the objects constructed from the results of
+     *         the scan operation.
+     * @see ParallelScanIterator
+     */
+    <T> ParallelScanIterator<T> parallelScanIterator(Class<T> clazz,
+            DynamoDBScanExpression scanExpression,
+            ParallelScanCheckpoint checkpoint, ExecutorService executorService,
+            DynamoDBMapperConfig config);
+
     /**
      * Scans through an Amazon DynamoDB table and returns a single page of matching
      * results. The table to scan is determined by looking at the annotations on
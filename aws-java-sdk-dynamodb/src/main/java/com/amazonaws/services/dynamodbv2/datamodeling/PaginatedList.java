@@ -22,7 +22,15 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
 
@@ -81,6 +89,12 @@ public abstract class PaginatedList<T> implements List<T> {
      */
     private boolean iterationStarted = false;
 
+    /**
+     * Fetches pages ahead of the iterator in ITERATION_ONLY mode; null if
+     * pages are only fetched when needed.
+     */
+    private final PagePrefetcher pagePrefetcher;
+
     /**
      * Constructs a PaginatedList instance using the default PaginationLoadingStrategy
      */
@@ -104,6 +118,29 @@ public abstract class PaginatedList<T> implements List<T> {
      *            provided, LAZY_LOADING will be set by default.
      */
     public PaginatedList(DynamoDBMapper mapper, Class<T> clazz, AmazonDynamoDB dynamo, PaginationLoadingStrategy paginationLoadingStrategy) {
+        this(mapper, clazz, dynamo, paginationLoadingStrategy, null);
+    }
+
+    /**
+     * Constructs a PaginatedList instance.
+     *
+     * @param mapper
+     *            The mapper for marshalling DynamoDB attributes into objects.
+     * @param clazz
+     *            The class of the annotated model.
+     * @param dynamo
+     *            The DynamoDB client for making low-level request calls.
+     * @param paginationLoadingStrategy
+     *            The strategy used for loading paginated results. If null
+     *            value is provided, LAZY_LOADING will be set by default.
+     * @param prefetchDepth
+     *            In ITERATION_ONLY mode, the number of pages to fetch in the
+     *            background ahead of the iterator. Null or zero to fetch each
+     *            page only when the iterator reaches it.
+     * @see DynamoDBMapperConfig#getPaginationPrefetchDepth()
+     */
+    public PaginatedList(DynamoDBMapper mapper, Class<T> clazz, AmazonDynamoDB dynamo,
+            PaginationLoadingStrategy paginationLoadingStrategy, Integer prefetchDepth) {
         this.mapper = mapper;
         this.clazz = clazz;
         this.dynamo = dynamo;
@@ -111,6 +148,13 @@ public abstract class PaginatedList<T> implements List<T> {
                 PaginationLoadingStrategy.LAZY_LOADING : paginationLoadingStrategy;
 
         this.allResults = new ArrayList<T>();
+
+        if (this.paginationLoadingStrategy == PaginationLoadingStrategy.ITERATION_ONLY
+                && prefetchDepth != null && prefetchDepth > 0) {
+            this.pagePrefetcher = new PagePrefetcher(prefetchDepth);
+        } else {
+            this.pagePrefetcher = null;
+        }
         
         // Ideally, we should eagerly load all results here as soon as EAGER_LOADING is configured.
         // But the implementation of loadAllResults() relies on a fully initialized sub-class object.
@@ -145,7 +189,14 @@ public abstract class PaginatedList<T> implements List<T> {
      * value of true guarantees that nextResults is non-empty.
      */
     private boolean nextResultsAvailable() {
-        return !nextResults.isEmpty() || loadNextResults();
+        if ( !nextResults.isEmpty() )
+            return true;
+
+        // Not synchronized on the list: the prefetching thread needs its
+        // lock to fetch the pages
+        return pagePrefetcher == null
+                ? loadNextResults()
+                : pagePrefetcher.loadNextResults();
     }
 
     /**
@@ -164,6 +215,118 @@ public abstract class PaginatedList<T> implements List<T> {
         return !nextResults.isEmpty();
     }
 
+    /**
+     * Fetches the pages of an ITERATION_ONLY list on a background thread, one
+     * after another, so that up to a given number of pages are ready before
+     * the iterator reaches them. The thread is released when the end of the
+     * results is reached, or after it has been idle for a few seconds if the
+     * iteration is abandoned.
+     */
+    private final class PagePrefetcher {
+
+        private static final long KEEP_ALIVE_SECONDS = 5;
+
+        private final int depth;
+
+        /**
+         * The pages being fetched, in order; a page is null if the end of the
+         * results was reached before it.
+         */
+        private final LinkedList<Future<List<T>>> pages = new LinkedList<Future<List<T>>>();
+
+        private ThreadPoolExecutor executor;
+
+        private boolean endReached;
+
+        private PagePrefetcher(int depth) {
+            this.depth = depth;
+        }
+
+        /**
+         * Moves the next non-empty prefetched page into the nextResults
+         * buffer, waiting for it if needed. Returns false at the end of the
+         * results.
+         */
+        synchronized boolean loadNextResults() {
+            while ( true ) {
+                prefetch();
+                if ( pages.isEmpty() )
+                    return false;
+
+                List<T> page = getPage(pages.removeFirst());
+                if ( page == null ) {
+                    stop();
+                    return false;
+                }
+                if ( !page.isEmpty() ) {
+                    nextResults.addAll(page);
+                    prefetch();
+                    return true;
+                }
+            }
+        }
+
+        private void prefetch() {
+            if ( endReached )
+                return;
+
+            if ( executor == null ) {
+                executor = new ThreadPoolExecutor(1, 1,
+                        KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<Runnable>(),
+                        new ThreadFactory() {
+                            public Thread newThread(Runnable r) {
+                                Thread t = new Thread(r);
+                                t.setName("dynamodb-mapper-page-prefetch-thread");
+                                t.setDaemon(true);
+                                return t;
+                            }
+                        });
+                executor.allowCoreThreadTimeOut(true);
+            }
+            while ( pages.size() < depth ) {
+                pages.add(executor.submit(new Callable<List<T>>() {
+                    @Override
+                    public List<T> call() {
+                        return atEndOfResults() ? null : fetchNextPage();
+                    }
+                }));
+            }
+        }
+
+        private List<T> getPage(Future<List<T>> page) {
+            try {
+                return page.get();
+            } catch (InterruptedException e) {
+                stop();
+                Thread.currentThread().interrupt();
+                throw new AmazonClientException(
+                        "Interrupted while waiting for the next page of results", e);
+            } catch (ExecutionException e) {
+                stop();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new AmazonClientException(cause.getMessage(), cause);
+            }
+        }
+
+        private void stop() {
+            endReached = true;
+            for ( Future<List<T>> page : pages ) {
+                page.cancel(false);
+            }
+            pages.clear();
+            if ( executor != null ) {
+                executor.shutdown();
+            }
+        }
+    }
+
     /**
      * Moves the contents of the nextResults buffer into allResults and resets
      * the buffer.
@@ -55,7 +55,8 @@ public class PaginatedScanList<T> extends PaginatedList<T> {
             PaginationLoadingStrategy paginationLoadingStrategy,
             DynamoDBMapperConfig config
     ) {
-        super(mapper, clazz, dynamo, paginationLoadingStrategy);
+        super(mapper, clazz, dynamo, paginationLoadingStrategy,
+                config == null ? null : config.getPaginationPrefetchDepth());
 
         this.scanRequest = scanRequest;
         this.scanResult = scanResult;
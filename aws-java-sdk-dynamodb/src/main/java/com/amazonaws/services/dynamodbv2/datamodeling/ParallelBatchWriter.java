@@ -0,0 +1,325 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.BatchWriteRetryStrategy;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Sends the write requests of a batch write as concurrent BatchWriteItem
+ * calls.
+ * <p>
+ * The number of calls in flight adapts to DynamoDB's feedback: it grows by
+ * one after every batch that is fully processed, up to the configured
+ * maximum, and is halved whenever a batch comes back with UnprocessedItems or
+ * is throttled. Unprocessed items are not resent on their own; they are
+ * packed, ahead of the items not yet sent, into the next outgoing batches
+ * once the delay of the {@link BatchWriteRetryStrategy} has passed.
+ * <p>
+ * Only the calling thread packs batches and collects their results, so none
+ * of the state below needs to be synchronized.
+ */
+final class ParallelBatchWriter {
+
+    private final DynamoDBMapper mapper;
+    private final BatchWriteRetryStrategy retryStrategy;
+    private final int maxConcurrency;
+
+    /** Requests waiting to be sent; resent requests go first. */
+    private final LinkedList<PendingWrite> pending = new LinkedList<PendingWrite>();
+
+    private final List<FailedBatch> failedBatches = new LinkedList<FailedBatch>();
+
+    /** The current number of calls allowed to be in flight. */
+    private int concurrency;
+    private int inFlight;
+
+    /** Consecutive batches that came back with unprocessed items. */
+    private int consecutiveRetries;
+
+    /** No new batch is sent before this time, in milliseconds. */
+    private long notBefore;
+
+    ParallelBatchWriter(
+            DynamoDBMapper mapper,
+            Map<String, List<WriteRequest>> requestItems,
+            BatchWriteRetryStrategy retryStrategy,
+            int maxConcurrency) {
+
+        this.mapper = mapper;
+        this.retryStrategy = retryStrategy;
+        this.maxConcurrency = maxConcurrency;
+        this.concurrency = maxConcurrency;
+        for (Entry<String, List<WriteRequest>> tableRequests : requestItems.entrySet()) {
+            for (WriteRequest writeRequest : tableRequests.getValue()) {
+                pending.add(new PendingWrite(tableRequests.getKey(), writeRequest));
+            }
+        }
+    }
+
+    /**
+     * Writes all the requests and returns the ones that failed.
+     */
+    List<FailedBatch> write() {
+        ExecutorService executorService = Executors.newFixedThreadPool(
+                Math.min(maxConcurrency, batchesNeeded()));
+        CompletionService<BatchOutcome> completionService =
+                new ExecutorCompletionService<BatchOutcome>(executorService);
+        try {
+            while (!pending.isEmpty() || inFlight > 0) {
+                long now = System.currentTimeMillis();
+                while (!pending.isEmpty() && inFlight < concurrency && now >= notBefore) {
+                    completionService.submit(new BatchCall(nextBatch()));
+                    inFlight++;
+                }
+
+                Future<BatchOutcome> done;
+                if (inFlight == 0) {
+                    Thread.sleep(Math.max(0, notBefore - now));
+                    continue;
+                } else if (!pending.isEmpty() && notBefore > now) {
+                    done = completionService.poll(notBefore - now, TimeUnit.MILLISECONDS);
+                    if (done == null) {
+                        continue;
+                    }
+                } else {
+                    done = completionService.take();
+                }
+                inFlight--;
+                onBatchDone(getOutcome(done));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException(e.getMessage(), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        return failedBatches;
+    }
+
+    private int batchesNeeded() {
+        int batches = (pending.size() + DynamoDBMapper.MAX_ITEMS_PER_BATCH - 1)
+                / DynamoDBMapper.MAX_ITEMS_PER_BATCH;
+        return Math.max(1, batches);
+    }
+
+    /**
+     * Packs up to {@link DynamoDBMapper#MAX_ITEMS_PER_BATCH} pending requests
+     * into a batch.
+     */
+    private List<PendingWrite> nextBatch() {
+        List<PendingWrite> batch = new ArrayList<PendingWrite>(DynamoDBMapper.MAX_ITEMS_PER_BATCH);
+        while (!pending.isEmpty() && batch.size() < DynamoDBMapper.MAX_ITEMS_PER_BATCH) {
+            batch.add(pending.removeFirst());
+        }
+        return batch;
+    }
+
+    private static BatchOutcome getOutcome(Future<BatchOutcome> done)
+            throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AmazonClientException(cause.getMessage(), cause);
+        }
+    }
+
+    private void onBatchDone(BatchOutcome outcome) {
+        failedBatches.addAll(outcome.failedBatches);
+
+        if (outcome.unprocessed.isEmpty() && !outcome.throttled) {
+            consecutiveRetries = 0;
+            concurrency = Math.min(maxConcurrency, concurrency + 1);
+            return;
+        }
+
+        concurrency = Math.max(1, concurrency / 2);
+        if (outcome.throttled) {
+            notBefore = Math.max(notBefore, System.currentTimeMillis()
+                    + retryStrategy.getDelayBeforeRetryUnprocessedItems(
+                            Collections.<String, List<WriteRequest>>emptyMap(),
+                            consecutiveRetries));
+            consecutiveRetries++;
+            return;
+        }
+
+        List<PendingWrite> resend = new ArrayList<PendingWrite>();
+        List<PendingWrite> exhausted = new ArrayList<PendingWrite>();
+        for (PendingWrite write : outcome.unprocessed) {
+            if (outcome.maxRetries >= 0 && write.retries >= outcome.maxRetries) {
+                exhausted.add(write);
+            } else {
+                write.retries++;
+                resend.add(write);
+            }
+        }
+        if (!exhausted.isEmpty()) {
+            FailedBatch failedBatch = new FailedBatch();
+            failedBatch.setUnprocessedItems(toRequestItems(exhausted));
+            failedBatch.setException(null);
+            failedBatches.add(failedBatch);
+        }
+        if (!resend.isEmpty()) {
+            pending.addAll(0, resend);
+            notBefore = Math.max(notBefore, System.currentTimeMillis()
+                    + retryStrategy.getDelayBeforeRetryUnprocessedItems(
+                            Collections.unmodifiableMap(toRequestItems(resend)),
+                            consecutiveRetries));
+            consecutiveRetries++;
+        }
+    }
+
+    private static Map<String, List<WriteRequest>> toRequestItems(List<PendingWrite> writes) {
+        Map<String, List<WriteRequest>> requestItems = new HashMap<String, List<WriteRequest>>();
+        for (PendingWrite write : writes) {
+            List<WriteRequest> tableRequests = requestItems.get(write.tableName);
+            if (tableRequests == null) {
+                tableRequests = new LinkedList<WriteRequest>();
+                requestItems.put(write.tableName, tableRequests);
+            }
+            tableRequests.add(write.writeRequest);
+        }
+        return requestItems;
+    }
+
+    /**
+     * Sends one batch; runs on a thread of the executor.
+     */
+    private final class BatchCall implements Callable<BatchOutcome> {
+        private final List<PendingWrite> batch;
+
+        private BatchCall(List<PendingWrite> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public BatchOutcome call() {
+            Map<String, List<WriteRequest>> requestItems = toRequestItems(batch);
+            int maxRetries = retryStrategy.getMaxRetryOnUnprocessedItems(
+                    Collections.unmodifiableMap(requestItems));
+
+            BatchWriteItemResult result;
+            try {
+                result = mapper.batchWriteItem(requestItems);
+            } catch (Exception e) {
+                return onException(requestItems, e);
+            }
+
+            BatchOutcome outcome = new BatchOutcome(maxRetries);
+            Map<String, List<WriteRequest>> unprocessedItems = result.getUnprocessedItems();
+            if (unprocessedItems != null && !unprocessedItems.isEmpty()) {
+                // Match the unprocessed requests to the ones sent, to keep
+                // track of how many times each has been retried
+                Map<String, Map<WriteRequest, PendingWrite>> sent =
+                        new HashMap<String, Map<WriteRequest, PendingWrite>>();
+                for (PendingWrite write : batch) {
+                    Map<WriteRequest, PendingWrite> tableWrites = sent.get(write.tableName);
+                    if (tableWrites == null) {
+                        tableWrites = new HashMap<WriteRequest, PendingWrite>();
+                        sent.put(write.tableName, tableWrites);
+                    }
+                    tableWrites.put(write.writeRequest, write);
+                }
+                for (Entry<String, List<WriteRequest>> tableRequests : unprocessedItems.entrySet()) {
+                    Map<WriteRequest, PendingWrite> tableWrites = sent.get(tableRequests.getKey());
+                    for (WriteRequest writeRequest : tableRequests.getValue()) {
+                        PendingWrite write = tableWrites == null ? null : tableWrites.get(writeRequest);
+                        if (write == null) {
+                            write = new PendingWrite(tableRequests.getKey(), writeRequest);
+                        }
+                        outcome.unprocessed.add(write);
+                    }
+                }
+            }
+            return outcome;
+        }
+
+        private BatchOutcome onException(Map<String, List<WriteRequest>> requestItems, Exception e) {
+            BatchOutcome outcome = new BatchOutcome(-1);
+            if (e instanceof AmazonServiceException) {
+                AmazonServiceException ase = (AmazonServiceException) e;
+                // A batch too large for one request is divided and sent as
+                // smaller batches, the same way as a serial batch write
+                if (RetryUtils.isRequestEntityTooLargeException(ase) && batch.size() > 1) {
+                    outcome.failedBatches.addAll(
+                            mapper.writeOneBatch(requestItems, retryStrategy));
+                    return outcome;
+                }
+                outcome.throttled = RetryUtils.isThrottlingException(ase);
+            }
+            FailedBatch failedBatch = new FailedBatch();
+            failedBatch.setUnprocessedItems(requestItems);
+            failedBatch.setException(e);
+            outcome.failedBatches.add(failedBatch);
+            return outcome;
+        }
+    }
+
+    /**
+     * The result of sending one batch.
+     */
+    private static final class BatchOutcome {
+        private final int maxRetries;
+        private final List<PendingWrite> unprocessed = new ArrayList<PendingWrite>();
+        private final List<FailedBatch> failedBatches = new ArrayList<FailedBatch>();
+        private boolean throttled;
+
+        private BatchOutcome(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+    }
+
+    /**
+     * A write request along with the number of times it has been resent.
+     */
+    private static final class PendingWrite {
+        private final String tableName;
+        private final WriteRequest writeRequest;
+        private int retries;
+
+        private PendingWrite(String tableName, WriteRequest writeRequest) {
+            this.tableName = tableName;
+            this.writeRequest = writeRequest;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * The progress of a parallel scan, recording for each segment the key to
+ * continue the scan from, or whether the segment has been scanned entirely.
+ * A checkpoint taken from a {@link ParallelScanIterator} can be persisted and
+ * passed to
+ * {@link DynamoDBMapper#parallelScanIterator(Class, DynamoDBScanExpression, ParallelScanCheckpoint, java.util.concurrent.ExecutorService, DynamoDBMapperConfig)}
+ * to resume the scan.
+ * <p>
+ * Instances are immutable.
+ */
+public final class ParallelScanCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Map<String, AttributeValue>> exclusiveStartKeys;
+    private final boolean[] completedSegments;
+
+    /**
+     * Returns a checkpoint for a scan of the given number of segments that
+     * has not started yet.
+     */
+    public static ParallelScanCheckpoint notStarted(int totalSegments) {
+        if (totalSegments < 1) {
+            throw new IllegalArgumentException("Parallel scan should have at least one scan segment.");
+        }
+        List<Map<String, AttributeValue>> keys = Collections.nCopies(totalSegments, null);
+        return new ParallelScanCheckpoint(new ArrayList<Map<String, AttributeValue>>(keys),
+                new boolean[totalSegments]);
+    }
+
+    private ParallelScanCheckpoint(
+            List<Map<String, AttributeValue>> exclusiveStartKeys,
+            boolean[] completedSegments) {
+        this.exclusiveStartKeys = exclusiveStartKeys;
+        this.completedSegments = completedSegments;
+    }
+
+    /**
+     * Returns the number of segments of the scan.
+     */
+    public int getTotalSegments() {
+        return completedSegments.length;
+    }
+
+    /**
+     * Returns the key to continue the scan of the given segment from, or null
+     * if the segment should be scanned from its beginning or has been
+     * scanned entirely.
+     */
+    public Map<String, AttributeValue> getExclusiveStartKey(int segment) {
+        return exclusiveStartKeys.get(segment);
+    }
+
+    /**
+     * Returns true if the given segment has been scanned entirely.
+     */
+    public boolean isSegmentCompleted(int segment) {
+        return completedSegments[segment];
+    }
+
+    /**
+     * Returns true if every segment has been scanned entirely.
+     */
+    public boolean isCompleted() {
+        for (boolean completed : completedSegments) {
+            if (!completed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a new checkpoint in which the given segment continues from the
+     * given last evaluated key; a null key marks the segment as completed.
+     */
+    ParallelScanCheckpoint withLastEvaluatedKey(int segment, Map<String, AttributeValue> lastEvaluatedKey) {
+        List<Map<String, AttributeValue>> keys =
+            new ArrayList<Map<String, AttributeValue>>(exclusiveStartKeys);
+        boolean[] completed = completedSegments.clone();
+        keys.set(segment, lastEvaluatedKey);
+        completed[segment] = lastEvaluatedKey == null;
+        return new ParallelScanCheckpoint(keys, completed);
+    }
+
+    @Override
+    public String toString() {
+        return "{ExclusiveStartKeys: " + exclusiveStartKeys
+                + ", CompletedSegments: " + Arrays.toString(completedSegments) + "}";
+    }
+}
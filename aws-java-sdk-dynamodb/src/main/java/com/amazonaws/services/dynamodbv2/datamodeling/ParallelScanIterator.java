@@ -0,0 +1,299 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+
+/**
+ * Streams the results of a parallel scan as they arrive, instead of
+ * collecting them in memory.
+ * <p>
+ * The segments are scanned one page at a time on a caller-supplied executor,
+ * by no more workers than the executor has threads. Scanned pages are handed
+ * to this iterator through a queue holding at most one page per worker; when
+ * the caller falls behind, the workers wait until it catches up, so memory
+ * use stays bounded however large the table is.
+ * <p>
+ * Items are returned in the order of the pages of each segment, but pages of
+ * different segments are interleaved. {@link #getCheckpoint()} records, for
+ * each segment, the position after the last page whose items have all been
+ * returned; a scan resumed from a checkpoint may therefore return again the
+ * items of pages that were only partially consumed.
+ * <p>
+ * Like any iterator, instances must be used from one thread at a time.
+ * {@link #close()} should be called if the iteration is abandoned early.
+ *
+ * @param <T>
+ *            The type of objects returned by this iterator.
+ */
+public class ParallelScanIterator<T> implements Iterator<T>, Closeable {
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final DynamoDBMapper mapper;
+    private final AmazonDynamoDB dynamo;
+    private final Class<T> clazz;
+    private final DynamoDBMapperConfig config;
+
+    /** Segments waiting for a worker to scan their next page. */
+    private final Queue<SegmentScan> readySegments = new ConcurrentLinkedQueue<SegmentScan>();
+    private final AtomicInteger remainingSegments;
+    private final BlockingQueue<Page<T>> pages;
+
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    private ParallelScanCheckpoint checkpoint;
+    private Page<T> currentPage;
+    private Iterator<T> currentItems;
+    private boolean exhausted;
+
+    ParallelScanIterator(
+            DynamoDBMapper mapper,
+            AmazonDynamoDB dynamo,
+            Class<T> clazz,
+            List<ScanRequest> segmentScanRequests,
+            ParallelScanCheckpoint checkpoint,
+            ExecutorService executorService,
+            DynamoDBMapperConfig config) {
+
+        this.mapper = mapper;
+        this.dynamo = dynamo;
+        this.clazz = clazz;
+        this.config = config;
+        this.checkpoint = checkpoint;
+
+        for (int segment = 0; segment < segmentScanRequests.size(); segment++) {
+            if (!checkpoint.isSegmentCompleted(segment)) {
+                readySegments.add(new SegmentScan(segment, segmentScanRequests.get(segment),
+                        checkpoint.getExclusiveStartKey(segment)));
+            }
+        }
+        remainingSegments = new AtomicInteger(readySegments.size());
+
+        int workers = Math.max(1, Math.min(readySegments.size(), maxConcurrency(executorService)));
+        pages = new ArrayBlockingQueue<Page<T>>(workers);
+
+        if (readySegments.isEmpty()) {
+            exhausted = true;
+            return;
+        }
+        try {
+            for (int i = 0; i < workers; i++) {
+                executorService.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        scanReadySegments();
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the maximum number of segments to scan concurrently.
+     */
+    private static int maxConcurrency(ExecutorService executorService) {
+        if (executorService instanceof ThreadPoolExecutor) {
+            return Math.max(1, ((ThreadPoolExecutor) executorService).getMaximumPoolSize());
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (currentItems == null || !currentItems.hasNext()) {
+            if (currentPage != null) {
+                checkpoint = checkpoint.withLastEvaluatedKey(
+                        currentPage.segment, currentPage.lastEvaluatedKey);
+                currentPage = null;
+                currentItems = null;
+            }
+            if (exhausted) {
+                return false;
+            }
+            Page<T> page = takePage();
+            if (page.segment < 0) {
+                exhausted = true;
+                if (failure != null) {
+                    throw new AmazonClientException("Error during the parallel scan: "
+                            + failure.getMessage(), failure);
+                }
+                return false;
+            }
+            currentPage = page;
+            currentItems = page.items.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentItems.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns the progress of the scan, up to the last page whose items have
+     * all been returned by this iterator.
+     */
+    public ParallelScanCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Stops the scan. Workers finish the page they are scanning and then
+     * release their threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        exhausted = true;
+        pages.clear();
+    }
+
+    private Page<T> takePage() {
+        if (closed) {
+            throw new IllegalStateException("The parallel scan has been closed");
+        }
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Parallel scan interrupted by other thread.", e);
+        }
+    }
+
+    /**
+     * Scans one page at a time of the ready segments until none is left.
+     * A segment with more pages is put back after its page is handed over,
+     * so segments share the workers fairly.
+     */
+    private void scanReadySegments() {
+        try {
+            SegmentScan segmentScan;
+            while (!closed && failure == null
+                    && (segmentScan = readySegments.poll()) != null) {
+                ScanRequest scanRequest = segmentScan.scanRequest;
+                scanRequest.setExclusiveStartKey(segmentScan.exclusiveStartKey);
+                ScanResult scanResult = dynamo.scan(DynamoDBMapper.applyUserAgent(scanRequest));
+
+                List<T> items = mapper.marshallIntoObjects(mapper.toParameters(
+                        scanResult.getItems(), clazz, scanRequest.getTableName(), config));
+                Map<String, AttributeValue> lastEvaluatedKey = scanResult.getLastEvaluatedKey();
+                if (lastEvaluatedKey != null && lastEvaluatedKey.isEmpty()) {
+                    lastEvaluatedKey = null;
+                }
+                if (!putPage(new Page<T>(segmentScan.segment, items, lastEvaluatedKey))) {
+                    return;
+                }
+
+                if (lastEvaluatedKey != null) {
+                    segmentScan.exclusiveStartKey = lastEvaluatedKey;
+                    readySegments.add(segmentScan);
+                } else if (remainingSegments.decrementAndGet() == 0) {
+                    putPage(Page.<T>end());
+                }
+            }
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+            putPage(Page.<T>end());
+        }
+    }
+
+    /**
+     * Waits for room in the queue of pages, giving up if the scan is closed.
+     */
+    private boolean putPage(Page<T> page) {
+        try {
+            while (!closed) {
+                if (pages.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * The position of the scan of one segment; only ever held by one worker
+     * at a time.
+     */
+    private static final class SegmentScan {
+        private final int segment;
+        private final ScanRequest scanRequest;
+        private Map<String, AttributeValue> exclusiveStartKey;
+
+        private SegmentScan(int segment, ScanRequest scanRequest,
+                Map<String, AttributeValue> exclusiveStartKey) {
+            this.segment = segment;
+            this.scanRequest = scanRequest;
+            this.exclusiveStartKey = exclusiveStartKey;
+        }
+    }
+
+    /**
+     * The items of one scanned page, or the end of the scan if the segment is
+     * negative.
+     */
+    private static final class Page<T> {
+        private final int segment;
+        private final List<T> items;
+        private final Map<String, AttributeValue> lastEvaluatedKey;
+
+        private Page(int segment, List<T> items, Map<String, AttributeValue> lastEvaluatedKey) {
+            this.segment = segment;
+            this.items = items;
+            this.lastEvaluatedKey = lastEvaluatedKey;
+        }
+
+        private static <T> Page<T> end() {
+            return new Page<T>(-1, Collections.<T>emptyList(), null);
+        }
+    }
+}
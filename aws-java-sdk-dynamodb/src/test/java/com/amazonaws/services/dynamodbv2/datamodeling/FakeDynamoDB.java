@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AbstractAmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * In-memory stand-in for DynamoDB in mapper tests, which scans a table of
+ * {@link Item} split into segments of pages, records the items written to it,
+ * and records the most calls in flight at once.
+ * <p>
+ * The hash key of the items scanned is the segment and the position of the
+ * item in the segment, such as "0-12".
+ */
+class FakeDynamoDB extends AbstractAmazonDynamoDB {
+
+    static final String TABLE_NAME = "tableName";
+
+    /** Hash keys of the items written. */
+    final Set<String> written = Collections.synchronizedSet(new HashSet<String>());
+
+    /** Number of items in each batch write call. */
+    final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+    /** Number of scan calls. */
+    final AtomicInteger scans = new AtomicInteger();
+
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger partialBatchesLeft = new AtomicInteger();
+
+    private long latencyMillis;
+
+    private int totalSegments = 1;
+
+    private int pagesPerSegment;
+
+    private int pageSize;
+
+    private int failingPage = -1;
+
+    /**
+     * Sets the number of segments of the table, and the number and size of
+     * the pages of each segment.
+     */
+    FakeDynamoDB withTable(int totalSegments, int pagesPerSegment, int pageSize) {
+        this.totalSegments = totalSegments;
+        this.pagesPerSegment = pagesPerSegment;
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Makes the scans of the given page of any segment fail.
+     */
+    FakeDynamoDB withFailingPage(int failingPage) {
+        this.failingPage = failingPage;
+        return this;
+    }
+
+    /**
+     * Leaves the first item of the given number of batch write calls
+     * unprocessed.
+     */
+    FakeDynamoDB withPartialBatches(int partialBatches) {
+        partialBatchesLeft.set(partialBatches);
+        return this;
+    }
+
+    /**
+     * Makes each call take the given time.
+     */
+    FakeDynamoDB withLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    @Override
+    public ScanResult scan(ScanRequest request) {
+        enter();
+        try {
+            scans.incrementAndGet();
+            int segment = 0;
+            if (request.getSegment() != null) {
+                assertEquals(totalSegments, request.getTotalSegments().intValue());
+                segment = request.getSegment();
+            }
+            int page = 0;
+            if (request.getExclusiveStartKey() != null) {
+                page = Integer.parseInt(request.getExclusiveStartKey().get("page").getN()) + 1;
+            }
+            if (page == failingPage) {
+                throw new AmazonClientException("BOOM");
+            }
+
+            List<Map<String, AttributeValue>> items = new ArrayList<Map<String, AttributeValue>>();
+            for (int i = page * pageSize; i < (page + 1) * pageSize; i++) {
+                items.add(Collections.singletonMap("hash", new AttributeValue(segment + "-" + i)));
+            }
+            ScanResult result = new ScanResult().withItems(items);
+            if (page + 1 < pagesPerSegment) {
+                result.setLastEvaluatedKey(Collections.singletonMap(
+                        "page", new AttributeValue().withN(String.valueOf(page))));
+            }
+            return result;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public BatchWriteItemResult batchWriteItem(BatchWriteItemRequest request) {
+        enter();
+        try {
+            List<WriteRequest> requests = request.getRequestItems().get(TABLE_NAME);
+            batchSizes.add(requests.size());
+
+            Map<String, List<WriteRequest>> unprocessed = new HashMap<String, List<WriteRequest>>();
+            int first = 0;
+            if (partialBatchesLeft.getAndDecrement() > 0) {
+                unprocessed.put(TABLE_NAME, new ArrayList<WriteRequest>(requests.subList(0, 1)));
+                first = 1;
+            }
+            for (WriteRequest writeRequest : requests.subList(first, requests.size())) {
+                String hash = writeRequest.getPutRequest().getItem().get("hash").getS();
+                assertTrue("written twice: " + hash, written.add(hash));
+            }
+            return new BatchWriteItemResult().withUnprocessedItems(unprocessed);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a call in flight, and waits for the latency of the call.
+     */
+    private void enter() {
+        int current = inFlight.incrementAndGet();
+        while (true) {
+            int max = maxInFlight.get();
+            if (current <= max || maxInFlight.compareAndSet(max, current)) {
+                break;
+            }
+        }
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                inFlight.decrementAndGet();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    static List<Item> newItems(int count) {
+        List<Item> items = new ArrayList<Item>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item("item-" + i));
+        }
+        return items;
+    }
+
+    @DynamoDBTable(tableName = TABLE_NAME)
+    public static class Item {
+
+        private String hash;
+
+        public Item() {
+        }
+
+        public Item(String hash) {
+            this.hash = hash;
+        }
+
+        @DynamoDBHashKey
+        public String getHash() {
+            return hash;
+        }
+
+        public void setHash(String hash) {
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.datamodeling.FakeDynamoDB.Item;
+
+public class PaginatedListPrefetchTest {
+
+    @Test
+    public void testItemsReturnedInOrder() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(1, 10, 7);
+        List<Item> list = newMapper(db, 3).scan(Item.class, new DynamoDBScanExpression());
+
+        int i = 0;
+        for (Item item : list) {
+            assertEquals("0-" + i++, item.getHash());
+        }
+        assertEquals(70, i);
+        assertEquals(10, db.scans.get());
+    }
+
+    @Test
+    public void testPagesFetchedAhead() throws Exception {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(1, 10, 5);
+        Iterator<Item> iterator = newMapper(db, 3)
+                .scan(Item.class, new DynamoDBScanExpression()).iterator();
+
+        // Reaching the end of the first page starts the prefetch
+        for (int i = 0; i < 6; i++) {
+            iterator.next();
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (db.scans.get() < 5 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        // The first page, the one being consumed and three more
+        assertEquals(5, db.scans.get());
+    }
+
+    @Test
+    public void testEmptyPagesSkipped() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(1, 6, 0);
+        List<Item> list = newMapper(db, 2).scan(Item.class, new DynamoDBScanExpression());
+
+        assertFalse(list.iterator().hasNext());
+    }
+
+    @Test
+    public void testFailureRethrown() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(1, 10, 2).withFailingPage(3);
+        Iterator<Item> iterator = newMapper(db, 2)
+                .scan(Item.class, new DynamoDBScanExpression()).iterator();
+
+        int returned = 0;
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+                returned++;
+            }
+            fail("Expected an AmazonClientException");
+        } catch (AmazonClientException expected) {
+            assertEquals("BOOM", expected.getMessage());
+            assertEquals(6, returned);
+        }
+    }
+
+    @Test
+    public void testNoPrefetchByDefault() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(1, 4, 2);
+        List<Item> list = new DynamoDBMapper(db, new DynamoDBMapperConfig(
+                PaginationLoadingStrategy.ITERATION_ONLY))
+                .scan(Item.class, new DynamoDBScanExpression());
+
+        Iterator<Item> iterator = list.iterator();
+        iterator.next();
+        iterator.next();
+        assertTrue(iterator.hasNext());
+        assertEquals(2, db.scans.get());
+    }
+
+    private static DynamoDBMapper newMapper(FakeDynamoDB db, int prefetchDepth) {
+        return new DynamoDBMapper(db, new DynamoDBMapperConfig.Builder()
+                .withPaginationLoadingStrategy(PaginationLoadingStrategy.ITERATION_ONLY)
+                .withPaginationPrefetchDepth(prefetchDepth)
+                .build());
+    }
+}
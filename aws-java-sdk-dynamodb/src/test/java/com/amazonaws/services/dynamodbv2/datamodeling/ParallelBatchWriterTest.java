@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static com.amazonaws.services.dynamodbv2.datamodeling.FakeDynamoDB.TABLE_NAME;
+import static com.amazonaws.services.dynamodbv2.datamodeling.FakeDynamoDB.newItems;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.BatchWriteRetryStrategy;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+public class ParallelBatchWriterTest {
+
+    @Test
+    public void testAllItemsWrittenConcurrently() throws Exception {
+        FakeDynamoDB db = new FakeDynamoDB().withLatencyMillis(10);
+        List<FailedBatch> failedBatches = newMapper(db, 3, 4).batchSave(newItems(500));
+
+        assertEquals(0, failedBatches.size());
+        assertEquals(500, db.written.size());
+        assertTrue(db.maxInFlight.get() > 1);
+        assertTrue(db.maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void testUnprocessedItemsAreResent() throws Exception {
+        // The first item of each of the first batches is left unprocessed
+        FakeDynamoDB db = new FakeDynamoDB().withPartialBatches(5);
+        List<FailedBatch> failedBatches = newMapper(db, 3, 4).batchSave(newItems(200));
+
+        assertEquals(0, failedBatches.size());
+        assertEquals(200, db.written.size());
+        for (int size : db.batchSizes) {
+            assertTrue(size <= DynamoDBMapper.MAX_ITEMS_PER_BATCH);
+        }
+    }
+
+    @Test
+    public void testUnprocessedItemsExceedingMaxRetry() throws Exception {
+        FakeDynamoDB db = new FakeDynamoDB().withPartialBatches(Integer.MAX_VALUE);
+        List<FailedBatch> failedBatches = newMapper(db, 2, 4).batchSave(newItems(60));
+
+        int failedItems = 0;
+        for (FailedBatch failedBatch : failedBatches) {
+            assertNull(failedBatch.getException());
+            failedItems += failedBatch.getUnprocessedItems().get(TABLE_NAME).size();
+        }
+        // Every call leaves one item unprocessed, so some run out of retries
+        assertTrue(failedItems > 0);
+        assertEquals(60, failedItems + db.written.size());
+    }
+
+    @Test
+    public void testExceptionReturnedAsFailedBatch() throws Exception {
+        final RuntimeException exception = new RuntimeException("BOOM");
+        FakeDynamoDB db = new FakeDynamoDB() {
+            @Override
+            public BatchWriteItemResult batchWriteItem(BatchWriteItemRequest request) {
+                throw exception;
+            }
+        };
+        List<FailedBatch> failedBatches = newMapper(db, 2, 4).batchSave(newItems(30));
+
+        assertEquals(2, failedBatches.size());
+        int failedItems = 0;
+        for (FailedBatch failedBatch : failedBatches) {
+            assertSame(exception, failedBatch.getException());
+            failedItems += failedBatch.getUnprocessedItems().get(TABLE_NAME).size();
+        }
+        assertEquals(30, failedItems);
+    }
+
+    private static DynamoDBMapper newMapper(FakeDynamoDB db, final int maxRetry, int maxConcurrency) {
+        return new DynamoDBMapper(db, new DynamoDBMapperConfig.Builder()
+                .withBatchWriteMaxConcurrency(maxConcurrency)
+                .withBatchWriteRetryStrategy(new BatchWriteRetryStrategy() {
+                    @Override
+                    public int getMaxRetryOnUnprocessedItems(
+                            Map<String, List<WriteRequest>> batchWriteItemInput) {
+                        return maxRetry;
+                    }
+
+                    @Override
+                    public long getDelayBeforeRetryUnprocessedItems(
+                            Map<String, List<WriteRequest>> unprocessedItems,
+                            int retriesAttempted) {
+                        return 0;
+                    }
+                })
+                .build());
+    }
+}
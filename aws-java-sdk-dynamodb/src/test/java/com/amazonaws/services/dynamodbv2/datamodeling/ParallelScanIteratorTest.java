@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.dynamodbv2.datamodeling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.datamodeling.FakeDynamoDB.Item;
+
+public class ParallelScanIteratorTest {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void testAllItemsReturned() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(8, 3, 10);
+        ParallelScanIterator<Item> iterator = new DynamoDBMapper(db)
+                .parallelScanIterator(Item.class, new DynamoDBScanExpression(), 8, executorService);
+
+        Set<String> hashes = new HashSet<String>();
+        while (iterator.hasNext()) {
+            assertTrue(hashes.add(iterator.next().getHash()));
+        }
+        assertEquals(8 * 30, hashes.size());
+        assertTrue(iterator.getCheckpoint().isCompleted());
+        // Never more scans in flight than threads in the executor
+        assertTrue(db.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(4, 3, 10);
+        DynamoDBMapper mapper = new DynamoDBMapper(db);
+        ParallelScanIterator<Item> iterator = mapper.parallelScanIterator(
+                Item.class, new DynamoDBScanExpression(), 4, executorService);
+
+        Set<String> hashes = new HashSet<String>();
+        for (int i = 0; i < 55; i++) {
+            hashes.add(iterator.next().getHash());
+        }
+        ParallelScanCheckpoint checkpoint = iterator.getCheckpoint();
+        iterator.close();
+        assertFalse(checkpoint.isCompleted());
+
+        iterator = mapper.parallelScanIterator(Item.class, new DynamoDBScanExpression(),
+                checkpoint, executorService, null);
+        while (iterator.hasNext()) {
+            hashes.add(iterator.next().getHash());
+        }
+        assertEquals(4 * 30, hashes.size());
+        assertTrue(iterator.getCheckpoint().isCompleted());
+    }
+
+    @Test
+    public void testCompletedCheckpointReturnsNothing() {
+        ParallelScanCheckpoint checkpoint = ParallelScanCheckpoint.notStarted(2)
+                .withLastEvaluatedKey(0, null)
+                .withLastEvaluatedKey(1, null);
+        ParallelScanIterator<Item> iterator = new DynamoDBMapper(new FakeDynamoDB().withTable(2, 1, 5))
+                .parallelScanIterator(Item.class, new DynamoDBScanExpression(),
+                        checkpoint, executorService, null);
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testScanFailure() {
+        FakeDynamoDB db = new FakeDynamoDB().withTable(2, 1, 5).withFailingPage(0);
+        ParallelScanIterator<Item> iterator = new DynamoDBMapper(db)
+                .parallelScanIterator(Item.class, new DynamoDBScanExpression(), 2, executorService);
+        try {
+            iterator.hasNext();
+            fail("Expected an AmazonClientException");
+        } catch (AmazonClientException expected) {
+            assertEquals("BOOM", expected.getCause().getMessage());
+        }
+    }
+}
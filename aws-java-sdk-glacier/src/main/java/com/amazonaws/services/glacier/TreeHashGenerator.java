@@ -14,11 +14,13 @@
  */
 package com.amazonaws.services.glacier;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
@@ -28,6 +30,7 @@ import com.amazonaws.AmazonClientException;
 import com.amazonaws.internal.ResettableInputStream;
 import com.amazonaws.services.glacier.internal.TreeHashInputStream;
 import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.IOUtils;
 
 /**
  * Utility class for calculating tree hashes.
@@ -37,6 +40,9 @@ import com.amazonaws.util.BinaryUtils;
  */
 public class TreeHashGenerator {
 
+    /** The size of the leaves of the tree, hashed individually. */
+    private static final int ONE_MB = 1024 * 1024;
+
 	/**
 	 * Calculates a hex encoded binary hash using a tree hashing algorithm for
 	 * the data in the specified file.
@@ -66,6 +72,65 @@ public class TreeHashGenerator {
         }
     }
 
+    /**
+     * Calculates a hex encoded binary hash using a tree hashing algorithm for
+     * the given range of the data in the specified file, such as a part of a
+     * multipart upload. The data is read directly from the file channel, one
+     * 1 MB leaf of the tree at a time; ranges of the same file can be hashed
+     * concurrently.
+     *
+     * @param file
+     *            The file containing the data to hash.
+     * @param position
+     *            The position in the file of the first byte to hash.
+     * @param length
+     *            The number of bytes to hash.
+     *
+     * @return The hex encoded binary tree hash for the data in the specified
+     *         range of the file.
+     *
+     * @throws AmazonClientException
+     *             If any problems were encountered reading the data or
+     *             computing the hash.
+     */
+    public static String calculateTreeHash(File file, long position, long length)
+            throws AmazonClientException {
+        FileInputStream fis = null;
+        try {
+            fis = new FileInputStream(file);
+            FileChannel channel = fis.getChannel();
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer leaf = ByteBuffer.allocate((int) Math.min(ONE_MB, Math.max(length, 1)));
+            List<byte[]> checksums = new ArrayList<byte[]>();
+            final long end = position + length;
+            for (long leafPosition = position; leafPosition < end; leafPosition += leaf.limit()) {
+                leaf.clear();
+                leaf.limit((int) Math.min(leaf.capacity(), end - leafPosition));
+                while (leaf.hasRemaining()) {
+                    if (channel.read(leaf, leafPosition + leaf.position()) == -1) {
+                        throw new EOFException("Unexpected end of file at position "
+                                + (leafPosition + leaf.position()));
+                    }
+                }
+                leaf.flip();
+                messageDigest.update(leaf);
+                checksums.add(messageDigest.digest());
+            }
+            if (checksums.isEmpty()) {
+                // the tree hash of no data is the hash of no data
+                checksums.add(messageDigest.digest());
+            }
+            return calculateTreeHash(checksums);
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to compute hash for file: "
+                    + file.getAbsolutePath(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new AmazonClientException("Unable to compute hash", e);
+        } finally {
+            IOUtils.closeQuietly(fis, null);
+        }
+    }
+
 	/**
 	 * Calculates a hex encoded binary hash using a tree hashing algorithm for
 	 * the data in the specified input stream. The method will consume all the
@@ -86,7 +151,7 @@ public class TreeHashGenerator {
         try {
             TreeHashInputStream treeHashInputStream =
                 new TreeHashInputStream(input);
-            byte[] buffer = new byte[1024];
+            byte[] buffer = new byte[16384];
             while (treeHashInputStream.read(buffer, 0, buffer.length) != -1);
             // closing is currently required to compute the checksum 
             treeHashInputStream.close();
@@ -144,18 +209,7 @@ public class TreeHashGenerator {
     }
     
 
-    private static byte[] computeSHA256Hash(byte[] data) throws NoSuchAlgorithmException, IOException {
-        BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(data));
-        try {
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
-            byte[] buffer = new byte[16384];
-            int bytesRead = -1;
-            while ( (bytesRead = bis.read(buffer, 0, buffer.length)) != -1 ) {
-                messageDigest.update(buffer, 0, bytesRead);
-            }
-            return messageDigest.digest();
-        } finally {
-            try { bis.close(); } catch ( Exception e ) {}
-        }
+    private static byte[] computeSHA256Hash(byte[] data) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(data);
     }
 }
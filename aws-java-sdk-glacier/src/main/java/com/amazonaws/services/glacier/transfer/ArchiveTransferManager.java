@@ -28,8 +28,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
 import java.security.NoSuchAlgorithmException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -84,6 +88,9 @@ public class ArchiveTransferManager {
     /** Threshold, in bytes, for when to use the multipart upload operations */
     private static final long MULTIPART_UPLOAD_SIZE_THRESHOLD = 1024L * 1024L * 100;
 
+    /** The number of attempts to upload each part of a multipart upload. */
+    private static final int MAX_PART_UPLOAD_TRIES = 5;
+
     /** Default retry time when downloading in multiple chunks using range retrieval */
     private static final int DEFAULT_MAX_RETRIES = 3;
 
@@ -308,9 +315,60 @@ public class ArchiveTransferManager {
             final String archiveDescription, final File file,
             ProgressListener progressListener) throws AmazonServiceException,
             AmazonClientException {
+        return upload(accountId, vaultName, archiveDescription, file,
+                progressListener, null);
+    }
+
+    /**
+     * Uploads the specified file to Amazon Glacier for archival storage in the
+     * specified vault in the specified user's account, uploading the parts of
+     * larger archives concurrently on the given executor service. For small
+     * archives, this method will upload the archive directly to Glacier. For
+     * larger archives, the tree hash of each part is computed and the part
+     * uploaded by a task of the executor service, so that as many parts are
+     * hashed and uploaded at a time as the executor service has threads; the
+     * tree hashes of the parts are then combined into the tree hash of the
+     * archive. You can also add an optional progress listener for receiving
+     * updates about the upload status.
+     * <p>
+     * The executor service is not shut down by this method.
+     *
+     * @param accountId
+     *            The ID for the account which owns the Glacier vault being
+     *            uploaded to. To use the same account the developer is using to
+     *            make requests to AWS, the value <code>"-"</code> can be used
+     *            instead of the full account ID.
+     * @param vaultName
+     *            The name of the vault to upload to.
+     * @param archiveDescription
+     *            The description of the new archive being uploaded.
+     * @param file
+     *            The file to upload to Amazon Glacier.
+     * @param progressListener
+     *            The optional progress listener for receiving updates about
+     *            the upload status.
+     * @param executorService
+     *            The executor service to upload the parts on; or null to
+     *            upload them one after another on the calling thread.
+     *
+     * @return The result of the upload, including the archive ID needed to
+     *         access the upload later.
+     *
+     * @throws AmazonServiceException
+     *             If any problems were encountered while communicating with
+     *             AWS.
+     * @throws AmazonClientException
+     *             If any problems were encountered inside the AWS SDK for Java
+     *             client code in making requests or processing responses from
+     *             AWS.
+     */
+    public UploadResult upload(final String accountId, final String vaultName,
+            final String archiveDescription, final File file,
+            ProgressListener progressListener, ExecutorService executorService)
+            throws AmazonServiceException, AmazonClientException {
         if (file.length() > MULTIPART_UPLOAD_SIZE_THRESHOLD) {
             return uploadInMultipleParts(accountId, vaultName,
-                    archiveDescription, file, progressListener);
+                    archiveDescription, file, progressListener, executorService);
         } else {
             return uploadInSinglePart(accountId, vaultName, archiveDescription,
                     file, progressListener);
@@ -674,9 +732,14 @@ public class ArchiveTransferManager {
         return partSize;
     }
 
+    /**
+     * Uploads the file in parts, one after another on the calling thread if
+     * the executor service is null, or else concurrently on the executor.
+     */
     private UploadResult uploadInMultipleParts(final String accountId,
             final String vaultName, final String archiveDescription,
-            final File file, ProgressListener progressListener) {
+            final File file, final ProgressListener progressListener,
+            ExecutorService executorService) {
         final long partSize = calculatePartSize(file.length());
         String partSizeString = Long.toString(partSize);
 
@@ -694,10 +757,9 @@ public class ArchiveTransferManager {
             throw failure(t);
         }
         publishProgress(progressListener, ProgressEventType.TRANSFER_STARTED_EVENT);
-        final String fileNotFoundMsg = "Unable to find file '"
-                + file.getAbsolutePath() + "'";
+        final List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
         try {
-            List<byte[]> binaryChecksums = new LinkedList<byte[]>();
+            List<byte[]> binaryChecksums = new ArrayList<byte[]>();
 
             long currentPosition = 0;
             while (currentPosition < file.length()) {
@@ -705,45 +767,31 @@ public class ArchiveTransferManager {
                 if (currentPosition + partSize > file.length()) {
                     length = file.length() - currentPosition;
                 }
-
-                Exception failedException = null;
-                boolean completed = false;
-                int tries = 0;
-                    while (!completed && tries < 5){
-                        tries++;
-                        InputSubstream inputSubStream = null;
-                        try {
-                            inputSubStream = new InputSubstream(
-                                    newResettableInputStream(file, fileNotFoundMsg)
-                                        .disableClose(), // requires explicit release
-                                    currentPosition, length, true);
-                            String checksum = TreeHashGenerator.calculateTreeHash(inputSubStream);
-                            byte[] binaryChecksum = BinaryUtils.fromHex(checksum);
-                            inputSubStream.reset();
-                            UploadMultipartPartRequest req = new UploadMultipartPartRequest()
-                                .withAccountId(accountId)
-                                .withChecksum(checksum)
-                                .withBody(inputSubStream)
-                                .withRange("bytes " + currentPosition + "-" + (currentPosition + length - 1) + "/*")
-                                .withUploadId(uploadId)
-                                .withVaultName(vaultName)
-                                .withGeneralProgressListener(progressListener)
-                                ;
-                            
-                            glacier.uploadMultipartPart(req);
-                            completed = true;
-                            binaryChecksums.add(binaryChecksum);
-                        } catch (Exception e){
-                            failedException = e;
-                        } finally {
-                            // We opened the file underneath; so need to release it
-                            release(inputSubStream, log);
+                if (executorService == null) {
+                    binaryChecksums.add(uploadPart(accountId, vaultName, uploadId,
+                            file, currentPosition, length, progressListener));
+                } else {
+                    final String partUploadId = uploadId;
+                    final long partPosition = currentPosition;
+                    final long partLength = length;
+                    futures.add(executorService.submit(new Callable<byte[]>() {
+                        @Override
+                        public byte[] call() throws Exception {
+                            return uploadPart(accountId, vaultName, partUploadId,
+                                    file, partPosition, partLength, progressListener);
                         }
-                    } // end inner while
-                if (!completed && failedException!=null)
-                    throw failedException;
+                    }));
+                }
                 currentPosition += partSize;
-            } // end outer while
+            }
+            // The part checksums must be combined in the order of the parts
+            for (Future<byte[]> future : futures) {
+                try {
+                    binaryChecksums.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
 
             String checksum = TreeHashGenerator.calculateTreeHash(binaryChecksums);
 
@@ -760,12 +808,60 @@ public class ArchiveTransferManager {
             publishProgress(progressListener, ProgressEventType.TRANSFER_COMPLETED_EVENT);
             return new UploadResult(artifactId);
         } catch (Throwable t) {
+            for (Future<byte[]> future : futures) {
+                future.cancel(true);
+            }
+            if (t instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             publishProgress(progressListener, ProgressEventType.TRANSFER_FAILED_EVENT);
             glacier.abortMultipartUpload(new AbortMultipartUploadRequest(accountId, vaultName, uploadId));
             throw failure(t, "Unable to finish the upload");
         }
     }
 
+    /**
+     * Uploads the given range of the file as a part of the multipart upload,
+     * retrying up to {@value #MAX_PART_UPLOAD_TRIES} times.
+     *
+     * @return The binary tree hash of the part.
+     */
+    private byte[] uploadPart(String accountId, String vaultName,
+            String uploadId, File file, long position, long length,
+            ProgressListener progressListener) throws Exception {
+        final String checksum = TreeHashGenerator.calculateTreeHash(file, position, length);
+        final String fileNotFoundMsg = "Unable to find file '"
+                + file.getAbsolutePath() + "'";
+        Exception failedException = null;
+        for (int tries = 0; tries < MAX_PART_UPLOAD_TRIES; tries++) {
+            InputSubstream inputSubStream = null;
+            try {
+                inputSubStream = new InputSubstream(
+                        newResettableInputStream(file, fileNotFoundMsg)
+                            .disableClose(), // requires explicit release
+                        position, length, true);
+                UploadMultipartPartRequest req = new UploadMultipartPartRequest()
+                    .withAccountId(accountId)
+                    .withChecksum(checksum)
+                    .withBody(inputSubStream)
+                    .withRange("bytes " + position + "-" + (position + length - 1) + "/*")
+                    .withUploadId(uploadId)
+                    .withVaultName(vaultName)
+                    .withGeneralProgressListener(progressListener)
+                    ;
+
+                glacier.uploadMultipartPart(req);
+                return BinaryUtils.fromHex(checksum);
+            } catch (Exception e) {
+                failedException = e;
+            } finally {
+                // We opened the file underneath; so need to release it
+                release(inputSubStream, log);
+            }
+        }
+        throw failedException;
+    }
+
     private UploadResult uploadInSinglePart(final String accountId,
             final String vaultName, final String archiveDescription,
             final File file, ProgressListener progressListener) {
@@ -16,6 +16,7 @@ package com.amazonaws.services.s3;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -34,7 +35,9 @@ import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.regions.Region;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.kms.AWSKMSClient;
+import com.amazonaws.services.s3.internal.MultiBufferOutputStream;
 import com.amazonaws.services.s3.internal.MultiFileOutputStream;
+import com.amazonaws.services.s3.internal.PartBufferCreationEvent;
 import com.amazonaws.services.s3.internal.PartCreationEvent;
 import com.amazonaws.services.s3.internal.S3Direct;
 import com.amazonaws.services.s3.internal.crypto.CryptoModuleDispatcher;
@@ -662,6 +665,9 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
      * hitting the limit and will only resume when the in-flight uploads catch
      * up by releasing the temporary disk space upon successful uploads of the
      * completed parts</li>
+     * <li>the maximum memory to hold the encrypted parts in reusable direct
+     * buffers instead of temporary files on disk; the encryption then blocks
+     * while all the buffers are waiting to be uploaded</li>
      * <li>the configuration of your own {@link MultiFileOutputStream} for
      * custom pipeline behavior</li>
      * <li>the configuration of your own {@link UploadObjectObserver} for custom
@@ -682,13 +688,16 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
      * <li>A {@link MultiFileOutputStream} is constructed (or retrieved from the
      * request) which serves as the pipeline for incremental (but serial)
      * encryption to disk with concurrent multipart uploads to S3 whenever the
-     * parts on the disk are ready</li>
+     * parts on the disk are ready; or, if the request has a memory limit, a
+     * {@link MultiBufferOutputStream} which does the same in memory</li>
      * <li>Initialize the <code>MultiFileOutputStream</code></li>
      * <li>Kicks off the pipeline for incremental encryption to disk with
      * pipelined concurrent multi-part uploads to S3</li>
      * <li>For every part encrypted into a temporary file on disk, it is
      * uploaded by calling
-     * {@link UploadObjectObserver#onPartCreate(PartCreationEvent)}</li>
+     * {@link UploadObjectObserver#onPartCreate(PartCreationEvent)}; or for
+     * every part encrypted into memory, by calling
+     * {@link UploadObjectObserver#onPartBufferCreate(PartBufferCreationEvent)}</li>
      * <li>Finally, clean up and complete the multi-part upload by calling
      * {@link UploadObjectObserver#onCompletion(List)}.</li>
      * </ol>
@@ -718,15 +727,24 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
         // Initiate upload
         final String uploadId = observer.onUploadInitiation(req);
         final List<PartETag> partETags = new ArrayList<PartETag>();
-        MultiFileOutputStream mfos = req.getMultiFileOutputStream();
-        if (mfos == null)
-            mfos = new MultiFileOutputStream();
+        MultiFileOutputStream mfos = null;
         try {
-            // initialize the multi-file output stream
-            mfos.init(observer, req.getPartSize(), req.getDiskLimit());
+            final OutputStream os;
+            if (req.getMemoryLimit() > 0) {
+                // encrypt into reusable in-memory buffers
+                os = new MultiBufferOutputStream().init(
+                        observer, req.getPartSize(), req.getMemoryLimit());
+            } else {
+                mfos = req.getMultiFileOutputStream();
+                if (mfos == null)
+                    mfos = new MultiFileOutputStream();
+                // initialize the multi-file output stream
+                mfos.init(observer, req.getPartSize(), req.getDiskLimit());
+                os = mfos;
+            }
             // Kicks off the encryption-upload pipeline;
-            // Note mfos is automatically closed upon method completion.
-            crypto.putLocalObjectSecurely(req, uploadId, mfos);
+            // Note os is automatically closed upon method completion.
+            crypto.putLocalObjectSecurely(req, uploadId, os);
             // block till all part have been uploaded
             for (Future<UploadPartResult> future: observer.getFutures()) {
                 UploadPartResult partResult = future.get();
@@ -745,7 +763,8 @@ public class AmazonS3EncryptionClient extends AmazonS3Client implements
         } finally {
             if (defaultExecutorService)
                 es.shutdownNow();   // shut down the locally created thread pool
-            mfos.cleanup();       // delete left-over temp files
+            if (mfos != null)
+                mfos.cleanup();   // delete left-over temp files
         }
         // Complete upload
         return observer.onCompletion(partETags);
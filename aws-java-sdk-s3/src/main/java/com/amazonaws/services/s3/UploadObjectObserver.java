@@ -15,6 +15,7 @@
 package com.amazonaws.services.s3;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -24,7 +25,10 @@ import java.util.concurrent.Future;
 import org.apache.commons.logging.LogFactory;
 
 import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.s3.internal.ByteBufferInputStream;
+import com.amazonaws.services.s3.internal.MultiBufferOutputStream;
 import com.amazonaws.services.s3.internal.MultiFileOutputStream;
+import com.amazonaws.services.s3.internal.PartBufferCreationEvent;
 import com.amazonaws.services.s3.internal.PartCreationEvent;
 import com.amazonaws.services.s3.internal.S3DirectSpi;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
@@ -164,6 +168,44 @@ public class UploadObjectObserver {
         }));
     }
 
+    /**
+     * Notified from {@link MultiBufferOutputStream} when a part ready for
+     * upload has been created in memory, if the request has a memory limit.
+     * By default, this method performs the following:
+     * <ol>
+     * <li>calls {@link #newUploadPartRequest(PartBufferCreationEvent)} to
+     * create an upload-part request for the buffered ciphertext</li>
+     * <li>call {@link #appendUserAgent(AmazonWebServiceRequest, String)} to
+     * append the necessary user agent string to the request</li>
+     * <li>and finally submit a concurrent task, which calls the method
+     * {@link #uploadPart(UploadPartRequest)} and then releases the buffer, to
+     * be performed</li>
+     * </ol>
+     * <p>
+     * To enable parallel uploads, implementation of this method should never
+     * block.
+     * 
+     * @param event
+     *            to represent the completion of a ciphertext part in memory
+     *            which is ready for multipart upload to S3.
+     */
+    public void onPartBufferCreate(final PartBufferCreationEvent event) {
+        final UploadPartRequest reqUploadPart = newUploadPartRequest(event);
+        appendUserAgent(reqUploadPart, AmazonS3EncryptionClient.USER_AGENT);
+        futures.add(es.submit(new Callable<UploadPartResult>() {
+            @Override public UploadPartResult call() {
+                // Upload the ciphertext directly via the non-encrypting
+                // s3 client
+                try {
+                    return uploadPart(reqUploadPart);
+                } finally {
+                    // the buffer can now be reused for a subsequent part
+                    event.release();
+                }
+            }
+        }));
+    }
+
     /**
      * Notified from
      * {@link AmazonS3EncryptionClient#uploadObject(UploadObjectRequest)} when
@@ -226,6 +268,28 @@ public class UploadObjectObserver {
         return reqUploadPart;
     }
 
+    /**
+     * Creates and returns an upload-part request corresponding to a ciphertext
+     * part in memory upon a part-buffer-creation event.
+     * 
+     * @param event
+     *            the part-buffer-creation event of the ciphertext part.
+     */
+    protected UploadPartRequest newUploadPartRequest(PartBufferCreationEvent event) {
+        final ByteBuffer part = event.getPart();
+        final UploadPartRequest reqUploadPart = new UploadPartRequest()
+            .withBucketName(req.getBucketName())
+            .withInputStream(new ByteBufferInputStream(part))
+            .withKey(req.getKey())
+            .withPartNumber(event.getPartNumber())
+            .withPartSize(part.remaining())
+            .withLastPart(event.isLastPart())
+            .withUploadId(uploadId)
+            .withObjectMetadata(req.getUploadPartMetadata())
+            ;
+        return reqUploadPart;
+    }
+
     /**
      * Uploads the ciphertext via the non-encrypting s3 client.
      * @param reqUploadPart part upload request
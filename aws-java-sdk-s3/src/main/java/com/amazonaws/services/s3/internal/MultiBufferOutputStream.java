@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.services.s3.UploadObjectObserver;
+
+/**
+ * Used to split an output stream into multiple in-memory parts for purposes
+ * such as parallel uploads; the in-memory counterpart of
+ * {@link MultiFileOutputStream}.
+ * <p>
+ * Each part is written into a direct byte buffer of the part size, handed to
+ * the observer once full. The buffers are reused once released by the
+ * observer, and no more are allocated than fit in the memory limit: writing
+ * blocks while all the buffers are waiting to be uploaded.
+ */
+public class MultiBufferOutputStream extends OutputStream {
+    private UploadObjectObserver observer;
+    private int partSize;
+    private long memoryLimit;
+    private int maxBuffers;
+    /** Number of buffers allocated so far; only accessed by the writer. */
+    private int buffersAllocated;
+    private final BlockingQueue<ByteBuffer> freeBuffers = new LinkedBlockingQueue<ByteBuffer>();
+    /** The buffer of the part being written, or null if none. */
+    private ByteBuffer current;
+    private int partsCreated;
+    /**
+     * Total number of bytes written to all parts so far.
+     */
+    private long totalBytesWritten;
+    private boolean closed;
+
+    /**
+     * Used to initialized this stream. This method is an SPI (service provider
+     * interface) that is called from <code>AmazonS3EncryptionClient</code>.
+     * <p>
+     * Implementation of this method should never block.
+     *
+     * @param observer
+     *            the upload object observer
+     * @param partSize
+     *            part size for multi-part upload
+     * @param memoryLimit
+     *            the maximum memory to be used for the parts of this
+     *            multi-part upload
+     *
+     * @return this object
+     */
+    public MultiBufferOutputStream init(UploadObjectObserver observer,
+            long partSize, long memoryLimit) {
+        if (observer == null)
+            throw new IllegalArgumentException("Observer must be specified");
+        if (partSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                "Part size must fit in a single buffer: partSize=" + partSize);
+        }
+        if (memoryLimit < partSize << 1) {
+            throw new IllegalArgumentException(
+                "Maximum memory must be at least twice as large as the part size: partSize="
+                + partSize + ", memoryLimit=" + memoryLimit);
+        }
+        this.observer = observer;
+        this.partSize = (int) partSize;
+        this.memoryLimit = memoryLimit;
+        this.maxBuffers = (int) Math.min(Integer.MAX_VALUE, memoryLimit / partSize);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * This method would block as necessary if running out of buffers.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        buffer().put((byte) b);
+        totalBytesWritten++;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * This method would block as necessary if running out of buffers.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer buffer = buffer();
+            int count = Math.min(len, buffer.remaining());
+            buffer.put(b, off, count);
+            off += count;
+            len -= count;
+            totalBytesWritten += count;
+        }
+    }
+
+    /**
+     * Returns the buffer to be written to, handing over the current part if
+     * it is full and blocking if necessary if running out of buffers.
+     */
+    private ByteBuffer buffer() throws IOException {
+        if (closed)
+            throw new IOException("Output stream is already closed");
+        if (current != null && !current.hasRemaining())
+            createPart(false);
+        if (current == null)
+            current = acquire();
+        return current;
+    }
+
+    /**
+     * Notifies the observer about the current part being ready for
+     * processing.
+     */
+    private void createPart(boolean isLastPart) {
+        ByteBuffer part = current;
+        current = null;
+        part.flip();
+        partsCreated++;
+        observer.onPartBufferCreate(new PartBufferCreationEvent(
+                part, partsCreated, isLastPart, this));
+    }
+
+    /**
+     * Returns a free buffer, allocating one if the memory limit allows or
+     * else blocking until one is released.
+     *
+     * @throws AbortedException
+     *             if the running thread is interrupted while waiting for a
+     *             buffer
+     */
+    private ByteBuffer acquire() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null)
+            return buffer;
+        if (buffersAllocated < maxBuffers) {
+            buffersAllocated++;
+            return ByteBuffer.allocateDirect(partSize);
+        }
+        try {
+            return freeBuffers.take();
+        } catch (InterruptedException e) {
+            // don't want to re-interrupt so it won't cause SDK stream to be
+            // closed in case the thread is reused for a different request
+            throw new AbortedException(e);
+        }
+    }
+
+    /**
+     * Called by {@link PartBufferCreationEvent#release()} to make the buffer
+     * of a part available again.
+     */
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        freeBuffers.add(buffer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        if (current != null) {
+            if (current.position() == 0) {
+                release(current);
+                current = null;
+            } else {
+                createPart(true);
+            }
+        }
+    }
+
+    /**
+     * @return the number of parts handed to the observer so far.
+     */
+    public int getNumPartsCreated() {
+        return partsCreated;
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    public long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The in-memory counterpart of {@link PartCreationEvent}: a part ready for
+ * multi-part upload held in a buffer of a {@link MultiBufferOutputStream}.
+ * The buffer must be {@link #release() released} once the part has been
+ * uploaded, or the upload given up, so that it can be reused for a
+ * subsequent part.
+ */
+public class PartBufferCreationEvent {
+    private final ByteBuffer part;
+    private final int partNumber;
+    private final boolean isLastPart;
+    private final MultiBufferOutputStream owner;
+    private boolean released;
+
+    PartBufferCreationEvent(ByteBuffer part, int partNumber,
+            boolean isLastPart, MultiBufferOutputStream owner) {
+        this.part = part;
+        this.partNumber = partNumber;
+        this.isLastPart = isLastPart;
+        this.owner = owner;
+    }
+
+    /**
+     * Returns a read-only view of the content of the part, from position zero
+     * to its limit; only valid until the part is released.
+     */
+    public ByteBuffer getPart() {
+        return part.asReadOnlyBuffer();
+    }
+
+    public int getPartNumber() {
+        return partNumber;
+    }
+
+    public boolean isLastPart() {
+        return isLastPart;
+    }
+
+    /**
+     * Returns the buffer of the part to its output stream for reuse. Calling
+     * this method more than once has no further effect.
+     */
+    public void release() {
+        synchronized (this) {
+            if (released)
+                return;
+            released = true;
+        }
+        owner.release(part);
+    }
+}
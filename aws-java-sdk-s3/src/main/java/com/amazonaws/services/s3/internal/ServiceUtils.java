@@ -19,16 +19,18 @@ package com.amazonaws.services.s3.internal;
 import static com.amazonaws.util.IOUtils.closeQuietly;
 import static com.amazonaws.util.StringUtils.UTF8;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.SocketException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -47,7 +49,6 @@ import com.amazonaws.services.s3.transfer.exception.FileLockException;
 import com.amazonaws.util.BinaryUtils;
 import com.amazonaws.util.DateUtils;
 import com.amazonaws.util.HttpUtils;
-import com.amazonaws.util.Md5Utils;
 
 /**
  * General utility methods used throughout the AWS S3 Java client.
@@ -59,8 +60,33 @@ public class ServiceUtils {
 
     public static final boolean OVERWRITE_MODE = false;
 
+    /**
+     * Orders keys the way Amazon S3 lists them, which is by Unicode code
+     * point rather than by UTF-16 code unit.
+     */
+    public static final Comparator<String> KEY_ORDER = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            int i = 0, j = 0;
+            while (i < a.length() && j < b.length()) {
+                int ca = a.codePointAt(i);
+                int cb = b.codePointAt(j);
+                if (ca != cb)
+                    return ca < cb ? -1 : 1;
+                i += Character.charCount(ca);
+                j += Character.charCount(cb);
+            }
+            if (i < a.length())
+                return 1;
+            return j < b.length() ? -1 : 0;
+        }
+    };
+
     private static final SkipMd5CheckStrategy skipMd5CheckStrategy = SkipMd5CheckStrategy.INSTANCE;
 
+    /** Size of the buffer to read downloaded data into. */
+    private static final int READ_BUFFER_SIZE = 1024 * 16;
+
     @Deprecated
     protected static final DateUtils dateUtils = new DateUtils();
 
@@ -261,7 +287,23 @@ public class ServiceUtils {
             throw new FileLockException("Fail to lock " + dstfile
                     + " for appendData=" + appendData);
         }
-        OutputStream outputStream = null;
+        // The MD5 digest is calculated as the data is written, rather than
+        // by reading the file back once the download is complete
+        MessageDigest digest = null;
+        byte[] serverSideHash = null;
+        if (performIntegrityCheck) {
+            try {
+                final ObjectMetadata metadata = s3Object.getObjectMetadata();
+                if (!skipMd5CheckStrategy.skipClientSideValidationPerGetResponse(metadata)) {
+                    serverSideHash = BinaryUtils.fromHex(metadata.getETag());
+                    digest = MessageDigest.getInstance("MD5");
+                }
+            } catch (Exception e) {
+                log.warn("Unable to calculate MD5 hash to validate download: " + e.getMessage(), e);
+                digest = null;
+            }
+        }
+        FileOutputStream outputStream = null;
         try {
             final long actualLen = dstfile.length();
             if (appendData && actualLen != expectedFileLength) {
@@ -271,13 +313,8 @@ public class ServiceUtils {
                             + expectedFileLength + " but actual length is "
                             + actualLen + " for file " + dstfile);
             }
-            outputStream = new BufferedOutputStream(new FileOutputStream(
-                    dstfile, appendData));
-            byte[] buffer = new byte[1024*10];
-            int bytesRead;
-            while ((bytesRead = s3Object.getObjectContent().read(buffer)) > -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
+            outputStream = new FileOutputStream(dstfile, appendData);
+            writeToChannel(s3Object.getObjectContent(), outputStream.getChannel(), digest);
         } catch (IOException e) {
             s3Object.getObjectContent().abort();
             throw new AmazonClientException(
@@ -288,23 +325,31 @@ public class ServiceUtils {
             closeQuietly(s3Object.getObjectContent(), log);
         }
 
-        if (performIntegrityCheck) {
-            byte[] clientSideHash = null;
-            byte[] serverSideHash = null;
-            try {
-                final ObjectMetadata metadata = s3Object.getObjectMetadata();
-                if (!skipMd5CheckStrategy.skipClientSideValidationPerGetResponse(metadata)) {
-                    clientSideHash = Md5Utils.computeMD5Hash(new FileInputStream(dstfile));
-                    serverSideHash = BinaryUtils.fromHex(metadata.getETag());
-                }
-            } catch (Exception e) {
-                log.warn("Unable to calculate MD5 hash to validate download: " + e.getMessage(), e);
-            }
+        if (digest != null && serverSideHash != null
+                && !Arrays.equals(digest.digest(), serverSideHash)) {
+            throw new AmazonClientException("Unable to verify integrity of data download.  " +
+                    "Client calculated content hash didn't match hash calculated by Amazon S3.  " +
+                    "The data stored in '" + dstfile.getAbsolutePath() + "' may be corrupt.");
+        }
+    }
 
-            if (clientSideHash != null && serverSideHash != null && !Arrays.equals(clientSideHash, serverSideHash)) {
-                throw new AmazonClientException("Unable to verify integrity of data download.  " +
-                        "Client calculated content hash didn't match hash calculated by Amazon S3.  " +
-                        "The data stored in '" + dstfile.getAbsolutePath() + "' may be corrupt.");
+    /**
+     * Copies the given input stream to the given file channel, updating the
+     * given digest, if any, with the bytes copied. Each read is written
+     * straight from the read buffer, so no direct buffer is allocated per
+     * download.
+     */
+    private static void writeToChannel(InputStream in, FileChannel channel,
+            MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) > -1) {
+            if (digest != null) {
+                digest.update(buffer, 0, bytesRead);
+            }
+            ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
+            while (bb.hasRemaining()) {
+                channel.write(bb);
             }
         }
     }
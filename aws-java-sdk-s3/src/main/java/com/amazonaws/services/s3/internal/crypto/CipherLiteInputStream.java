@@ -19,6 +19,7 @@ import java.io.InputStream;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.ShortBufferException;
 
 import com.amazonaws.internal.SdkFilterInputStream;
 
@@ -48,7 +49,16 @@ public class CipherLiteInputStream extends SdkFilterInputStream {
     private final boolean lastMultiPart;
     private boolean eof;
     private byte[] bufin;
+    /**
+     * The processed data being read; either {@link #outbuf} or the final
+     * bytes of the cipher.
+     */
     private byte[] bufout;
+    /**
+     * Reused to hold the data processed from each chunk of {@link #bufin},
+     * with room for the extra block or tag a cipher may output.
+     */
+    private final byte[] outbuf;
     private int curr_pos;
     private int max_pos;
 
@@ -74,6 +84,7 @@ public class CipherLiteInputStream extends SdkFilterInputStream {
                     + DEFAULT_IN_BUFFER_SIZE);
         }
         this.bufin = new byte[buffsize];
+        this.outbuf = new byte[buffsize + DEFAULT_IN_BUFFER_SIZE];
     }
 
     protected CipherLiteInputStream(InputStream is) {
@@ -239,9 +250,20 @@ public class CipherLiteInputStream extends SdkFilterInputStream {
             }
             return -1;
         }
-        bufout = cipherLite.update(bufin, 0, len);
         curr_pos = 0;
-        return max_pos = (bufout == null ? 0 : bufout.length);
+        if (cipherLite.getOutputSize(len) > outbuf.length) {
+            // Only possible if the cipher holds back more data than expected,
+            // such as a decrypting AES/GCM cipher that buffers everything
+            bufout = cipherLite.update(bufin, 0, len);
+            return max_pos = (bufout == null ? 0 : bufout.length);
+        }
+        try {
+            max_pos = cipherLite.update(bufin, 0, len, outbuf, 0);
+        } catch (ShortBufferException e) {
+            throw new IOException(e);
+        }
+        bufout = outbuf;
+        return max_pos;
     }
 
     void renewCipherLite() {
@@ -20,6 +20,7 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 
 /**
  * A AES/GCM specific {@link CipherLite} that support re-processing of input
@@ -184,6 +185,37 @@ final class GCMCipherLite extends CipherLite {
         return out;
     }
 
+    /**
+     * @param inputLen
+     *            for {@link #mark()} and {@link #reset()} to work correctly,
+     *            inputLen should always be in multiple of 16 bytes except for
+     *            the very last part of the plaintext.
+     */
+    @Override
+    int update(byte[] input, int inputOffset, int inputLen, byte[] output,
+            int outputOffset) throws ShortBufferException {
+        if (aux != null) {
+            // Re-processing is rare; go through the allocating update to
+            // keep the bookkeeping in one place
+            byte[] out = update(input, inputOffset, inputLen);
+            if (out == null)
+                return 0;
+            if (out.length > output.length - outputOffset)
+                throw new ShortBufferException();
+            System.arraycopy(out, 0, output, outputOffset, out.length);
+            return out.length;
+        }
+        int outLen = super.update(input, inputOffset, inputLen, output, outputOffset);
+        outputByteCount += checkMax(outLen);
+        invisiblyProcessed = outLen == 0 && inputLen > 0;
+        return outLen;
+    }
+
+    @Override
+    int getOutputSize(int inputLen) {
+        return aux == null ? super.getOutputSize(inputLen) : aux.getOutputSize(inputLen);
+    }
+
     /**
      * Returns the input delta but only if it will not result in exceeding the
      * limit of the maximum number of bytes that can be processed by AES/GCM.
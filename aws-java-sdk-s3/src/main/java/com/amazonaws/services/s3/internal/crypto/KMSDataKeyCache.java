@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.internal.crypto;
+
+import static com.amazonaws.util.BinaryUtils.copyAllBytesFrom;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.amazonaws.internal.ConcurrentFIFOCache;
+import com.amazonaws.services.kms.AWSKMSClient;
+import com.amazonaws.services.kms.model.DecryptRequest;
+import com.amazonaws.services.kms.model.GenerateDataKeyRequest;
+import com.amazonaws.services.kms.model.GenerateDataKeyResult;
+import com.amazonaws.services.s3.model.KMSDataKeyCachePolicy;
+import com.amazonaws.util.Base64;
+
+/**
+ * Caches the data keys generated and decrypted by KMS for an S3 crypto
+ * module, within the limits of a {@link KMSDataKeyCachePolicy}.
+ * <p>
+ * Generated data keys are cached by customer master key id, key spec and
+ * encryption context, and reused until they reach the maximum age, number of
+ * bytes or number of objects of the policy. Decrypted data keys are cached by
+ * ciphertext blob and encryption context for no longer than the maximum age;
+ * a generated data key is also cached as decrypted, so that objects written
+ * by a client are read back without calling KMS.
+ */
+final class KMSDataKeyCache {
+    /** The maximum number of data keys held by each of the caches. */
+    private static final int MAX_CACHED_KEYS = 1000;
+
+    private final KMSDataKeyCachePolicy policy;
+    private final ConcurrentFIFOCache<GeneratedKey> generatedKeys =
+            new ConcurrentFIFOCache<GeneratedKey>(MAX_CACHED_KEYS);
+    private final ConcurrentFIFOCache<DecryptedKey> decryptedKeys =
+            new ConcurrentFIFOCache<DecryptedKey>(MAX_CACHED_KEYS);
+
+    KMSDataKeyCache(KMSDataKeyCachePolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Returns a data key to encrypt the given number of plaintext bytes, from
+     * the cache if possible or else generated by KMS.
+     *
+     * @param plaintextLength
+     *            the number of bytes to encrypt, or -1 if unknown
+     */
+    GeneratedKey generateDataKey(AWSKMSClient kms, GenerateDataKeyRequest req,
+            long plaintextLength) {
+        final String cacheKey = req.getKeyId() + "/" + req.getKeySpec() + "/"
+                + new TreeMap<String, String>(req.getEncryptionContext());
+        GeneratedKey key = generatedKeys.get(cacheKey);
+        if (key != null && key.use(plaintextLength)) {
+            return key;
+        }
+        GenerateDataKeyResult result = kms.generateDataKey(req);
+        key = new GeneratedKey(copyAllBytesFrom(result.getPlaintext()),
+                copyAllBytesFrom(result.getCiphertextBlob()));
+        // The first use of a new key is always allowed
+        key.use(plaintextLength);
+        generatedKeys.add(cacheKey, key);
+        decryptedKeys.add(decryptedCacheKey(key.ciphertextBlob,
+                req.getEncryptionContext()), new DecryptedKey(key.plaintext));
+        return key;
+    }
+
+    /**
+     * Returns the plaintext of the data key of the given decrypt request,
+     * from the cache if possible or else decrypted by KMS.
+     */
+    byte[] decrypt(AWSKMSClient kms, DecryptRequest req) {
+        final String cacheKey = decryptedCacheKey(
+                copyAllBytesFrom(req.getCiphertextBlob()),
+                req.getEncryptionContext());
+        DecryptedKey key = decryptedKeys.get(cacheKey);
+        if (key != null && !isExpired(key.createdMillis)) {
+            return key.plaintext;
+        }
+        key = new DecryptedKey(copyAllBytesFrom(kms.decrypt(req).getPlaintext()));
+        decryptedKeys.add(cacheKey, key);
+        return key.plaintext;
+    }
+
+    private static String decryptedCacheKey(byte[] ciphertextBlob,
+            Map<String, String> encryptionContext) {
+        return Base64.encodeAsString(ciphertextBlob) + "/"
+                + new TreeMap<String, String>(encryptionContext);
+    }
+
+    private boolean isExpired(long createdMillis) {
+        return System.currentTimeMillis() - createdMillis >= policy.getMaxAgeMillis();
+    }
+
+    /**
+     * A data key generated by KMS, with its usage so far.
+     */
+    final class GeneratedKey {
+        private final byte[] plaintext;
+        private final byte[] ciphertextBlob;
+        private final long createdMillis = System.currentTimeMillis();
+        private long objects;
+        private long bytes;
+
+        private GeneratedKey(byte[] plaintext, byte[] ciphertextBlob) {
+            this.plaintext = plaintext;
+            this.ciphertextBlob = ciphertextBlob;
+        }
+
+        /**
+         * Records the encryption of an object under this key, unless it would
+         * exceed the limits of the policy.
+         *
+         * @return true if the key may be used for the object
+         */
+        private synchronized boolean use(long plaintextLength) {
+            final long maxBytes = policy.getMaxBytes();
+            long length = plaintextLength;
+            if (length < 0) {
+                // Content of unknown length exhausts any limit on the bytes
+                length = maxBytes == Long.MAX_VALUE ? 0 : maxBytes;
+            }
+            if (objects > 0
+                    && (isExpired(createdMillis)
+                        || objects >= policy.getMaxObjects()
+                        || length > maxBytes - bytes)) {
+                return false;
+            }
+            objects++;
+            bytes = Math.min(maxBytes, bytes + length);
+            return true;
+        }
+
+        /** Returns the data key in plaintext; must not be modified. */
+        byte[] getPlaintext() {
+            return plaintext;
+        }
+
+        /** Returns the data key encrypted by KMS; must not be modified. */
+        byte[] getCiphertextBlob() {
+            return ciphertextBlob;
+        }
+    }
+
+    private static final class DecryptedKey {
+        private final byte[] plaintext;
+        private final long createdMillis = System.currentTimeMillis();
+
+        private DecryptedKey(byte[] plaintext) {
+            this.plaintext = plaintext;
+        }
+    }
+}
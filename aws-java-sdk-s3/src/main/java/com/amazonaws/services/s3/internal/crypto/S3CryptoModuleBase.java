@@ -94,7 +94,6 @@ import com.amazonaws.util.json.Jackson;
 public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         extends S3CryptoModule<T> {
     private static final boolean IS_MULTI_PART = true;
-    protected static final int DEFAULT_BUFFER_SIZE = 1024*2;    // 2K
     protected final EncryptionMaterialsProvider kekMaterialsProvider;
     protected final Log log = LogFactory.getLog(getClass());
     protected final S3CryptoScheme cryptoScheme;
@@ -107,6 +106,11 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         Collections.synchronizedMap(new HashMap<String,T>());
     protected final S3Direct s3;
     protected final AWSKMSClient kms;
+    /**
+     * The cache of the data keys generated and decrypted by KMS; or null if
+     * data keys are not cached.
+     */
+    protected final KMSDataKeyCache dataKeyCache;
 
     /**
      * @param cryptoConfig a read-only copy of the crypto configuration.
@@ -123,6 +127,9 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         this.cryptoScheme = S3CryptoScheme.from(cryptoConfig.getCryptoMode());
         this.contentCryptoScheme = cryptoScheme.getContentCryptoScheme();
         this.kms = kms;
+        this.dataKeyCache = cryptoConfig.getKmsDataKeyCachePolicy() == null
+                ? null
+                : new KMSDataKeyCache(cryptoConfig.getKmsDataKeyCachePolicy());
     }
 
     /**
@@ -138,6 +145,7 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         this.cryptoScheme = S3CryptoScheme.from(cryptoConfig.getCryptoMode());
         this.contentCryptoScheme = cryptoScheme.getContentCryptoScheme();
         this.kms = null;
+        this.dataKeyCache = null;
     }
 
     /**
@@ -362,10 +370,10 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
                     req.isLastPart());
             return cipherLite.markSupported()
                  ? new CipherLiteInputStream(isCurr, cipherLite,
-                       DEFAULT_BUFFER_SIZE,
+                       cryptoConfig.getCipherBufferSize(),
                        IS_MULTI_PART, req.isLastPart())
                  : new RenewableCipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE,
+                        cryptoConfig.getCipherBufferSize(),
                         IS_MULTI_PART, req.isLastPart());
         } catch (Exception e) {
             cleanupDataSource(req, fileOrig, isOrig, isCurr, log);
@@ -536,11 +544,20 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
                 .withGeneralProgressListener(req.getGeneralProgressListener())
                 .withRequestMetricCollector(req.getRequestMetricCollector())
                 ;
-            GenerateDataKeyResult keyGenRes = kms.generateDataKey(keyGenReq);
-            final SecretKey cek =
-                new SecretKeySpec(copyAllBytesFrom(keyGenRes.getPlaintext()),
+            final SecretKey cek;
+            final byte[] keyBlob;
+            if (dataKeyCache != null) {
+                KMSDataKeyCache.GeneratedKey dataKey = dataKeyCache.generateDataKey(
+                        kms, keyGenReq, plaintextLength(req));
+                cek = new SecretKeySpec(dataKey.getPlaintext(),
+                        contentCryptoScheme.getKeyGeneratorAlgorithm());
+                keyBlob = dataKey.getCiphertextBlob().clone();
+            } else {
+                GenerateDataKeyResult keyGenRes = kms.generateDataKey(keyGenReq);
+                cek = new SecretKeySpec(copyAllBytesFrom(keyGenRes.getPlaintext()),
                         contentCryptoScheme.getKeyGeneratorAlgorithm());
-            byte[] keyBlob = copyAllBytesFrom(keyGenRes.getCiphertextBlob());
+                keyBlob = copyAllBytesFrom(keyGenRes.getCiphertextBlob());
+            }
             return ContentCryptoMaterial.wrap(cek, iv,
                     contentCryptoScheme, provider,
                     new KMSSecuredCEK(keyBlob, encryptionContext));
@@ -664,10 +681,10 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
 
             if (cipherLite.markSupported()) {
                 return new CipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE);
+                        cryptoConfig.getCipherBufferSize());
             } else {
                 return new RenewableCipherLiteInputStream(isCurr, cipherLite,
-                        DEFAULT_BUFFER_SIZE);
+                        cryptoConfig.getCipherBufferSize());
             }
         } catch (Exception e) {
             cleanupDataSource(req, fileOrig, isOrig, isCurr, log);
@@ -675,6 +692,20 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
         }
     }
 
+    /**
+     * Returns the length of the plaintext to be uploaded by the given request,
+     * or -1 if unknown.
+     */
+    private long plaintextLength(AmazonWebServiceRequest req) {
+        if (req instanceof AbstractPutObjectRequest) {
+            AbstractPutObjectRequest putReq = (AbstractPutObjectRequest) req;
+            ObjectMetadata metadata = putReq.getMetadata();
+            return plaintextLength(putReq,
+                    metadata == null ? new ObjectMetadata() : metadata);
+        }
+        return -1;
+    }
+
     /**
      * Returns the plaintext length from the request and metadata; or -1 if
      * unknown.
@@ -860,7 +891,8 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
                     kekMaterialsProvider,
                     cryptoConfig.getCryptoProvider(),
                     false,   // existing CEK not necessarily key-wrapped
-                    kms
+                    kms,
+                    dataKeyCache
                 );
         }
         S3ObjectWrapper orig_ifile =
@@ -886,7 +918,8 @@ public abstract class S3CryptoModuleBase<T extends MultipartUploadCryptoContext>
             kekMaterialsProvider,
             cryptoConfig.getCryptoProvider(),
             false,   // existing CEK not necessarily key-wrapped
-            kms
+            kms,
+            dataKeyCache
         );
     }
 
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.iterable;
+
+import static com.amazonaws.services.s3.internal.ServiceUtils.KEY_ORDER;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.AmazonClientException;
+
+/**
+ * Iterator listing the keys under a prefix in parallel, used by
+ * {@link S3Objects} and {@link S3Versions} when they are given an executor.
+ * <p>
+ * The keys are partitioned by the common prefixes found by a delimited
+ * listing of the prefix: the keys under each common prefix are listed on the
+ * executor, by no more workers than the executor has threads, while the keys
+ * directly under the prefix come with the delimited listing itself. If the
+ * delimited listing finds a single common prefix and nothing else, it
+ * descends into it to find more partitions.
+ * <p>
+ * The delimited listing is listed one page at a time by the caller, when it
+ * has returned every partition found so far or when the workers run out of
+ * partitions to list, as long as fewer than 1,000 partitions are pending. The
+ * keys directly under the prefix found on each page form a partition of their
+ * own, so a keyspace with few common prefixes is listed about as fast as
+ * without an executor, and never held in memory at once.
+ * <p>
+ * Each partition holds at most two listed pages waiting to be returned;
+ * a worker waits for the caller to catch up before listing more. In key
+ * order, the partitions are returned one after another in the order of their
+ * prefixes; otherwise pages are returned as soon as they are listed.
+ * <p>
+ * Like any iterator, instances must be used from one thread at a time. The
+ * iterator should be {@link #close() closed} if it is not consumed entirely,
+ * to release the threads of the executor.
+ *
+ * @param <T>
+ *            The type of the summaries listed.
+ */
+public abstract class ParallelListingIterator<T> implements Iterator<T>, Closeable {
+
+    private static final int PAGES_PER_PARTITION = 2;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /**
+     * Number of pending partitions from which the delimited listing is not
+     * listed ahead of the caller.
+     */
+    private static final int MAXIMUM_PENDING_PARTITIONS = 1000;
+
+    private final String prefix;
+    private final String delimiter;
+    private final ExecutorService executorService;
+    private final boolean keyOrder;
+    private final int maxWorkers;
+
+    /**
+     * Partitions not yet returned entirely, in the order of their prefixes;
+     * only accessed by the caller.
+     */
+    private final Queue<Partition<T>> pendingPartitions = new ArrayDeque<Partition<T>>();
+
+    /** Partitions waiting for a worker. */
+    private final Queue<Partition<T>> unlistedPartitions = new ConcurrentLinkedQueue<Partition<T>>();
+
+    /**
+     * One entry per page added to a partition, when not in key order, to
+     * return pages in the order they are listed.
+     */
+    private final BlockingQueue<Partition<T>> listedPages = new LinkedBlockingQueue<Partition<T>>();
+
+    /** Number of workers started and not yet finished. */
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private volatile boolean closed;
+
+    private boolean started;
+    /** The last page of the delimited listing, or null once it is complete. */
+    private Listing<T> delimitedListing;
+    private Iterator<T> currentPage;
+
+    /**
+     * @param prefix
+     *            The prefix of the keys to list, or null for the whole bucket.
+     * @param delimiter
+     *            The delimiter to partition the keys by.
+     * @param executorService
+     *            The executor to list the partitions on.
+     * @param keyOrder
+     *            Whether to return the summaries in key order.
+     */
+    ParallelListingIterator(String prefix, String delimiter,
+            ExecutorService executorService, boolean keyOrder) {
+        if (delimiter == null || delimiter.length() == 0) {
+            throw new IllegalArgumentException("A delimiter must be provided to partition the listing");
+        }
+        this.prefix = prefix == null ? "" : prefix;
+        this.delimiter = delimiter;
+        this.executorService = executorService;
+        this.keyOrder = keyOrder;
+        this.maxWorkers = maxConcurrency(executorService);
+    }
+
+    /**
+     * Lists the first page of summaries and common prefixes under the given
+     * prefix.
+     *
+     * @param delimiter
+     *            The delimiter, or null to list every key under the prefix.
+     */
+    abstract Listing<T> listFirstPage(String prefix, String delimiter);
+
+    /**
+     * Lists the page following the given truncated one.
+     */
+    abstract Listing<T> listNextPage(Listing<T> previous);
+
+    /**
+     * Returns the key of the given summary.
+     */
+    abstract String getKey(T summary);
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            start();
+        }
+        while (currentPage == null || !currentPage.hasNext()) {
+            if (closed) {
+                return false;
+            }
+            listAhead();
+            if (pendingPartitions.isEmpty()) {
+                return false;
+            }
+            Partition<T> partition = keyOrder
+                    ? pendingPartitions.peek()
+                    : take(listedPages);
+            Page<T> page = take(partition.pages);
+            if (page.failure != null) {
+                close();
+                if (page.failure instanceof RuntimeException) {
+                    throw (RuntimeException) page.failure;
+                }
+                if (page.failure instanceof Error) {
+                    throw (Error) page.failure;
+                }
+                throw new AmazonClientException(page.failure.getMessage(), page.failure);
+            }
+            if (page.last) {
+                pendingPartitions.remove(partition);
+            }
+            currentPage = page.summaries.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops the listing. Workers finish the page they are listing and then
+     * release their threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        unlistedPartitions.clear();
+        for (Partition<T> partition : pendingPartitions) {
+            partition.pages.clear();
+        }
+        pendingPartitions.clear();
+        listedPages.clear();
+    }
+
+    /**
+     * Lists the first page of the prefix with the delimiter to find the first
+     * partitions, and starts the workers listing them.
+     */
+    private void start() {
+        try {
+            Listing<T> listing = listFirstPage(prefix, delimiter);
+            while (!listing.truncated && listing.summaries.isEmpty()
+                    && listing.commonPrefixes.size() == 1) {
+                listing = listFirstPage(listing.commonPrefixes.get(0), delimiter);
+            }
+            addPartitions(listing);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lists the next page of the delimited listing if there is no partition
+     * left to return, or if the workers are out of partitions to list and
+     * few partitions are pending.
+     */
+    private void listAhead() {
+        try {
+            while (delimitedListing != null && pendingPartitions.isEmpty()) {
+                addPartitions(listNextPage(delimitedListing));
+            }
+            if (delimitedListing != null && unlistedPartitions.isEmpty()
+                    && pendingPartitions.size() < MAXIMUM_PENDING_PARTITIONS) {
+                addPartitions(listNextPage(delimitedListing));
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds the partitions found on a page of the delimited listing, and
+     * starts workers to list them.
+     */
+    private void addPartitions(Listing<T> listing) {
+        delimitedListing = listing.truncated ? listing : null;
+        if (keyOrder) {
+            // Both lists are in key order; the keys directly under the prefix
+            // sort between the common prefixes, and consecutive ones are
+            // returned together
+            Iterator<T> summaries = listing.summaries.iterator();
+            T summary = summaries.hasNext() ? summaries.next() : null;
+            for (String commonPrefix : listing.commonPrefixes) {
+                List<T> consecutiveSummaries = new ArrayList<T>();
+                while (summary != null && KEY_ORDER.compare(getKey(summary), commonPrefix) < 0) {
+                    consecutiveSummaries.add(summary);
+                    summary = summaries.hasNext() ? summaries.next() : null;
+                }
+                addListedPartition(consecutiveSummaries);
+                addPartition(commonPrefix);
+            }
+            List<T> consecutiveSummaries = new ArrayList<T>();
+            while (summary != null) {
+                consecutiveSummaries.add(summary);
+                summary = summaries.hasNext() ? summaries.next() : null;
+            }
+            addListedPartition(consecutiveSummaries);
+        } else {
+            addListedPartition(listing.summaries);
+            for (String commonPrefix : listing.commonPrefixes) {
+                addPartition(commonPrefix);
+            }
+        }
+        startWorkers();
+    }
+
+    private void addListedPartition(List<T> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        Partition<T> partition = new Partition<T>(null);
+        pendingPartitions.add(partition);
+        partition.pages.add(new Page<T>(summaries, true, null));
+        if (!keyOrder) {
+            listedPages.add(partition);
+        }
+    }
+
+    private void addPartition(String commonPrefix) {
+        Partition<T> partition = new Partition<T>(commonPrefix);
+        pendingPartitions.add(partition);
+        unlistedPartitions.add(partition);
+    }
+
+    /**
+     * Starts as many workers as there are partitions waiting for one, within
+     * the maximum number of workers.
+     */
+    private void startWorkers() {
+        for (int i = unlistedPartitions.size(); i > 0; i--) {
+            int workers = activeWorkers.get();
+            if (workers >= maxWorkers) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(workers, workers + 1)) {
+                try {
+                    executorService.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            listPartitions();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    activeWorkers.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of partitions to list concurrently.
+     */
+    private static int maxConcurrency(ExecutorService executorService) {
+        if (executorService instanceof ThreadPoolExecutor) {
+            return Math.max(1, ((ThreadPoolExecutor) executorService).getMaximumPoolSize());
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Lists whole partitions, in order, until none is left.
+     */
+    private void listPartitions() {
+        while (true) {
+            Partition<T> partition;
+            while (!closed && (partition = unlistedPartitions.poll()) != null) {
+                try {
+                    Listing<T> listing = listFirstPage(partition.prefix, null);
+                    while (putPage(partition, new Page<T>(listing.summaries, !listing.truncated, null))
+                            && listing.truncated) {
+                        listing = listNextPage(listing);
+                    }
+                } catch (Throwable t) {
+                    putPage(partition, new Page<T>(Collections.<T>emptyList(), true, t));
+                }
+            }
+            activeWorkers.decrementAndGet();
+            // A partition added since the last poll may have found every
+            // worker still counted as active
+            if (closed || unlistedPartitions.isEmpty()) {
+                return;
+            }
+            int workers = activeWorkers.get();
+            if (workers >= maxWorkers || !activeWorkers.compareAndSet(workers, workers + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for room in the pages of the partition, giving up if the listing
+     * is closed.
+     */
+    private boolean putPage(Partition<T> partition, Page<T> page) {
+        try {
+            while (!closed) {
+                if (partition.pages.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!keyOrder) {
+                        listedPages.add(partition);
+                    }
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static <E> E take(BlockingQueue<E> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmazonClientException("Interrupted while listing in parallel", e);
+        }
+    }
+
+    /**
+     * One page of a listing, as seen by this iterator.
+     */
+    static final class Listing<T> {
+        private final List<T> summaries;
+        private final List<String> commonPrefixes;
+        private final boolean truncated;
+        private final Object listing;
+
+        /**
+         * @param listing
+         *            The underlying listing, to list the next page from.
+         */
+        Listing(List<T> summaries, List<String> commonPrefixes,
+                boolean truncated, Object listing) {
+            this.summaries = summaries;
+            this.commonPrefixes = commonPrefixes;
+            this.truncated = truncated;
+            this.listing = listing;
+        }
+
+        /**
+         * Returns the underlying listing.
+         */
+        Object getListing() {
+            return listing;
+        }
+    }
+
+    /**
+     * The keys under a common prefix, or summaries already listed if the
+     * prefix is null.
+     */
+    private static final class Partition<T> {
+        private final String prefix;
+        private final BlockingQueue<Page<T>> pages =
+                new ArrayBlockingQueue<Page<T>>(PAGES_PER_PARTITION);
+
+        private Partition(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private static final class Page<T> {
+        private final List<T> summaries;
+        private final boolean last;
+        private final Throwable failure;
+
+        private Page(List<T> summaries, boolean last, Throwable failure) {
+            this.summaries = summaries;
+            this.last = last;
+            this.failure = failure;
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package com.amazonaws.services.s3.iterable;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
@@ -33,7 +34,8 @@ import com.amazonaws.services.s3.model.S3ObjectSummary;
  * <p>
  * The list of {@link S3ObjectSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
- * {@link S3Objects#withBatchSize(int)} method.
+ * {@link S3Objects#withBatchSize(int)} method. Large buckets can be listed in
+ * parallel with {@link S3Objects#withExecutorService(ExecutorService)}.
  */
 public class S3Objects implements Iterable<S3ObjectSummary> {
 
@@ -41,6 +43,9 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
     private String prefix = null;
     private String bucketName;
     private Integer batchSize = null;
+    private ExecutorService executorService = null;
+    private String partitionDelimiter = "/";
+    private boolean keyOrder = false;
 
     private S3Objects(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -91,6 +96,45 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return this;
     }
 
+    /**
+     * Lists the objects in parallel on the given executor, partitioned by the
+     * common prefixes under the prefix of this iterable. The iterator
+     * returned is then a {@link ParallelListingIterator}, which should be
+     * closed if it is not consumed entirely.
+     *
+     * @param executorService
+     *            The executor to list the partitions on; it is not shut down
+     *            by the listing.
+     */
+    public S3Objects withExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Sets the delimiter whose common prefixes partition a parallel listing;
+     * "/" by default.
+     *
+     * @param partitionDelimiter
+     *            The delimiter to partition the keys by.
+     */
+    public S3Objects withPartitionDelimiter(String partitionDelimiter) {
+        this.partitionDelimiter = partitionDelimiter;
+        return this;
+    }
+
+    /**
+     * Sets whether a parallel listing returns the objects in key order, as a
+     * serial listing does, rather than as soon as they are listed.
+     *
+     * @param keyOrder
+     *            Whether to return the objects in key order.
+     */
+    public S3Objects withKeyOrder(boolean keyOrder) {
+        this.keyOrder = keyOrder;
+        return this;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
@@ -107,6 +151,18 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
         return s3;
     }
 
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public String getPartitionDelimiter() {
+        return partitionDelimiter;
+    }
+
+    public boolean isKeyOrder() {
+        return keyOrder;
+    }
+
     private class S3ObjectIterator implements Iterator<S3ObjectSummary> {
 
         private ObjectListing currentListing = null;
@@ -149,8 +205,43 @@ public class S3Objects implements Iterable<S3ObjectSummary> {
 
     }
 
+    private class ParallelS3ObjectIterator extends ParallelListingIterator<S3ObjectSummary> {
+
+        private ParallelS3ObjectIterator() {
+            super(getPrefix(), getPartitionDelimiter(), getExecutorService(), isKeyOrder());
+        }
+
+        @Override
+        Listing<S3ObjectSummary> listFirstPage(String prefix, String delimiter) {
+            ListObjectsRequest req = new ListObjectsRequest();
+            req.setBucketName(getBucketName());
+            req.setPrefix(prefix);
+            req.setDelimiter(delimiter);
+            req.setMaxKeys(getBatchSize());
+            return toListing(getS3().listObjects(req));
+        }
+
+        @Override
+        Listing<S3ObjectSummary> listNextPage(Listing<S3ObjectSummary> previous) {
+            return toListing(getS3().listNextBatchOfObjects((ObjectListing) previous.getListing()));
+        }
+
+        @Override
+        String getKey(S3ObjectSummary summary) {
+            return summary.getKey();
+        }
+
+        private Listing<S3ObjectSummary> toListing(ObjectListing listing) {
+            return new Listing<S3ObjectSummary>(listing.getObjectSummaries(),
+                    listing.getCommonPrefixes(), listing.isTruncated(), listing);
+        }
+    }
+
     @Override
     public Iterator<S3ObjectSummary> iterator() {
+        if (getExecutorService() != null) {
+            return new ParallelS3ObjectIterator();
+        }
         return new S3ObjectIterator();
     }
 
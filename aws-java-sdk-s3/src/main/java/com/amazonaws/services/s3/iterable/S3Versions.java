@@ -15,6 +15,7 @@
 package com.amazonaws.services.s3.iterable;
 
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.ListVersionsRequest;
@@ -33,7 +34,8 @@ import com.amazonaws.services.s3.model.VersionListing;
  * <p>
  * The list of {@link S3VersionSummary}s will be fetched lazily, a page at a
  * time, as they are needed. The size of the page can be controlled with the
- * {@link S3Versions#withBatchSize(int)} method.
+ * {@link S3Versions#withBatchSize(int)} method. Large buckets can be listed in
+ * parallel with {@link S3Versions#withExecutorService(ExecutorService)}.
  */
 public class S3Versions implements Iterable<S3VersionSummary> {
 
@@ -42,6 +44,9 @@ public class S3Versions implements Iterable<S3VersionSummary> {
     private String prefix;
     private String key;
     private Integer batchSize;
+    private ExecutorService executorService;
+    private String partitionDelimiter = "/";
+    private boolean keyOrder;
 
     private S3Versions(AmazonS3 s3, String bucketName) {
         this.s3 = s3;
@@ -111,6 +116,47 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return this;
     }
 
+    /**
+     * Lists the versions in parallel on the given executor, partitioned by the
+     * common prefixes under the prefix of this iterable. The iterator
+     * returned is then a {@link ParallelListingIterator}, which should be
+     * closed if it is not consumed entirely. The versions of a single key,
+     * from {@link #forKey(AmazonS3, String, String)}, are always listed
+     * serially.
+     *
+     * @param executorService
+     *            The executor to list the partitions on; it is not shut down
+     *            by the listing.
+     */
+    public S3Versions withExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Sets the delimiter whose common prefixes partition a parallel listing;
+     * "/" by default.
+     *
+     * @param partitionDelimiter
+     *            The delimiter to partition the keys by.
+     */
+    public S3Versions withPartitionDelimiter(String partitionDelimiter) {
+        this.partitionDelimiter = partitionDelimiter;
+        return this;
+    }
+
+    /**
+     * Sets whether a parallel listing returns the versions in key order, as a
+     * serial listing does, rather than as soon as they are listed.
+     *
+     * @param keyOrder
+     *            Whether to return the versions in key order.
+     */
+    public S3Versions withKeyOrder(boolean keyOrder) {
+        this.keyOrder = keyOrder;
+        return this;
+    }
+
     public Integer getBatchSize() {
         return batchSize;
     }
@@ -131,6 +177,18 @@ public class S3Versions implements Iterable<S3VersionSummary> {
         return bucketName;
     }
 
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    public String getPartitionDelimiter() {
+        return partitionDelimiter;
+    }
+
+    public boolean isKeyOrder() {
+        return keyOrder;
+    }
+
     private class VersionIterator implements Iterator<S3VersionSummary> {
 
         private VersionListing currentListing = null;
@@ -197,8 +255,43 @@ public class S3Versions implements Iterable<S3VersionSummary> {
 
     }
 
+    private class ParallelVersionIterator extends ParallelListingIterator<S3VersionSummary> {
+
+        private ParallelVersionIterator() {
+            super(getPrefix(), getPartitionDelimiter(), getExecutorService(), isKeyOrder());
+        }
+
+        @Override
+        Listing<S3VersionSummary> listFirstPage(String prefix, String delimiter) {
+            ListVersionsRequest req = new ListVersionsRequest();
+            req.setBucketName(getBucketName());
+            req.setPrefix(prefix);
+            req.setDelimiter(delimiter);
+            req.setMaxResults(getBatchSize());
+            return toListing(getS3().listVersions(req));
+        }
+
+        @Override
+        Listing<S3VersionSummary> listNextPage(Listing<S3VersionSummary> previous) {
+            return toListing(getS3().listNextBatchOfVersions((VersionListing) previous.getListing()));
+        }
+
+        @Override
+        String getKey(S3VersionSummary summary) {
+            return summary.getKey();
+        }
+
+        private Listing<S3VersionSummary> toListing(VersionListing listing) {
+            return new Listing<S3VersionSummary>(listing.getVersionSummaries(),
+                    listing.getCommonPrefixes(), listing.isTruncated(), listing);
+        }
+    }
+
     @Override
     public Iterator<S3VersionSummary> iterator() {
+        if (getExecutorService() != null && getKey() == null) {
+            return new ParallelVersionIterator();
+        }
         return new VersionIterator();
     }
 
@@ -28,6 +28,17 @@ import com.amazonaws.services.s3.internal.crypto.CryptoRuntime;
  * used during encryption and decryption.
  */
 public class CryptoConfiguration implements Cloneable,Serializable {
+    /**
+     * The default size in bytes of the chunks of data processed at a time by
+     * the cipher when encrypting or decrypting the content of an object.
+     */
+    public static final int DEFAULT_CIPHER_BUFFER_SIZE = 1024 * 16;
+    /**
+     * The chunks of data processed by the cipher must be a multiple of this
+     * number of bytes.
+     */
+    private static final int CIPHER_BUFFER_SIZE_UNIT = 512;
+
     private CryptoMode cryptoMode;
     private CryptoStorageMode storageMode;
     private Provider cryptoProvider;
@@ -44,6 +55,16 @@ public class CryptoConfiguration implements Cloneable,Serializable {
      * null if no explicit KMS region is specified.
      */
     private Regions kmsRegion;
+    /**
+     * The limits on the reuse of the data keys generated by KMS; or null if
+     * a new data key is generated for every object, which is the default.
+     */
+    private KMSDataKeyCachePolicy kmsDataKeyCachePolicy;
+    /**
+     * The size in bytes of the chunks of data processed at a time by the
+     * cipher.
+     */
+    private int cipherBufferSize = DEFAULT_CIPHER_BUFFER_SIZE;
 
     /**
      * Creates a new CryptoConfiguration object with default storage mode and
@@ -284,6 +305,20 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         @Override public CryptoConfiguration withKmsRegion(Regions kmsRegion) {
             throw new UnsupportedOperationException();
         }
+        @Override public void setKmsDataKeyCachePolicy(
+                KMSDataKeyCachePolicy kmsDataKeyCachePolicy) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public CryptoConfiguration withKmsDataKeyCachePolicy(
+                KMSDataKeyCachePolicy kmsDataKeyCachePolicy) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public void setCipherBufferSize(int cipherBufferSize) {
+            throw new UnsupportedOperationException();
+        }
+        @Override public CryptoConfiguration withCipherBufferSize(int cipherBufferSize) {
+            throw new UnsupportedOperationException();
+        }
     }
 
     /**
@@ -306,6 +341,8 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         that.cryptoProvider = this.cryptoProvider;
         that.ignoreMissingInstructionFile = this.ignoreMissingInstructionFile;
         that.kmsRegion = this.kmsRegion;
+        that.kmsDataKeyCachePolicy = this.kmsDataKeyCachePolicy;
+        that.cipherBufferSize = this.cipherBufferSize;
         return that;
     }
 
@@ -343,4 +380,74 @@ public class CryptoConfiguration implements Cloneable,Serializable {
         this.kmsRegion = kmsRegion;
         return this;
     }
+
+    /**
+     * Returns the limits on the reuse of the data keys generated by KMS; or
+     * null if a new data key is generated for every object.
+     */
+    public KMSDataKeyCachePolicy getKmsDataKeyCachePolicy() {
+        return kmsDataKeyCachePolicy;
+    }
+
+    /**
+     * Sets the limits on the reuse of the data keys generated by KMS, to
+     * encrypt several objects under the same data key and to cache the data
+     * keys decrypted by KMS; or null to generate a new data key for every
+     * object, which is the default. This parameter is ignored unless the
+     * encryption materials are KMS-enabled.
+     */
+    public void setKmsDataKeyCachePolicy(KMSDataKeyCachePolicy kmsDataKeyCachePolicy) {
+        this.kmsDataKeyCachePolicy = kmsDataKeyCachePolicy;
+    }
+
+    /**
+     * Fluent API for setting the limits on the reuse of the data keys
+     * generated by KMS; or null to generate a new data key for every object.
+     */
+    public CryptoConfiguration withKmsDataKeyCachePolicy(
+            KMSDataKeyCachePolicy kmsDataKeyCachePolicy) {
+        this.kmsDataKeyCachePolicy = kmsDataKeyCachePolicy;
+        return this;
+    }
+
+    /**
+     * Returns the size in bytes of the chunks of data read and processed at a
+     * time by the cipher when encrypting or decrypting the content of an
+     * object. Defaults to {@link #DEFAULT_CIPHER_BUFFER_SIZE}.
+     */
+    public int getCipherBufferSize() {
+        return cipherBufferSize;
+    }
+
+    /**
+     * Sets the size in bytes of the chunks of data read and processed at a
+     * time by the cipher when encrypting or decrypting the content of an
+     * object. Larger chunks mean fewer calls to the cipher, at the cost of
+     * two buffers of about this size for each object being transferred.
+     *
+     * @param cipherBufferSize
+     *            a positive multiple of 512
+     * @throws IllegalArgumentException
+     *             if the size is not a positive multiple of 512
+     */
+    public void setCipherBufferSize(int cipherBufferSize) {
+        if (cipherBufferSize <= 0
+                || cipherBufferSize % CIPHER_BUFFER_SIZE_UNIT != 0) {
+            throw new IllegalArgumentException("cipherBufferSize ("
+                    + cipherBufferSize + ") must be a positive multiple of "
+                    + CIPHER_BUFFER_SIZE_UNIT);
+        }
+        this.cipherBufferSize = cipherBufferSize;
+    }
+
+    /**
+     * Fluent API for setting the size in bytes of the chunks of data read and
+     * processed at a time by the cipher.
+     *
+     * @see #setCipherBufferSize(int)
+     */
+    public CryptoConfiguration withCipherBufferSize(int cipherBufferSize) {
+        setCipherBufferSize(cipherBufferSize);
+        return this;
+    }
 }
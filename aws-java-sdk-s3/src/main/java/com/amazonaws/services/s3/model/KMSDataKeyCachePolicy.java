@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.model;
+
+import java.io.Serializable;
+
+/**
+ * Limits on the reuse of the data keys generated by KMS, when the Amazon S3
+ * Encryption Client is configured to cache them with
+ * {@link CryptoConfiguration#setKmsDataKeyCachePolicy(KMSDataKeyCachePolicy)}.
+ * <p>
+ * A cached data key encrypts the content of several objects, saving a call to
+ * KMS for each of them; a new data key is generated as soon as the cached one
+ * reaches any of the limits. Data keys decrypted from KMS are also cached, for
+ * no longer than the maximum age, so that reading several objects encrypted
+ * under the same data key calls KMS only once.
+ * <p>
+ * Caching data keys trades the isolation of each object under its own key for
+ * fewer KMS calls; the limits bound how much content a single data key may
+ * protect and for how long its plaintext is held in memory.
+ */
+public final class KMSDataKeyCachePolicy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxAgeMillis;
+    private final long maxBytes;
+    private final long maxObjects;
+
+    /**
+     * @param maxAgeMillis
+     *            the maximum time in milliseconds a data key is cached after
+     *            it was generated or decrypted; must be positive
+     * @param maxBytes
+     *            the maximum number of plaintext bytes encrypted under a
+     *            cached data key; must be positive. Content of unknown length
+     *            is encrypted under a data key that is not reused afterwards,
+     *            unless this is {@link Long#MAX_VALUE}.
+     * @param maxObjects
+     *            the maximum number of objects encrypted under a cached data
+     *            key; must be positive
+     */
+    public KMSDataKeyCachePolicy(long maxAgeMillis, long maxBytes, long maxObjects) {
+        if (maxAgeMillis <= 0 || maxBytes <= 0 || maxObjects <= 0) {
+            throw new IllegalArgumentException(
+                    "The limits of the data key cache must be positive");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxBytes = maxBytes;
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds a data key is cached.
+     */
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * Returns the maximum number of plaintext bytes encrypted under a cached
+     * data key.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the maximum number of objects encrypted under a cached data key.
+     */
+    public long getMaxObjects() {
+        return maxObjects;
+    }
+
+    @Override
+    public String toString() {
+        return "KMSDataKeyCachePolicy [maxAgeMillis=" + maxAgeMillis
+                + ", maxBytes=" + maxBytes + ", maxObjects=" + maxObjects + "]";
+    }
+}
@@ -73,6 +73,14 @@ public class UploadObjectRequest extends AbstractPutObjectRequest implements
      */
     private long diskLimit = Long.MAX_VALUE;
 
+    /**
+     * Limitation (in bytes) on the memory used to hold the ciphertext parts
+     * for this request, or zero to stage them in temporary files instead. If
+     * positive, must be at least twice the amount of the specified
+     * {@link #partSize}. The default is zero.
+     */
+    private long memoryLimit;
+
     public UploadObjectRequest(String bucketName, String key, File file) {
         super(bucketName, key, file);
     }
@@ -127,6 +135,32 @@ public class UploadObjectRequest extends AbstractPutObjectRequest implements
         return this;
     }
 
+    /**
+     * Returns the maximum size (in bytes) of memory used to hold the
+     * ciphertext parts of this request; or zero if the parts are staged in
+     * temporary files.
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Configures the maximum memory (in bytes) used to hold the ciphertext
+     * parts of this request, to encrypt and upload the parts from reusable
+     * direct buffers instead of temporary files; or zero to use temporary
+     * files, which is the default. The maximum memory must be at least twice
+     * the size of {@link #partSize}, which must then be less than 2 GB.
+     * <p>
+     * The encryption of a part then overlaps with the upload of the previous
+     * ones, and blocks while all the buffers are waiting to be uploaded.
+     *
+     * @return this object for method chaining purposes
+     */
+    public UploadObjectRequest withMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        return this;
+    }
+
     /**
      * Returns a custom executor service for concurrent uploads; or null there
      * is no customization.
@@ -252,6 +286,7 @@ public class UploadObjectRequest extends AbstractPutObjectRequest implements
                     ? null
                     : new HashMap<String, String>(materialsDescription))
                 .withDiskLimit(getDiskLimit())
+                .withMemoryLimit(getMemoryLimit())
                 .withExecutorService(getExecutorService())
                 .withMultiFileOutputStream(getMultiFileOutputStream())
                 .withPartSize(getPartSize())
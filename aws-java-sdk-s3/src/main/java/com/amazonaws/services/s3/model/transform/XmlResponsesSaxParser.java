@@ -17,10 +17,7 @@
  */
 package com.amazonaws.services.s3.model.transform;
 
-import static com.amazonaws.util.StringUtils.UTF8;
-
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -42,6 +39,7 @@ import org.xml.sax.helpers.DefaultHandler;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.internal.CarriageReturnEscapingInputStream;
 import com.amazonaws.services.s3.internal.Constants;
 import com.amazonaws.services.s3.internal.DeleteObjectsResponse;
 import com.amazonaws.services.s3.internal.ObjectExpirationResult;
@@ -100,7 +98,14 @@ import com.amazonaws.util.SdkHttpUtils;
 public class XmlResponsesSaxParser {
     private static final Log log = LogFactory.getLog(XmlResponsesSaxParser.class);
 
-    private XMLReader xr = null;
+    /**
+     * SAX readers are expensive to create but not thread safe, so each thread
+     * keeps one for all the responses it parses.
+     */
+    private static final ThreadLocal<XMLReader> XML_READER = new ThreadLocal<XMLReader>();
+
+    /** Replaces the handlers of a reader after parsing, so they can be collected. */
+    private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
 
     private boolean sanitizeXmlDocument = true;
 
@@ -111,11 +116,23 @@ public class XmlResponsesSaxParser {
      */
     public XmlResponsesSaxParser() throws AmazonClientException {
         // Ensure we can load the XML Reader.
-        try {
-            xr = XMLReaderFactory.createXMLReader();
-        } catch (SAXException e) {
-            throw new AmazonClientException("Couldn't initialize a SAX driver to create an XMLReader", e);
+        getXmlReader();
+    }
+
+    /**
+     * Returns the SAX reader of the current thread, creating it if needed.
+     */
+    private static XMLReader getXmlReader() throws AmazonClientException {
+        XMLReader xr = XML_READER.get();
+        if (xr == null) {
+            try {
+                xr = XMLReaderFactory.createXMLReader();
+            } catch (SAXException e) {
+                throw new AmazonClientException("Couldn't initialize a SAX driver to create an XMLReader", e);
+            }
+            XML_READER.set(xr);
         }
+        return xr;
     }
 
     /**
@@ -133,6 +150,7 @@ public class XmlResponsesSaxParser {
      */
     protected void parseXmlInputStream(DefaultHandler handler, InputStream inputStream)
             throws IOException {
+        XMLReader xr = null;
         try {
 
             if (log.isDebugEnabled()) {
@@ -141,6 +159,7 @@ public class XmlResponsesSaxParser {
 
             BufferedReader breader = new BufferedReader(new InputStreamReader(inputStream,
                 Constants.DEFAULT_ENCODING));
+            xr = getXmlReader();
             xr.setContentHandler(handler);
             xr.setErrorHandler(handler);
             xr.parse(new InputSource(breader));
@@ -158,9 +177,20 @@ public class XmlResponsesSaxParser {
             }
             throw new AmazonClientException("Failed to parse XML document with handler "
                 + handler.getClass(), t);
+        } finally {
+            if (xr != null) {
+                xr.setContentHandler(NO_OP_HANDLER);
+                xr.setErrorHandler(NO_OP_HANDLER);
+            }
         }
     }
 
+    /**
+     * Wraps the given input stream so that any carriage return (\r)
+     * characters are replaced with explicit XML character entities as the
+     * document is parsed, to prevent the SAX parser from misinterpreting 0x0D
+     * characters as 0x0A and being unable to parse the XML.
+     */
     protected InputStream sanitizeXmlDocument(DefaultHandler handler, InputStream inputStream)
             throws IOException {
 
@@ -171,53 +201,7 @@ public class XmlResponsesSaxParser {
             if (log.isDebugEnabled()) {
                 log.debug("Sanitizing XML document destined for handler " + handler.getClass());
             }
-
-            InputStream sanitizedInputStream = null;
-
-            try {
-
-                /*
-                 * Read object listing XML document from input stream provided into a
-                 * string buffer, so we can replace troublesome characters before
-                 * sending the document to the XML parser.
-                 */
-                StringBuilder listingDocBuffer = new StringBuilder();
-                BufferedReader br = new BufferedReader(
-                    new InputStreamReader(inputStream, Constants.DEFAULT_ENCODING));
-
-                char[] buf = new char[8192];
-                int read = -1;
-                while ((read = br.read(buf)) != -1) {
-                    listingDocBuffer.append(buf, 0, read);
-                }
-                br.close();
-
-                /*
-                 * Replace any carriage return (\r) characters with explicit XML
-                 * character entities, to prevent the SAX parser from
-                 * misinterpreting 0x0D characters as 0x0A and being unable to
-                 * parse the XML.
-                 */
-                String listingDoc = listingDocBuffer.toString().replaceAll("\r", "&#013;");
-
-                sanitizedInputStream = new ByteArrayInputStream(
-                    listingDoc.getBytes(UTF8));
-
-            } catch (IOException e) {
-                throw e;
-
-            } catch (Throwable t) {
-                try {
-                    inputStream.close();
-                } catch (IOException e) {
-                    if (log.isErrorEnabled()) {
-                        log.error("Unable to close response InputStream after failure sanitizing XML document", e);
-                    }
-                }
-                throw new AmazonClientException("Failed to sanitize XML document destined for handler "
-                    + handler.getClass(), t);
-            }
-            return sanitizedInputStream;
+            return new CarriageReturnEscapingInputStream(inputStream);
         }
     }
 
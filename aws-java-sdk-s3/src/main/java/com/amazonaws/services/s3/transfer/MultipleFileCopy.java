@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import java.util.Collection;
+
+/**
+ * Multiple object copy of an entire virtual directory.
+ */
+public interface MultipleFileCopy extends Transfer {
+
+    /**
+     * Returns the key prefix of the virtual directory being copied.
+     */
+    public String getSourceKeyPrefix();
+
+    /**
+     * Returns the name of the bucket from which objects are copied.
+     */
+    public String getSourceBucketName();
+
+    /**
+     * Returns the key prefix of the virtual directory to which objects are
+     * copied.
+     */
+    public String getDestinationKeyPrefix();
+
+    /**
+     * Returns the name of the bucket to which objects are copied.
+     */
+    public String getDestinationBucketName();
+
+    /**
+     * Returns a collection of sub transfers associated with the multiple
+     * object copy.
+     */
+    public Collection<? extends Copy> getSubTransfers();
+}
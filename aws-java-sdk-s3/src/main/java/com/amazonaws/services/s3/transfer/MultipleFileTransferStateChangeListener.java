@@ -24,6 +24,11 @@ import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
 final class MultipleFileTransferStateChangeListener implements TransferStateChangeListener {
     private final CountDownLatch latch;
     private final MultipleFileTransfer<?> multipleFileTransfer;
+    /**
+     * Whether all the transfers have been added to the list; only used when
+     * there is no latch.
+     */
+    private volatile boolean allQueued;
 
     public MultipleFileTransferStateChangeListener(CountDownLatch latch,
             MultipleFileTransfer<?> multipleFileTransfer) {
@@ -31,15 +36,40 @@ final class MultipleFileTransferStateChangeListener implements TransferStateChan
         this.multipleFileTransfer = multipleFileTransfer;
     }
 
+    /**
+     * Creates a listener that lets individual transfers proceed while
+     * transfers are still being added to the list, which must be followed by
+     * a call to {@link #allTransfersQueued()} once they have all been added.
+     */
+    public MultipleFileTransferStateChangeListener(
+            MultipleFileTransfer<?> multipleFileTransfer) {
+        this(null, multipleFileTransfer);
+    }
+
+    /**
+     * Notifies this listener that all the transfers have been added to the
+     * list, marking the multiple file transfer as done if they are all done
+     * already.
+     */
+    void allTransfersQueued() {
+        allQueued = true;
+        synchronized (multipleFileTransfer) {
+            if ( !multipleFileTransfer.isDone() && multipleFileTransfer.getMonitor().isDone() )
+                multipleFileTransfer.collateFinalState();
+        }
+    }
+
     @Override
     public void transferStateChanged(Transfer upload, TransferState state) {
         // There's a race here: we can't start monitoring the state of
         // individual transfers until we have added all the transfers to the
         // list, or we may incorrectly report completion.
-        try {
-            latch.await();
-        } catch ( InterruptedException e ) {
-            throw new AmazonClientException("Couldn't wait for all downloads to be queued");
+        if ( latch != null ) {
+            try {
+                latch.await();
+            } catch ( InterruptedException e ) {
+                throw new AmazonClientException("Couldn't wait for all downloads to be queued");
+            }
         }
 
         synchronized (multipleFileTransfer) {
@@ -53,7 +83,7 @@ final class MultipleFileTransferStateChangeListener implements TransferStateChan
              */
             if ( state == TransferState.InProgress ) {
                 multipleFileTransfer.setState(state);
-            } else if ( multipleFileTransfer.getMonitor().isDone() ) {
+            } else if ( (latch != null || allQueued) && multipleFileTransfer.getMonitor().isDone() ) {
                 multipleFileTransfer.collateFinalState();
             } else {
                 multipleFileTransfer.setState(TransferState.InProgress);
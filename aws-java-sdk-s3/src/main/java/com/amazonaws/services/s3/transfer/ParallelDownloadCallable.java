@@ -0,0 +1,353 @@
+/*
+ * Copyright 2016 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer;
+
+import static com.amazonaws.util.IOUtils.closeQuietly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.net.ssl.SSLProtocolException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.internal.FileLocks;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.amazonaws.services.s3.transfer.Transfer.TransferState;
+import com.amazonaws.services.s3.transfer.exception.FileLockException;
+import com.amazonaws.services.s3.transfer.internal.AbstractTransfer;
+import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
+import com.amazonaws.services.s3.transfer.internal.DownloadMonitor;
+
+/**
+ * Downloads an object as concurrent byte-range GET requests, writing each
+ * range directly into its offset of a preallocated destination file.
+ * <p>
+ * The byte ranges are handed out from a shared queue. This callable works on
+ * the queue itself in addition to the helpers it submits to the thread pool,
+ * so the download always makes progress even when every thread of the pool is
+ * busy with other transfers.
+ */
+final class ParallelDownloadCallable implements Callable<File> {
+    private static final Log log = LogFactory.getLog(ParallelDownloadCallable.class);
+
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    private final AmazonS3 s3;
+    private final ExecutorService threadPool;
+    private final CountDownLatch latch;
+    private final GetObjectRequest req;
+    private final DownloadImpl download;
+    private final File dstfile;
+    private final long contentLength;
+    private final long partSize;
+    private final String eTag;
+    private final boolean resumeExistingDownload;
+
+    /** Indexes of the byte ranges not yet claimed by any worker. */
+    private final Queue<Integer> pendingParts = new ConcurrentLinkedQueue<Integer>();
+    private final List<Future<?>> helpers = new ArrayList<Future<?>>();
+
+    /** The first failure of any byte range; stops the remaining ranges. */
+    private volatile Throwable failure;
+
+    /** True if a ranged GET didn't meet the constraints of the request. */
+    private volatile boolean constraintsNotMet;
+
+    /** True once any byte range of the object is in the file. */
+    private volatile boolean rangeWritten;
+
+    ParallelDownloadCallable(AmazonS3 s3, ExecutorService threadPool,
+            CountDownLatch latch, GetObjectRequest req, DownloadImpl download,
+            File dstfile, long contentLength, long partSize, String eTag,
+            boolean resumeExistingDownload)
+    {
+        if (s3 == null || threadPool == null || latch == null || req == null
+                || dstfile == null || download == null || partSize <= 0)
+            throw new IllegalArgumentException();
+        this.s3 = s3;
+        this.threadPool = threadPool;
+        this.latch = latch;
+        this.req = req;
+        this.download = download;
+        this.dstfile = dstfile;
+        this.contentLength = contentLength;
+        this.partSize = partSize;
+        this.eTag = eTag;
+        this.resumeExistingDownload = resumeExistingDownload;
+    }
+
+    /**
+     * This method must return a non-null object, or else the existing
+     * implementation in {@link AbstractTransfer#waitForCompletion()}
+     * would block forever.
+     *
+     * @return the downloaded file
+     */
+    @Override
+    public File call() throws Exception {
+        try {
+            latch.await();
+            download.setState(TransferState.InProgress);
+            downloadInParallel();
+
+            if (failure != null) {
+                throw failure;
+            }
+            if (constraintsNotMet) {
+                if (!resumeExistingDownload) {
+                    // Never leave a preallocated file of missing or mixed data
+                    deleteDestinationFile();
+                }
+                if (rangeWritten) {
+                    throw new AmazonClientException(eTag == null
+                            ? "The object " + req.getKey() + " no longer met the constraints of the request"
+                                    + " after part of it was downloaded to " + dstfile
+                            : "The object " + req.getKey() + " no longer matched ETag " + eTag
+                                    + " after part of it was downloaded to " + dstfile);
+                }
+                // As with a single GET, nothing was downloaded
+                download.setState(TransferState.Canceled);
+                download.setMonitor(new DownloadMonitor(download, null));
+            } else {
+                download.setState(TransferState.Completed);
+            }
+            return dstfile;
+        } catch (Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+            cancelHelpers();
+            // Downloads aren't allowed to move from canceled to failed
+            if (download.getState() != TransferState.Canceled) {
+                download.setState(TransferState.Failed);
+            }
+            if (t instanceof Exception)
+                throw (Exception) t;
+            else
+                throw (Error) t;
+        }
+    }
+
+    private void downloadInParallel() throws IOException, InterruptedException {
+        createParentDirectory();
+        if (!FileLocks.lock(dstfile)) {
+            throw new FileLockException("Fail to lock " + dstfile
+                    + " for parallel ranged download");
+        }
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(dstfile, "rw");
+            if (!resumeExistingDownload || raf.length() != contentLength) {
+                raf.setLength(contentLength);
+            }
+            final FileChannel channel = raf.getChannel();
+
+            long numParts = (contentLength + partSize - 1) / partSize;
+            for (int part = 0; part < numParts; part++) {
+                if (!download.isPartCompleted(part)) {
+                    pendingParts.add(part);
+                } else {
+                    rangeWritten = true;
+                }
+            }
+            final CountDownLatch partsDone = new CountDownLatch(pendingParts.size());
+            int numHelpers = Math.min(pendingParts.size(), maxConcurrency()) - 1;
+            for (int i = 0; i < numHelpers; i++) {
+                helpers.add(threadPool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        downloadPendingParts(channel, partsDone);
+                    }
+                }));
+            }
+            downloadPendingParts(channel, partsDone);
+            partsDone.await();
+        } finally {
+            closeQuietly(raf, log);
+            FileLocks.unlock(dstfile);
+        }
+    }
+
+    private void deleteDestinationFile() {
+        if (dstfile.exists() && !dstfile.delete()) {
+            log.warn("Unable to delete the partially downloaded file " + dstfile);
+        }
+    }
+
+    private void createParentDirectory() {
+        File parentDirectory = dstfile.getParentFile();
+        if (parentDirectory != null && !parentDirectory.exists()) {
+            if (!(parentDirectory.mkdirs())) {
+                throw new AmazonClientException(
+                        "Unable to create directory in the path"
+                                + parentDirectory.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum number of byte ranges to fetch concurrently.
+     */
+    private int maxConcurrency() {
+        if (threadPool instanceof ThreadPoolExecutor) {
+            return Math.max(1, ((ThreadPoolExecutor) threadPool).getMaximumPoolSize());
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Claims and downloads byte ranges until none are left. Once any range
+     * fails the remaining ones are only drained from the queue.
+     */
+    private void downloadPendingParts(FileChannel channel, CountDownLatch partsDone) {
+        Integer part;
+        while ((part = pendingParts.poll()) != null) {
+            try {
+                if (failure == null && !constraintsNotMet) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new AmazonClientException("Download of " + dstfile
+                                + " was interrupted");
+                    }
+                    if (retryableDownloadPart(channel, part)) {
+                        rangeWritten = true;
+                        download.markPartCompleted(part);
+                    }
+                }
+            } catch (Throwable t) {
+                if (failure == null) {
+                    failure = t;
+                }
+            } finally {
+                partsDone.countDown();
+            }
+        }
+    }
+
+    /**
+     * Downloads one byte range, retrying once on a failure to write it to
+     * disk.
+     *
+     * @return true if the range was written to the file; false if the object
+     *         didn't meet the constraints of the request
+     */
+    private boolean retryableDownloadPart(FileChannel channel, int part) {
+        final long startingByte = part * partSize;
+        final long lastByte = Math.min(startingByte + partSize, contentLength) - 1;
+        boolean hasRetried = false;
+        for (;;) {
+            S3Object s3Object = s3.getObject(newPartRequest(startingByte, lastByte));
+            if (s3Object == null) {
+                constraintsNotMet = true;
+                return false;
+            }
+            download.setS3Object(s3Object);
+            if (!download.addInFlightPart(s3Object)) {
+                s3Object.getObjectContent().abort();
+                throw new AmazonClientException("Download of " + dstfile
+                        + " was canceled");
+            }
+            try {
+                writeToChannel(s3Object, channel, startingByte, lastByte);
+                return true;
+            } catch (AmazonClientException ace) {
+                // Same policy as DownloadCallable: socket failures (e.g. when
+                // the user aborts the download) are not retried
+                if (!ace.isRetryable() || hasRetried
+                        || ace.getCause() instanceof SocketException
+                        || ace.getCause() instanceof SSLProtocolException) {
+                    throw ace;
+                }
+                log.info("Retry the download of range "
+                        + Arrays.toString(new long[] { startingByte, lastByte })
+                        + " of object " + s3Object.getKey() + " (bucket "
+                        + s3Object.getBucketName() + ")", ace);
+                hasRetried = true;
+            } finally {
+                download.removeInFlightPart(s3Object);
+                closeQuietly(s3Object.getObjectContent(), log);
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the original request limited to the given byte range.
+     * Unless the caller specified its own ETag constraints, the range is only
+     * returned if the object still has the ETag observed when the download
+     * was started, so ranges of different versions of the object are never
+     * mixed in the file.
+     */
+    private GetObjectRequest newPartRequest(long startingByte, long lastByte) {
+        GetObjectRequest partRequest = (GetObjectRequest) req.clone();
+        partRequest.setRange(startingByte, lastByte);
+        List<String> matchingETags = partRequest.getMatchingETagConstraints();
+        if (eTag != null && (matchingETags == null || matchingETags.isEmpty())) {
+            List<String> eTags = new ArrayList<String>(1);
+            eTags.add(eTag);
+            partRequest.setMatchingETagConstraints(eTags);
+        }
+        return partRequest;
+    }
+
+    private void writeToChannel(S3Object s3Object, FileChannel channel,
+            long startingByte, long lastByte) {
+        S3ObjectInputStream in = s3Object.getObjectContent();
+        long position = startingByte;
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) > -1) {
+                ByteBuffer bb = ByteBuffer.wrap(buffer, 0, bytesRead);
+                while (bb.hasRemaining()) {
+                    position += channel.write(bb, position);
+                }
+            }
+        } catch (IOException e) {
+            in.abort();
+            throw new AmazonClientException(
+                    "Unable to store object contents to disk: " + e.getMessage(), e);
+        }
+        if (position != lastByte + 1) {
+            throw new AmazonClientException("Unable to store object contents to disk: "
+                    + "expected range " + Arrays.toString(new long[] { startingByte, lastByte })
+                    + " but the response ended at byte " + position);
+        }
+    }
+
+    private void cancelHelpers() {
+        for (Future<?> helper : helpers) {
+            helper.cancel(true);
+        }
+    }
+}
@@ -15,20 +15,27 @@
 package com.amazonaws.services.s3.transfer;
 
 import static com.amazonaws.services.s3.internal.ServiceUtils.APPEND_MODE;
+import static com.amazonaws.services.s3.internal.ServiceUtils.KEY_ORDER;
 import static com.amazonaws.services.s3.internal.ServiceUtils.OVERWRITE_MODE;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -42,14 +49,17 @@ import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.event.CoalescingProgressListener;
 import com.amazonaws.event.ProgressListener;
 import com.amazonaws.event.ProgressListenerChain;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Client;
+import com.amazonaws.services.s3.AmazonS3Encryption;
 import com.amazonaws.services.s3.internal.FileLocks;
 import com.amazonaws.services.s3.internal.Mimetypes;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListMultipartUploadsRequest;
@@ -67,11 +77,13 @@ import com.amazonaws.services.s3.transfer.internal.CopyImpl;
 import com.amazonaws.services.s3.transfer.internal.CopyMonitor;
 import com.amazonaws.services.s3.transfer.internal.DownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.DownloadMonitor;
+import com.amazonaws.services.s3.transfer.internal.MultipleFileCopyImpl;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileDownloadImpl;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileTransferMonitor;
 import com.amazonaws.services.s3.transfer.internal.MultipleFileUploadImpl;
 import com.amazonaws.services.s3.transfer.internal.S3ProgressListener;
 import com.amazonaws.services.s3.transfer.internal.S3ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.internal.SyncManifest;
 import com.amazonaws.services.s3.transfer.internal.TransferManagerUtils;
 import com.amazonaws.services.s3.transfer.internal.TransferProgressUpdatingListener;
 import com.amazonaws.services.s3.transfer.internal.TransferStateChangeListener;
@@ -153,6 +165,9 @@ public class TransferManager {
 
     private final boolean shutDownThreadPools;
 
+    /** The regions of the buckets involved in adaptive copies so far. */
+    private final ConcurrentMap<String, String> bucketRegions = new ConcurrentHashMap<String, String>();
+
     /**
      * Constructs a new <code>TransferManager</code> and Amazon S3 client using
      * the credentials from <code>DefaultAWSCredentialsProviderChain</code>
@@ -323,7 +338,10 @@ public class TransferManager {
      * stream, then TransferManager will attempt to buffer all the stream
      * contents in memory and upload the options as a traditional, single part
      * upload. Because the entire stream contents must be buffered in memory,
-     * this can be very expensive, and should be avoided whenever possible.
+     * this can be very expensive, and should be avoided whenever possible,
+     * unless {@link TransferManagerConfiguration#setMaxInFlightStreamUploadParts(int)}
+     * is set to upload input streams as parts read ahead into a bounded
+     * number of buffers and uploaded in parallel.
      * </p>
      * <p>
      * Use the returned <code>Upload</code> object to query the progress of the
@@ -594,7 +612,7 @@ public class TransferManager {
                 new TransferProgressUpdatingListener(transferProgress),
                 putObjectRequest.getGeneralProgressListener(), progressListener);
 
-        putObjectRequest.setGeneralProgressListener(listenerChain);
+        putObjectRequest.setGeneralProgressListener(coalesce(listenerChain));
 
         UploadImpl upload = new UploadImpl(description, transferProgress,
                 listenerChain, stateListener);
@@ -743,6 +761,21 @@ public class TransferManager {
             final File file, final TransferStateChangeListener stateListener,
             final S3ProgressListener s3progressListener,
             final boolean resumeExistingDownload)
+    {
+        return doDownload(getObjectRequest, file, stateListener,
+                s3progressListener, resumeExistingDownload, null);
+    }
+
+    /**
+     * Same as {@link #doDownload(GetObjectRequest, File, TransferStateChangeListener, S3ProgressListener, boolean)},
+     * but resumes a paused parallel ranged download if
+     * <code>persistableDownload</code> has been captured from one.
+     */
+    private Download doDownload(final GetObjectRequest getObjectRequest,
+            final File file, final TransferStateChangeListener stateListener,
+            final S3ProgressListener s3progressListener,
+            final boolean resumeExistingDownload,
+            final PersistableDownload persistableDownload)
     {
         appendSingleObjectUserAgent(getObjectRequest);
         String description = "Downloading from " + getObjectRequest.getBucketName() + "/" + getObjectRequest.getKey();
@@ -757,12 +790,13 @@ public class TransferManager {
         // The listener chain used by the low-level GetObject request.
         // This listener chain ignores any COMPLETE event, so that we could
         // delay firing the signal until the high-level download fully finishes.
-        getObjectRequest.setGeneralProgressListener(
+        getObjectRequest.setGeneralProgressListener(coalesce(
             new ProgressListenerChain(
-                new TransferCompletionFilter(), listenerChain));
+                new TransferCompletionFilter(), listenerChain)));
 
         long startingByte = 0;
         long lastByte;
+        String eTag = null;
 
         long[] range = getObjectRequest.getRange();
         if (range != null
@@ -779,16 +813,55 @@ public class TransferManager {
             final ObjectMetadata objectMetadata = s3.getObjectMetadata(getObjectMetadataRequest);
 
             lastByte = objectMetadata.getContentLength() - 1;
+            eTag = objectMetadata.getETag();
         }
         final long origStartingByte = startingByte;
+
+        long totalBytesToDownload = lastByte - startingByte + 1;
+
+        long partSize = 0;
+        int[] completedParts = null;
+        if (persistableDownload != null && persistableDownload.getPartSize() > 0) {
+            if (persistableDownload.getETag() != null
+                    && !persistableDownload.getETag().equals(eTag)) {
+                throw new AmazonClientException("Unable to resume download of "
+                        + getObjectRequest.getBucketName() + "/" + getObjectRequest.getKey()
+                        + " because the object has changed since the download was paused");
+            }
+            partSize = persistableDownload.getPartSize();
+            // Completed ranges are only trusted if the preallocated file is intact
+            if (file.length() == totalBytesToDownload) {
+                completedParts = persistableDownload.getCompletedParts();
+            }
+        } else if (!resumeExistingDownload
+                && TransferManagerUtils.isDownloadParallelizable(getObjectRequest,
+                        s3 instanceof AmazonS3Encryption, totalBytesToDownload,
+                        configuration)) {
+            partSize = configuration.getDownloadPartSize();
+        }
+
         // We still pass the unfiltered listener chain into DownloadImpl
         final DownloadImpl download = new DownloadImpl(description,
                 transferProgress, listenerChain, null, stateListener,
-                getObjectRequest, file);
+                getObjectRequest, file, partSize, eTag, completedParts);
 
-        long totalBytesToDownload = lastByte - startingByte + 1;
         transferProgress.setTotalBytesToTransfer(totalBytesToDownload);
 
+        if (partSize > 0) {
+            if (completedParts != null) {
+                transferProgress.updateProgress(Math.min(completedParts.length
+                        * partSize, totalBytesToDownload));
+            }
+            final CountDownLatch latch = new CountDownLatch(1);
+            Future<?> future = threadPool.submit(
+                new ParallelDownloadCallable(s3, threadPool, latch,
+                    getObjectRequest, download, file, totalBytesToDownload,
+                    partSize, eTag, completedParts != null));
+            download.setMonitor(new DownloadMonitor(download, future));
+            latch.countDown();
+            return download;
+        }
+
         long fileLength = -1;
         if (resumeExistingDownload) {
             if (!FileLocks.lock(file)) {
@@ -1176,6 +1249,364 @@ public class TransferManager {
         return multipleFileUpload;
     }
 
+    /**
+     * Uploads the files in the directory given, including subdirectories, to
+     * the bucket named, except for those which already exist unchanged as
+     * objects in the virtual directory, optionally deleting the objects of
+     * the virtual directory which no longer have a matching file.
+     * <p>
+     * A file is considered unchanged if the object under its key has the same
+     * length and either the same MD5 checksum or, if the ETag of the object
+     * is not an MD5 checksum as for multipart uploads, a last modified time
+     * no older than the file. The checksums of the files compared with an
+     * object or uploaded in a single part are recorded in the manifest file
+     * given, if any, so that files which have not been modified since are not
+     * hashed again by the next sync.
+     * </p>
+     * <p>
+     * The objects of the virtual directory are listed and compared with the
+     * files while the uploads of the files found to have changed are already
+     * in progress. This method returns once all the changed files have been
+     * scheduled for upload.
+     * </p>
+     *
+     * @param bucketName
+     *            The name of the bucket to upload objects to.
+     * @param virtualDirectoryKeyPrefix
+     *            The key prefix of the virtual directory to upload to. Use the
+     *            null or empty string to upload files to the root of the
+     *            bucket.
+     * @param directory
+     *            The directory to upload.
+     * @param deleteRemoved
+     *            Whether to delete the objects of the virtual directory which
+     *            have no matching file in the directory.
+     * @param manifestFile
+     *            The file recording the checksums of the files of the
+     *            directory, which is excluded from the upload; or null to
+     *            hash the files every time.
+     */
+    public MultipleFileUpload syncUploadDirectory(String bucketName, String virtualDirectoryKeyPrefix,
+            File directory, boolean deleteRemoved, File manifestFile) {
+        if ( directory == null || !directory.exists() || !directory.isDirectory() ) {
+            throw new IllegalArgumentException("Must provide a directory to upload");
+        }
+
+        if (virtualDirectoryKeyPrefix == null || virtualDirectoryKeyPrefix.length() == 0) {
+            virtualDirectoryKeyPrefix = "";
+        } else if ( !virtualDirectoryKeyPrefix.endsWith("/") ) {
+            virtualDirectoryKeyPrefix = virtualDirectoryKeyPrefix + "/";
+        }
+
+        SyncManifest manifest = SyncManifest.load(manifestFile);
+        Iterator<String> paths = listRelativePaths(directory, manifestFile).iterator();
+
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+        TransferProgress progress = new TransferProgress();
+        ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+                progress, additionalListeners);
+
+        List<UploadImpl> uploads = new LinkedList<UploadImpl>();
+        String description = "Synchronizing " + directory.getAbsolutePath() + " to " + bucketName + "/"
+                + virtualDirectoryKeyPrefix;
+        MultipleFileUploadImpl multipleFileUpload = new MultipleFileUploadImpl(description, progress,
+                additionalListeners, virtualDirectoryKeyPrefix, bucketName, uploads);
+        multipleFileUpload.setMonitor(new MultipleFileTransferMonitor(multipleFileUpload, uploads));
+        // Let the uploads proceed while the listing and comparison go on
+        MultipleFileTransferStateChangeListener transferListener =
+            new MultipleFileTransferStateChangeListener(multipleFileUpload);
+
+        long totalSize = 0;
+        List<String> keysToDelete = new ArrayList<String>();
+        try {
+            String path = paths.hasNext() ? paths.next() : null;
+            ObjectListing listing = s3.listObjects(new ListObjectsRequest()
+                    .withBucketName(bucketName).withPrefix(virtualDirectoryKeyPrefix));
+            while (true) {
+                // Both the listing and the paths are in key order
+                for (S3ObjectSummary summary : listing.getObjectSummaries()) {
+                    String remotePath = summary.getKey().substring(virtualDirectoryKeyPrefix.length());
+                    while (path != null && KEY_ORDER.compare(path, remotePath) < 0) {
+                        totalSize += syncUpload(bucketName, virtualDirectoryKeyPrefix, directory, path,
+                                manifest, listener, transferListener, uploads);
+                        path = paths.hasNext() ? paths.next() : null;
+                    }
+                    if (path != null && path.equals(remotePath)) {
+                        File f = new File(directory, path);
+                        if (!isUnchanged(path, f, summary, manifest, true)) {
+                            totalSize += syncUpload(bucketName, virtualDirectoryKeyPrefix, directory, path,
+                                    manifest, listener, transferListener, uploads);
+                        }
+                        path = paths.hasNext() ? paths.next() : null;
+                    } else if (deleteRemoved) {
+                        keysToDelete.add(summary.getKey());
+                        if (keysToDelete.size() == MAXIMUM_KEYS_PER_DELETE) {
+                            deleteObjects(bucketName, keysToDelete);
+                        }
+                    }
+                }
+                if (!listing.isTruncated())
+                    break;
+                listing = s3.listNextBatchOfObjects(listing);
+            }
+            while (path != null) {
+                totalSize += syncUpload(bucketName, virtualDirectoryKeyPrefix, directory, path,
+                        manifest, listener, transferListener, uploads);
+                path = paths.hasNext() ? paths.next() : null;
+            }
+            if (!keysToDelete.isEmpty()) {
+                deleteObjects(bucketName, keysToDelete);
+            }
+            manifest.save();
+        } finally {
+            progress.setTotalBytesToTransfer(totalSize);
+            transferListener.allTransfersQueued();
+        }
+        return multipleFileUpload;
+    }
+
+    /**
+     * Schedules the upload of a file for {@link #syncUploadDirectory}, and
+     * returns its length.
+     */
+    private long syncUpload(String bucketName, String virtualDirectoryKeyPrefix, File directory, String path,
+            SyncManifest manifest, ProgressListener listener, TransferStateChangeListener transferListener,
+            List<UploadImpl> uploads) {
+        File f = new File(directory, path);
+        PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, virtualDirectoryKeyPrefix + path, f)
+                .withMetadata(new ObjectMetadata())
+                .<PutObjectRequest> withGeneralProgressListener(listener);
+        // The ETag of a single-part upload is the MD5 checksum the next sync
+        // compares the file with, so record it now
+        if (!TransferManagerUtils.shouldUseMultipartUpload(putObjectRequest, configuration)) {
+            try {
+                manifest.getMd5Hex(path, f);
+            } catch (IOException e) {
+                log.debug("Unable to hash " + f.getAbsolutePath(), e);
+            }
+        }
+        // All the single-file uploads share the same
+        // MultipleFileTransferProgressUpdatingListener and
+        // MultipleFileTransferStateChangeListener
+        uploads.add((UploadImpl) doUpload(putObjectRequest, transferListener, null, null));
+        return f.length();
+    }
+
+    /**
+     * Deletes the objects of the given keys, and clears the list.
+     */
+    private void deleteObjects(String bucketName, List<String> keys) {
+        s3.deleteObjects(new DeleteObjectsRequest(bucketName)
+                .withKeys(keys.toArray(new String[keys.size()])));
+        keys.clear();
+    }
+
+    /**
+     * Downloads the objects in the virtual directory designated by the
+     * keyPrefix given to the destination directory given, except for those
+     * which already exist unchanged as files, optionally deleting the files
+     * of the destination directory under the keyPrefix which no longer have
+     * a matching object. As with
+     * {@link #downloadDirectory(String, String, File)}, objects are saved
+     * under their full key in the destination directory.
+     * <p>
+     * A file is considered unchanged if it has the same length as the object
+     * of its key and either the same MD5 checksum or, if the ETag of the
+     * object is not an MD5 checksum as for multipart uploads, a last modified
+     * time no older than the object. The checksums of the files compared with
+     * an object, and the ETags of the objects downloaded from a single-part
+     * upload, are recorded in the manifest file given, if any, so that files
+     * which have not been modified since are not hashed again by the next
+     * sync. The manifest file is saved once all the downloads are done.
+     * </p>
+     * <p>
+     * The objects of the virtual directory are listed and compared with the
+     * files while the downloads of the objects found to have changed are
+     * already in progress. This method returns once all the changed objects
+     * have been scheduled for download.
+     * </p>
+     *
+     * @param bucketName
+     *            The bucket containing the virtual directory
+     * @param keyPrefix
+     *            The key prefix for the virtual directory, or null for the
+     *            entire bucket.
+     * @param destinationDirectory
+     *            The directory to place downloaded files. Subdirectories will
+     *            be created as necessary.
+     * @param deleteRemoved
+     *            Whether to delete the files under the keyPrefix in the
+     *            destination directory which have no matching object.
+     * @param manifestFile
+     *            The file recording the checksums of the files of the
+     *            destination directory, which is never deleted; or null to
+     *            hash the files every time.
+     */
+    public MultipleFileDownload syncDownloadDirectory(String bucketName, String keyPrefix,
+            final File destinationDirectory, boolean deleteRemoved, File manifestFile) {
+        if ( keyPrefix == null )
+            keyPrefix = "";
+
+        final SyncManifest manifest = SyncManifest.load(manifestFile);
+        List<String> localPaths = new ArrayList<String>();
+        if (destinationDirectory.isDirectory()) {
+            for (String p : listRelativePaths(destinationDirectory, manifestFile)) {
+                if (p.startsWith(keyPrefix))
+                    localPaths.add(p);
+            }
+        }
+        Iterator<String> paths = localPaths.iterator();
+
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+        TransferProgress transferProgress = new TransferProgress();
+        ProgressListener listener = new MultipleFileTransferProgressUpdatingListener(
+                transferProgress, additionalListeners);
+
+        final List<DownloadImpl> downloads = new LinkedList<DownloadImpl>();
+        String description = "Synchronizing from " + bucketName + "/" + keyPrefix;
+        final MultipleFileDownloadImpl multipleFileDownload = new MultipleFileDownloadImpl(description, transferProgress,
+                additionalListeners, keyPrefix, bucketName, downloads);
+        multipleFileDownload.setMonitor(new MultipleFileTransferMonitor(multipleFileDownload, downloads));
+        // Record the downloaded files once they are all done, as they are
+        // only modified until then
+        multipleFileDownload.addStateChangeListener(new TransferStateChangeListener() {
+            @Override
+            public void transferStateChanged(Transfer transfer, TransferState state) {
+                if ( state != TransferState.Completed && state != TransferState.Failed
+                        && state != TransferState.Canceled )
+                    return;
+                for ( DownloadImpl download : downloads ) {
+                    if ( download.getState() != TransferState.Completed )
+                        continue;
+                    String etag = download.getObjectMetadata().getETag();
+                    // The ETag of a multipart upload is not the MD5 checksum
+                    // of the object
+                    if ( etag != null && etag.indexOf('-') < 0 )
+                        manifest.record(download.getKey(),
+                                new File(destinationDirectory, download.getKey()), etag);
+                }
+                manifest.save();
+            }
+        });
+        // Let the downloads proceed while the listing and comparison go on
+        MultipleFileTransferStateChangeListener transferListener =
+            new MultipleFileTransferStateChangeListener(multipleFileDownload);
+
+        long totalSize = 0;
+        try {
+            String path = paths.hasNext() ? paths.next() : null;
+            ObjectListing listing = s3.listObjects(new ListObjectsRequest()
+                    .withBucketName(bucketName).withPrefix(keyPrefix));
+            while (true) {
+                // Both the listing and the paths are in key order
+                for (S3ObjectSummary summary : listing.getObjectSummaries()) {
+                    String key = summary.getKey();
+                    if (key.endsWith(DEFAULT_DELIMITER)) {
+                        log.debug("Skipping download for object " + key
+                                + " since it is a virtual directory");
+                        continue;
+                    }
+                    while (path != null && KEY_ORDER.compare(path, key) < 0) {
+                        if (deleteRemoved)
+                            deleteFile(new File(destinationDirectory, path));
+                        path = paths.hasNext() ? paths.next() : null;
+                    }
+                    if (path != null && path.equals(key)) {
+                        path = paths.hasNext() ? paths.next() : null;
+                        if (isUnchanged(key, new File(destinationDirectory, key), summary, manifest, false))
+                            continue;
+                    }
+                    totalSize += summary.getSize();
+                    File f = new File(destinationDirectory, key);
+                    File parentFile = f.getParentFile();
+                    if ( !parentFile.exists() && !parentFile.mkdirs() ) {
+                        throw new RuntimeException("Couldn't create parent directories for " + f.getAbsolutePath());
+                    }
+                    // All the single-file downloads share the same
+                    // MultipleFileTransferProgressUpdatingListener and
+                    // MultipleFileTransferStateChangeListener
+                    downloads.add((DownloadImpl) doDownload(
+                                    new GetObjectRequest(summary.getBucketName(), key)
+                                            .<GetObjectRequest>withGeneralProgressListener(listener),
+                                    f,
+                                    transferListener, null, false));
+                }
+                if (!listing.isTruncated())
+                    break;
+                listing = s3.listNextBatchOfObjects(listing);
+            }
+            while (path != null) {
+                if (deleteRemoved)
+                    deleteFile(new File(destinationDirectory, path));
+                path = paths.hasNext() ? paths.next() : null;
+            }
+        } finally {
+            transferProgress.setTotalBytesToTransfer(totalSize);
+            transferListener.allTransfersQueued();
+        }
+        return multipleFileDownload;
+    }
+
+    private void deleteFile(File f) {
+        if (!f.delete())
+            log.warn("Unable to delete " + f.getAbsolutePath());
+    }
+
+    /**
+     * Returns true if the given file matches the given object summary, either
+     * by MD5 checksum or, if the ETag of the object is not an MD5 checksum,
+     * by last modified time.
+     *
+     * @param isUpload
+     *            true if the file is the source of the sync, false if the
+     *            object is
+     */
+    private boolean isUnchanged(String path, File file, S3ObjectSummary summary,
+            SyncManifest manifest, boolean isUpload) {
+        if (file.length() != summary.getSize())
+            return false;
+        String etag = summary.getETag();
+        if (etag != null && etag.indexOf('-') < 0) {
+            try {
+                return etag.equalsIgnoreCase(manifest.getMd5Hex(path, file));
+            } catch (IOException e) {
+                log.debug("Unable to hash " + file.getAbsolutePath(), e);
+                return false;
+            }
+        }
+        // The ETag of a multipart upload is not the MD5 checksum of the object
+        long lastModified = summary.getLastModified().getTime();
+        return isUpload
+             ? file.lastModified() <= lastModified
+             : file.lastModified() >= lastModified;
+    }
+
+    /**
+     * Returns the paths relative to the given directory, with "/" as the
+     * separator, of the files under the directory except for the given one,
+     * sorted in key order.
+     */
+    private List<String> listRelativePaths(File directory, File excluded) {
+        List<File> files = new LinkedList<File>();
+        listFiles(directory, files, true);
+        int startingPosition = directory.getAbsolutePath().length();
+        if (!(directory.getAbsolutePath().endsWith(File.separator)))
+            startingPosition++;
+        String excludedPath = excluded == null ? null : excluded.getAbsolutePath();
+        List<String> paths = new ArrayList<String>(files.size());
+        for (File f : files) {
+            String absolutePath = f.getAbsolutePath();
+            if (excludedPath != null && (absolutePath.equals(excludedPath)
+                    || absolutePath.equals(excludedPath + ".tmp")))
+                continue;
+            paths.add(absolutePath.substring(startingPosition).replaceAll("\\\\", "/"));
+        }
+        Collections.sort(paths, KEY_ORDER);
+        return paths;
+    }
+
     /**
      * Lists files in the directory given and adds them to the result list
      * passed in, optionally adding subdirectories recursively.
@@ -1301,6 +1732,12 @@ public class TransferManager {
 
     private static final String DEFAULT_DELIMITER = "/";
 
+    /** The maximum number of keys of a single multi-object delete request. */
+    private static final int MAXIMUM_KEYS_PER_DELETE = 1000;
+
+    /** The maximum number of copies of a prefix copy pending at any time. */
+    private static final int MAXIMUM_PENDING_PREFIX_COPIES = 1000;
+
     /**
      * There is no need for threads from timedThreadPool if there is no more running threads in current process,
      * so we need a daemon thread factory for it.
@@ -1453,12 +1890,6 @@ public class TransferManager {
                 copyObjectRequest.getDestinationKey(),
                 "The destination object key must be specified when a copy request is initiated.");
 
-        String description = "Copying object from "
-                + copyObjectRequest.getSourceBucketName() + "/"
-                + copyObjectRequest.getSourceKey() + " to "
-                + copyObjectRequest.getDestinationBucketName() + "/"
-                + copyObjectRequest.getDestinationKey();
-
         GetObjectMetadataRequest getObjectMetadataRequest =
                 new GetObjectMetadataRequest(
                         copyObjectRequest.getSourceBucketName(),
@@ -1467,6 +1898,23 @@ public class TransferManager {
 
         ObjectMetadata metadata = s3.getObjectMetadata(getObjectMetadataRequest);
 
+        return doCopy(copyObjectRequest, stateChangeListener, metadata,
+                isCrossRegionCopy(copyObjectRequest.getSourceBucketName(),
+                        copyObjectRequest.getDestinationBucketName()));
+    }
+
+    /**
+     * Schedules a copy of the object described by the given metadata.
+     */
+    private Copy doCopy(final CopyObjectRequest copyObjectRequest,
+            final TransferStateChangeListener stateChangeListener,
+            ObjectMetadata metadata, boolean isCrossRegion) {
+        String description = "Copying object from "
+                + copyObjectRequest.getSourceBucketName() + "/"
+                + copyObjectRequest.getSourceKey() + " to "
+                + copyObjectRequest.getDestinationBucketName() + "/"
+                + copyObjectRequest.getDestinationKey();
+
         TransferProgress transferProgress = new TransferProgress();
         transferProgress.setTotalBytesToTransfer(metadata.getContentLength());
 
@@ -1475,7 +1923,7 @@ public class TransferManager {
         CopyImpl copy = new CopyImpl(description, transferProgress,
                 listenerChain, stateChangeListener);
         CopyCallable copyCallable = new CopyCallable(this, threadPool, copy,
-                copyObjectRequest, metadata, listenerChain);
+                copyObjectRequest, metadata, listenerChain, isCrossRegion);
         CopyMonitor watcher = CopyMonitor.create(this, copy, threadPool,
                 copyCallable, copyObjectRequest, listenerChain);
         watcher.setTimedThreadPool(timedThreadPool);
@@ -1483,6 +1931,187 @@ public class TransferManager {
         return copy;
     }
 
+    /**
+     * Copies all the objects under the key prefix given in the source bucket
+     * to the destination bucket, replacing the source key prefix of their
+     * keys with the destination key prefix.
+     * <p>
+     * The objects are listed while the copies of the objects listed so far
+     * are already in progress, with the copies and their parts all running
+     * on the thread pool of this <code>TransferManager</code>. At most
+     * 1,000 copies are pending at any time: this method blocks while the
+     * copies catch up with the listing, and returns once all the objects
+     * have been scheduled for copy. Objects that are copied in a single
+     * request are not looked up before their copy, as the listing already
+     * provides their size.
+     * </p>
+     * <p>
+     * If the destination key prefix is under the source key prefix in the
+     * same bucket, the objects under the destination key prefix are not
+     * copied, so that the copies are not copied again as they are listed.
+     * </p>
+     * <p>
+     * See {@link TransferManagerConfiguration#setMultipartCopyParallelism(int)}
+     * for copying objects in parts sized for their size and regions.
+     * </p>
+     *
+     * @param sourceBucketName
+     *            The name of the bucket containing the objects to copy.
+     * @param sourceKeyPrefix
+     *            The key prefix of the objects to copy, or null for the
+     *            entire bucket.
+     * @param destinationBucketName
+     *            The name of the bucket to copy the objects to.
+     * @param destinationKeyPrefix
+     *            The key prefix replacing the source key prefix in the keys of
+     *            the copies, or null for none.
+     *
+     * @return A new <code>MultipleFileCopy</code> object to use to check the
+     *         state of the copies.
+     *
+     * @throws AmazonClientException
+     *             If any errors are encountered in the client while making the
+     *             request or handling the response.
+     * @throws AmazonServiceException
+     *             If any errors occurred in Amazon S3 while processing the
+     *             request.
+     */
+    public MultipleFileCopy copyPrefix(String sourceBucketName, String sourceKeyPrefix,
+            String destinationBucketName, String destinationKeyPrefix)
+            throws AmazonServiceException, AmazonClientException {
+        assertParameterNotNull(sourceBucketName,
+                "The source bucket name must be specified when a copy request is initiated.");
+        assertParameterNotNull(destinationBucketName,
+                "The destination bucket name must be specified when a copy request is initiated.");
+        if ( sourceKeyPrefix == null )
+            sourceKeyPrefix = "";
+        if ( destinationKeyPrefix == null )
+            destinationKeyPrefix = "";
+
+        boolean isCrossRegion = isCrossRegionCopy(sourceBucketName, destinationBucketName);
+        // Copies made under the source key prefix would show up in the listing
+        String excludedKeyPrefix = null;
+        if ( sourceBucketName.equals(destinationBucketName)
+                && destinationKeyPrefix.startsWith(sourceKeyPrefix)
+                && !destinationKeyPrefix.equals(sourceKeyPrefix) )
+            excludedKeyPrefix = destinationKeyPrefix;
+
+        /* This is the hook for adding additional progress listeners */
+        ProgressListenerChain additionalListeners = new ProgressListenerChain();
+        final TransferProgress transferProgress = new TransferProgress();
+
+        List<CopyImpl> copies = new LinkedList<CopyImpl>();
+        String description = "Copying from " + sourceBucketName + "/" + sourceKeyPrefix
+                + " to " + destinationBucketName + "/" + destinationKeyPrefix;
+        MultipleFileCopyImpl multipleFileCopy = new MultipleFileCopyImpl(description, transferProgress,
+                additionalListeners, sourceKeyPrefix, sourceBucketName, destinationKeyPrefix,
+                destinationBucketName, copies);
+        multipleFileCopy.setMonitor(new MultipleFileTransferMonitor(multipleFileCopy, copies));
+        // Let the copies proceed while the listing goes on
+        final MultipleFileTransferStateChangeListener transferListener =
+            new MultipleFileTransferStateChangeListener(multipleFileCopy);
+        final Semaphore pendingCopies = new Semaphore(MAXIMUM_PENDING_PREFIX_COPIES);
+        TransferStateChangeListener copyListener = new TransferStateChangeListener() {
+            @Override
+            public void transferStateChanged(Transfer transfer, TransferState state) {
+                if ( state == TransferState.Completed ) {
+                    transferProgress.updateProgress(transfer.getProgress().getTotalBytesToTransfer());
+                }
+                if ( state == TransferState.Completed || state == TransferState.Failed
+                        || state == TransferState.Canceled ) {
+                    pendingCopies.release();
+                }
+                transferListener.transferStateChanged(transfer, state);
+            }
+        };
+
+        long totalSize = 0;
+        try {
+            ObjectListing listing = s3.listObjects(new ListObjectsRequest()
+                    .withBucketName(sourceBucketName).withPrefix(sourceKeyPrefix));
+            while (true) {
+                for (S3ObjectSummary summary : listing.getObjectSummaries()) {
+                    String key = summary.getKey();
+                    if ( excludedKeyPrefix != null && key.startsWith(excludedKeyPrefix) )
+                        continue;
+                    CopyObjectRequest copyObjectRequest = new CopyObjectRequest(sourceBucketName, key,
+                            destinationBucketName, destinationKeyPrefix + key.substring(sourceKeyPrefix.length()));
+                    appendMultipartUserAgent(copyObjectRequest);
+                    ObjectMetadata metadata;
+                    if ( TransferManagerUtils.isMultipartCopy(summary.getSize(), isCrossRegion, configuration) ) {
+                        // A multi-part copy carries over the content type and
+                        // encryption metadata of the source object
+                        metadata = s3.getObjectMetadata(sourceBucketName, key);
+                    } else {
+                        metadata = new ObjectMetadata();
+                        metadata.setContentLength(summary.getSize());
+                    }
+                    try {
+                        pendingCopies.acquire();
+                    } catch ( InterruptedException e ) {
+                        // don't want to re-interrupt so it won't cause SDK stream to be
+                        // closed in case the thread is reused for a different request
+                        throw new AbortedException(e);
+                    }
+                    totalSize += metadata.getContentLength();
+                    copies.add((CopyImpl) doCopy(copyObjectRequest, copyListener, metadata, isCrossRegion));
+                }
+                if (!listing.isTruncated())
+                    break;
+                listing = s3.listNextBatchOfObjects(listing);
+            }
+        } finally {
+            transferProgress.setTotalBytesToTransfer(totalSize);
+            transferListener.allTransfersQueued();
+        }
+        return multipleFileCopy;
+    }
+
+    /**
+     * Returns the given request listener wrapped so as to coalesce its byte
+     * transfer events if configured, or else the listener itself.
+     */
+    private ProgressListener coalesce(ProgressListener listener) {
+        long interval = configuration.getProgressEventIntervalMillis();
+        long threshold = configuration.getProgressEventByteThreshold();
+        if ( interval <= 0 && threshold <= 0 )
+            return listener;
+        return new CoalescingProgressListener(listener, Math.max(interval, 0), Math.max(threshold, 0));
+    }
+
+    /**
+     * Returns true if adaptive copies are enabled and the given buckets are
+     * known to be in different regions.
+     */
+    private boolean isCrossRegionCopy(String sourceBucketName, String destinationBucketName) {
+        if ( configuration.getMultipartCopyParallelism() <= 0
+                || sourceBucketName.equals(destinationBucketName) )
+            return false;
+        String sourceRegion = getBucketRegion(sourceBucketName);
+        String destinationRegion = getBucketRegion(destinationBucketName);
+        return sourceRegion.length() > 0 && destinationRegion.length() > 0
+            && !sourceRegion.equals(destinationRegion);
+    }
+
+    /**
+     * Returns the region of the given bucket, looking it up only once, or the
+     * empty string if it cannot be determined.
+     */
+    private String getBucketRegion(String bucketName) {
+        String region = bucketRegions.get(bucketName);
+        if ( region == null ) {
+            try {
+                region = s3.getBucketLocation(bucketName);
+            } catch ( AmazonClientException e ) {
+                log.debug("Unable to determine the region of bucket " + bucketName, e);
+            }
+            if ( region == null )
+                region = "";
+            bucketRegions.putIfAbsent(bucketName, region);
+        }
+        return region;
+    }
+
     /**
      * Resumes an upload operation. This upload operation uses the same
      * configuration {@link TransferManagerConfiguration} as the original
@@ -1546,7 +2175,7 @@ public class TransferManager {
         request.setResponseHeaders(persistableDownload.getResponseHeaders());
 
         return doDownload(request, new File(persistableDownload.getFile()), null, null,
-                APPEND_MODE);
+                APPEND_MODE, persistableDownload);
     }
 
     /**
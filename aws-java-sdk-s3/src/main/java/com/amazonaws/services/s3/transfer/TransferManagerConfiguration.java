@@ -39,6 +39,36 @@ public class TransferManagerConfiguration {
     /** Default minimum size of each part for multi-part copy. */
     private static final long DEFAULT_MINIMUM_COPY_PART_SIZE = 100 * MB;
 
+    /**
+     * Default size threshold for when to use parallel ranged downloads; by
+     * default downloads always use a single connection.
+     */
+    private static final long DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD = Long.MAX_VALUE;
+
+    /** Default size of each byte range for parallel ranged downloads. */
+    private static final long DEFAULT_DOWNLOAD_PART_SIZE = 16 * MB;
+
+    /**
+     * Default maximum number of parts of an input stream upload held in
+     * memory; by default input streams are uploaded one part at a time.
+     */
+    private static final int DEFAULT_MAX_IN_FLIGHT_STREAM_UPLOAD_PARTS = 0;
+
+    /**
+     * Default number of parts into which an object is copied; by default
+     * copies use the fixed multi-part copy threshold and part size.
+     */
+    private static final int DEFAULT_MULTIPART_COPY_PARALLELISM = 0;
+
+    /**
+     * Default interval at which coalesced progress events are delivered; by
+     * default progress events are not coalesced.
+     */
+    private static final long DEFAULT_PROGRESS_EVENT_INTERVAL_MILLIS = 0;
+
+    /** Default number of bytes from which coalesced progress is delivered. */
+    private static final long DEFAULT_PROGRESS_EVENT_BYTE_THRESHOLD = 0;
+
     /**
      * The minimum part size for upload parts. Decreasing the minimum part size
      * will cause multipart uploads to be split into a larger number of smaller
@@ -77,6 +107,47 @@ public class TransferManagerConfiguration {
      */
     private long multipartCopyPartSize = DEFAULT_MINIMUM_COPY_PART_SIZE;
 
+    /**
+     * The size threshold, in bytes, for when to download an object as
+     * concurrent byte-range GET requests. Downloads of objects over this size
+     * will fetch each range on its own connection and write it directly into
+     * its offset of the destination file, while downloads of smaller objects
+     * use a single connection for the whole object.
+     */
+    private long multipartDownloadThreshold = DEFAULT_MULTIPART_DOWNLOAD_THRESHOLD;
+
+    /**
+     * The size in bytes of each byte range fetched by a parallel ranged
+     * download.
+     */
+    private long downloadPartSize = DEFAULT_DOWNLOAD_PART_SIZE;
+
+    /**
+     * The maximum number of parts of an upload from an input stream that are
+     * read ahead into memory and uploaded concurrently, or 0 or 1 to upload
+     * input streams one part at a time.
+     */
+    private int maxInFlightStreamUploadParts = DEFAULT_MAX_IN_FLIGHT_STREAM_UPLOAD_PARTS;
+
+    /**
+     * The number of parts into which a copy aims to split an object so that
+     * they are copied concurrently, or 0 to use the fixed multi-part copy
+     * threshold and part size.
+     */
+    private int multipartCopyParallelism = DEFAULT_MULTIPART_COPY_PARALLELISM;
+
+    /**
+     * The interval in milliseconds at which the bytes transferred are reported
+     * to progress listeners when coalesced, or 0 for no interval.
+     */
+    private long progressEventIntervalMillis = DEFAULT_PROGRESS_EVENT_INTERVAL_MILLIS;
+
+    /**
+     * The number of bytes transferred from which they are reported to
+     * progress listeners when coalesced, or 0 for no threshold.
+     */
+    private long progressEventByteThreshold = DEFAULT_PROGRESS_EVENT_BYTE_THRESHOLD;
+
     /**
      * Returns the minimum part size for upload parts.
      * Decreasing the minimum part size causes
@@ -192,4 +263,185 @@ public class TransferManagerConfiguration {
     public void setMultipartCopyThreshold(long multipartCopyThreshold) {
         this.multipartCopyThreshold = multipartCopyThreshold;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the size threshold in bytes for when to download an object as
+     * concurrent byte-range GET requests. Downloads of objects over this size
+     * will fetch each range on its own connection, while downloads of smaller
+     * objects use a single connection for the whole object.
+     * <p>
+     * Parallel ranged downloads are disabled by default. They are never used
+     * for downloads through the Amazon S3 encryption client or for requests
+     * that already specify a byte range, and the downloaded data is not
+     * validated against the object's MD5 checksum.
+     *
+     * @return The size threshold in bytes for when to use parallel ranged
+     *         downloads.
+     */
+    public long getMultipartDownloadThreshold() {
+        return multipartDownloadThreshold;
+    }
+
+    /**
+     * Sets the size threshold in bytes for when to download an object as
+     * concurrent byte-range GET requests. Downloads of objects over this size
+     * will fetch each range on its own connection, while downloads of smaller
+     * objects use a single connection for the whole object.
+     *
+     * @param multipartDownloadThreshold
+     *            The size threshold in bytes for when to use parallel ranged
+     *            downloads.
+     */
+    public void setMultipartDownloadThreshold(long multipartDownloadThreshold) {
+        this.multipartDownloadThreshold = multipartDownloadThreshold;
+    }
+
+    /**
+     * Returns the size in bytes of each byte range fetched by a parallel
+     * ranged download.
+     *
+     * @return The size in bytes of each range of a parallel ranged download.
+     */
+    public long getDownloadPartSize() {
+        return downloadPartSize;
+    }
+
+    /**
+     * Sets the size in bytes of each byte range fetched by a parallel ranged
+     * download. Decreasing this size will result in an increase in the number
+     * of GET requests sent to the server.
+     *
+     * @param downloadPartSize
+     *            The size in bytes of each range of a parallel ranged
+     *            download.
+     */
+    public void setDownloadPartSize(long downloadPartSize) {
+        this.downloadPartSize = downloadPartSize;
+    }
+
+    /**
+     * Returns the maximum number of parts of an upload from an input stream
+     * that are read ahead into memory and uploaded concurrently. An upload
+     * from an input stream uses at most this many buffers of the part size,
+     * which are reused from one part to the next.
+     * <p>
+     * Parallel input stream uploads are disabled by default. When enabled,
+     * they apply to input streams of unknown length as well as to those over
+     * the multipart upload threshold, but never to uploads through the Amazon
+     * S3 encryption client. An input stream of unknown length is split into
+     * parts of the minimum upload part size, which limits its size to 10,000
+     * such parts, and is uploaded in a single request if it fits in one part.
+     *
+     * @return The maximum number of parts of an input stream upload in
+     *         memory, or 0 or 1 if input streams are uploaded one part at a
+     *         time.
+     */
+    public int getMaxInFlightStreamUploadParts() {
+        return maxInFlightStreamUploadParts;
+    }
+
+    /**
+     * Sets the maximum number of parts of an upload from an input stream
+     * that are read ahead into memory and uploaded concurrently, which bounds
+     * the memory used by such an upload to this number times the part size.
+     *
+     * @param maxInFlightStreamUploadParts
+     *            The maximum number of parts of an input stream upload in
+     *            memory, or 0 or 1 to upload input streams one part at a
+     *            time.
+     */
+    public void setMaxInFlightStreamUploadParts(int maxInFlightStreamUploadParts) {
+        this.maxInFlightStreamUploadParts = maxInFlightStreamUploadParts;
+    }
+
+    /**
+     * Returns the number of parts into which a copy aims to split an object,
+     * so that they are copied concurrently.
+     * <p>
+     * Adaptive copies are disabled by default. When enabled, the part size of
+     * each copy is chosen from the size of the object and from whether the
+     * source and destination buckets are in different regions, as looked up
+     * once per bucket: objects are split into this many parts, or twice as
+     * many across regions, within the bounds of the multi-part copy part size
+     * and of a minimum part size of 64 MB, or 16 MB across regions. Objects
+     * that are at least twice as large as this minimum part size are copied
+     * in parts even below the multi-part copy threshold, as a single copy
+     * request runs on a single connection on the server side.
+     *
+     * @return The number of parts into which an object is copied, or 0 if
+     *         copies use the fixed multi-part copy threshold and part size.
+     */
+    public int getMultipartCopyParallelism() {
+        return multipartCopyParallelism;
+    }
+
+    /**
+     * Sets the number of parts into which a copy aims to split an object, so
+     * that they are copied concurrently. This is typically the number of
+     * threads of the <code>TransferManager</code>.
+     *
+     * @param multipartCopyParallelism
+     *            The number of parts into which an object is copied, or 0 to
+     *            use the fixed multi-part copy threshold and part size.
+     */
+    public void setMultipartCopyParallelism(int multipartCopyParallelism) {
+        this.multipartCopyParallelism = multipartCopyParallelism;
+    }
+
+    /**
+     * Returns the interval in milliseconds at which the bytes transferred by
+     * uploads and downloads are reported to their progress listeners.
+     * <p>
+     * Progress events are not coalesced by default: listeners receive an event
+     * every 8 KB transferred. When either this interval or the byte threshold
+     * is set, the bytes transferred are accumulated and reported in a single
+     * event once the interval has elapsed or the threshold is reached, and
+     * whenever a request ends or another progress event is delivered. The
+     * {@link TransferProgress} of a transfer is updated from the same events.
+     *
+     * @return The interval in milliseconds at which the bytes transferred
+     *         are reported, or 0 for no interval.
+     * @see com.amazonaws.event.CoalescingProgressListener
+     */
+    public long getProgressEventIntervalMillis() {
+        return progressEventIntervalMillis;
+    }
+
+    /**
+     * Sets the interval in milliseconds at which the bytes transferred by
+     * uploads and downloads are reported to their progress listeners.
+     *
+     * @param progressEventIntervalMillis
+     *            The interval in milliseconds at which the bytes transferred
+     *            are reported, or 0 for no interval.
+     */
+    public void setProgressEventIntervalMillis(long progressEventIntervalMillis) {
+        this.progressEventIntervalMillis = progressEventIntervalMillis;
+    }
+
+    /**
+     * Returns the number of bytes transferred by an upload or download from
+     * which they are reported to its progress listeners, regardless of the
+     * progress event interval.
+     *
+     * @return The number of bytes from which the bytes transferred are
+     *         reported, or 0 for no threshold.
+     * @see #getProgressEventIntervalMillis()
+     */
+    public long getProgressEventByteThreshold() {
+        return progressEventByteThreshold;
+    }
+
+    /**
+     * Sets the number of bytes transferred by an upload or download from
+     * which they are reported to its progress listeners, regardless of the
+     * progress event interval.
+     *
+     * @param progressEventByteThreshold
+     *            The number of bytes from which the bytes transferred are
+     *            reported, or 0 for no threshold.
+     */
+    public void setProgressEventByteThreshold(long progressEventByteThreshold) {
+        this.progressEventByteThreshold = progressEventByteThreshold;
+    }
+}
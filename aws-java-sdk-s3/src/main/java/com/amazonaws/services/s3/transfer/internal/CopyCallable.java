@@ -77,6 +77,8 @@ public class CopyCallable implements Callable<CopyResult> {
     private String multipartUploadId;
     /** Metadata of the object in the source bucket to be copied. */
     private final ObjectMetadata metadata;
+    /** Whether the source and destination buckets are in different regions. */
+    private final boolean isCrossRegion;
     private final CopyImpl copy;
 
     private static final Log log = LogFactory.getLog(CopyCallable.class);
@@ -97,6 +99,14 @@ public class CopyCallable implements Callable<CopyResult> {
             ExecutorService threadPool, CopyImpl copy,
             CopyObjectRequest copyObjectRequest, ObjectMetadata metadata,
             ProgressListenerChain progressListenerChain) {
+        this(transferManager, threadPool, copy, copyObjectRequest, metadata,
+                progressListenerChain, false);
+    }
+
+    public CopyCallable(TransferManager transferManager,
+            ExecutorService threadPool, CopyImpl copy,
+            CopyObjectRequest copyObjectRequest, ObjectMetadata metadata,
+            ProgressListenerChain progressListenerChain, boolean isCrossRegion) {
         this.s3 = transferManager.getAmazonS3Client();
         this.configuration = transferManager.getConfiguration();
         this.threadPool = threadPool;
@@ -104,6 +114,7 @@ public class CopyCallable implements Callable<CopyResult> {
         this.metadata = metadata;
         this.listenerChain = progressListenerChain;
         this.copy = copy;
+        this.isCrossRegion = isCrossRegion;
     }
 
     List<Future<PartETag>> getFutures() {
@@ -120,8 +131,8 @@ public class CopyCallable implements Callable<CopyResult> {
      * @return True if this CopyCallable is processing a multi-part copy.
      */
     public boolean isMultipartCopy() {
-        return (metadata.getContentLength() > configuration
-                .getMultipartCopyThreshold());
+        return TransferManagerUtils.isMultipartCopy(
+                metadata.getContentLength(), isCrossRegion, configuration);
     }
 
     public CopyResult call() throws Exception {
@@ -199,7 +210,7 @@ public class CopyCallable implements Callable<CopyResult> {
 
         long optimalPartSize = TransferManagerUtils
                 .calculateOptimalPartSizeForCopy(copyObjectRequest,
-                        configuration, contentLengthOfSource);
+                        configuration, contentLengthOfSource, isCrossRegion);
         log.debug("Calculated optimal part size: " + optimalPartSize);
         return optimalPartSize;
     }
@@ -16,6 +16,10 @@ package com.amazonaws.services.s3.transfer.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListenerChain;
@@ -35,12 +39,55 @@ public class DownloadImpl extends AbstractTransfer implements Download {
      */
     private final PersistableDownload persistableDownload;
 
+    private final GetObjectRequest getObjectRequest;
+    private final File file;
+
+    /**
+     * Size of each byte range of a parallel ranged download; or zero if the
+     * object is downloaded through a single connection.
+     */
+    private final long partSize;
+
+    /** ETag of the object being downloaded in parallel ranges. */
+    private final String eTag;
+
+    /**
+     * Indexes of the byte ranges of a parallel ranged download that have been
+     * fully written to the file.
+     */
+    private final Set<Integer> completedParts = new ConcurrentSkipListSet<Integer>();
+
+    /**
+     * The byte ranges of a parallel ranged download being fetched, aborted
+     * along with the download.
+     */
+    private final Set<S3Object> inFlightParts =
+        Collections.newSetFromMap(new ConcurrentHashMap<S3Object, Boolean>());
+
     public DownloadImpl(String description, TransferProgress transferProgress,
             ProgressListenerChain progressListenerChain, S3Object s3Object,
             TransferStateChangeListener listener,
             GetObjectRequest getObjectRequest, File file) {
+        this(description, transferProgress, progressListenerChain, s3Object,
+                listener, getObjectRequest, file, 0, null, null);
+    }
+
+    public DownloadImpl(String description, TransferProgress transferProgress,
+            ProgressListenerChain progressListenerChain, S3Object s3Object,
+            TransferStateChangeListener listener,
+            GetObjectRequest getObjectRequest, File file, long partSize,
+            String eTag, int[] completedParts) {
         super(description, transferProgress, progressListenerChain, listener);
         this.s3Object = s3Object;
+        this.getObjectRequest = getObjectRequest;
+        this.file = file;
+        this.partSize = partSize;
+        this.eTag = eTag;
+        if (completedParts != null) {
+            for (int part : completedParts) {
+                this.completedParts.add(part);
+            }
+        }
         this.persistableDownload = captureDownloadState(getObjectRequest, file);
         S3ProgressPublisher.publishTransferPersistable(progressListenerChain,
                 persistableDownload);
@@ -85,6 +132,9 @@ public class DownloadImpl extends AbstractTransfer implements Download {
         if ( s3Object != null ) {
               s3Object.getObjectContent().abort();
         }
+        for ( S3Object part : inFlightParts ) {
+            part.getObjectContent().abort();
+        }
         setState(TransferState.Canceled);
     }
 
@@ -96,6 +146,9 @@ public class DownloadImpl extends AbstractTransfer implements Download {
     public synchronized void abortWithoutNotifyingStateChangeListener() throws IOException {
         this.monitor.getFuture().cancel(true);
         this.state = TransferState.Canceled;
+        for ( S3Object part : inFlightParts ) {
+            part.getObjectContent().abort();
+        }
     }
 
     /**
@@ -105,6 +158,45 @@ public class DownloadImpl extends AbstractTransfer implements Download {
         this.s3Object = s3Object;
     }
 
+    /**
+     * Records a byte range of a parallel ranged download being fetched, so
+     * that it is aborted if this download is, returning false if this
+     * download has already been canceled.
+     */
+    public boolean addInFlightPart(S3Object part) {
+        inFlightParts.add(part);
+        if ( getState() == TransferState.Canceled ) {
+            inFlightParts.remove(part);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records that a byte range of a parallel ranged download is no longer
+     * being fetched.
+     */
+    public void removeInFlightPart(S3Object part) {
+        inFlightParts.remove(part);
+    }
+
+    /**
+     * Returns true if the given byte range of a parallel ranged download has
+     * already been written to the file.
+     */
+    public boolean isPartCompleted(int part) {
+        return completedParts.contains(part);
+    }
+
+    /**
+     * Records that the given byte range of a parallel ranged download has been
+     * fully written to the file, so that it is skipped if the download is
+     * paused and resumed.
+     */
+    public void markPartCompleted(int part) {
+        completedParts.add(part);
+    }
+
     /**
      * This method is also responsible for firing COMPLETED signal to the
      * listeners.
@@ -130,11 +222,24 @@ public class DownloadImpl extends AbstractTransfer implements Download {
                     getObjectRequest.getKey(), getObjectRequest.getVersionId(),
                     getObjectRequest.getRange(),
                     getObjectRequest.getResponseHeaders(),
-                    getObjectRequest.isRequesterPays(), file.getAbsolutePath());
+                    getObjectRequest.isRequesterPays(), file.getAbsolutePath(),
+                    partSize, captureCompletedParts(), eTag);
         }
         return null;
     }
 
+    private int[] captureCompletedParts() {
+        if (partSize <= 0) {
+            return null;
+        }
+        Integer[] parts = completedParts.toArray(new Integer[0]);
+        int[] captured = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            captured[i] = parts[i];
+        }
+        return captured;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -150,6 +255,10 @@ public class DownloadImpl extends AbstractTransfer implements Download {
             throw new PauseException(TransferManagerUtils.determinePauseStatus(
                     currentState, forceCancel));
         }
+        if (partSize > 0) {
+            // Capture the byte ranges completed so far
+            return captureDownloadState(getObjectRequest, file);
+        }
         return persistableDownload;
     }
 }
\ No newline at end of file
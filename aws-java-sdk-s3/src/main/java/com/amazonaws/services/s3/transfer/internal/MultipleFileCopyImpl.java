@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.event.ProgressListenerChain;
+import com.amazonaws.services.s3.transfer.Copy;
+import com.amazonaws.services.s3.transfer.MultipleFileCopy;
+import com.amazonaws.services.s3.transfer.TransferProgress;
+
+/**
+ * Multiple object copy when copying an entire virtual directory.
+ */
+public class MultipleFileCopyImpl extends MultipleFileTransfer<Copy> implements MultipleFileCopy {
+
+    private final String sourceKeyPrefix;
+    private final String sourceBucketName;
+    private final String destinationKeyPrefix;
+    private final String destinationBucketName;
+
+    public MultipleFileCopyImpl(String description, TransferProgress transferProgress,
+            ProgressListenerChain progressListenerChain, String sourceKeyPrefix, String sourceBucketName,
+            String destinationKeyPrefix, String destinationBucketName, Collection<? extends Copy> copies) {
+        super(description, transferProgress, progressListenerChain, copies);
+        this.sourceKeyPrefix = sourceKeyPrefix;
+        this.sourceBucketName = sourceBucketName;
+        this.destinationKeyPrefix = destinationKeyPrefix;
+        this.destinationBucketName = destinationBucketName;
+    }
+
+    /**
+     * Returns the key prefix of the virtual directory being copied.
+     */
+    public String getSourceKeyPrefix() {
+        return sourceKeyPrefix;
+    }
+
+    /**
+     * Returns the name of the bucket from which objects are copied.
+     */
+    public String getSourceBucketName() {
+        return sourceBucketName;
+    }
+
+    /**
+     * Returns the key prefix of the virtual directory to which objects are
+     * copied.
+     */
+    public String getDestinationKeyPrefix() {
+        return destinationKeyPrefix;
+    }
+
+    /**
+     * Returns the name of the bucket to which objects are copied.
+     */
+    public String getDestinationBucketName() {
+        return destinationBucketName;
+    }
+
+    /**
+     * Waits for this transfer to complete. This is a blocking call; the current
+     * thread is suspended until this transfer completes.
+     *
+     * @throws AmazonClientException
+     *             If any errors were encountered in the client while making the
+     *             request or handling the response.
+     * @throws AmazonServiceException
+     *             If any errors occurred in Amazon S3 while processing the
+     *             request.
+     * @throws InterruptedException
+     *             If this thread is interrupted while waiting for the transfer
+     *             to complete.
+     */
+    @Override
+    public void waitForCompletion()
+            throws AmazonClientException, AmazonServiceException, InterruptedException {
+        if (subTransfers.isEmpty())
+            return;
+        super.waitForCompletion();
+    }
+
+    /* (non-Javadoc)
+     * @see com.amazonaws.services.s3.transfer.MultipleFileCopy#getSubTransfers()
+     */
+    @Override
+    public Collection<? extends Copy> getSubTransfers() {
+        return Collections.unmodifiableCollection(subTransfers);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.s3.transfer.internal;
+
+import static com.amazonaws.util.StringUtils.UTF8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.Md5Utils;
+
+/**
+ * A local record of the MD5 checksums of the files of a directory kept in sync
+ * with Amazon S3, so that files that have not changed since the previous sync
+ * are not hashed again.
+ * <p>
+ * Each line of the manifest file holds the hexadecimal MD5 checksum, length,
+ * last modified time and path relative to the directory of a file, separated
+ * by a space. A checksum is reused only if the length and last modified time
+ * of the file are unchanged. Only the files looked up or recorded since the
+ * manifest was loaded are saved, so that deleted files are dropped.
+ */
+public class SyncManifest {
+    private static final Log log = LogFactory.getLog(SyncManifest.class);
+
+    private final File manifestFile;
+    private final Map<String, Entry> previous = new HashMap<String, Entry>();
+    private final Map<String, Entry> current = new HashMap<String, Entry>();
+
+    private SyncManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Returns the manifest loaded from the given file, or an empty manifest if
+     * the file does not exist or cannot be read.
+     *
+     * @param manifestFile
+     *            the manifest file, or null for a manifest that is never
+     *            saved
+     */
+    public static SyncManifest load(File manifestFile) {
+        SyncManifest manifest = new SyncManifest(manifestFile);
+        if (manifestFile == null || !manifestFile.isFile())
+            return manifest;
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(manifestFile), UTF8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ", 4);
+                if (fields.length < 4)
+                    continue;
+                try {
+                    manifest.previous.put(fields[3], new Entry(fields[0],
+                            Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                } catch (NumberFormatException e) {
+                    // ignore the corrupted entry; the file will be hashed again
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to read the sync manifest " + manifestFile
+                    + "; all files will be hashed again", e);
+            manifest.previous.clear();
+        } finally {
+            IOUtils.closeQuietly(reader, log);
+        }
+        return manifest;
+    }
+
+    /**
+     * Returns the hexadecimal MD5 checksum of the given file, from the
+     * manifest if the file has not changed since it was recorded or else by
+     * reading the file.
+     *
+     * @param path
+     *            the path of the file relative to the synchronized directory
+     */
+    public String getMd5Hex(String path, File file) throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        Entry entry = previous.get(path);
+        if (entry == null || entry.length != length
+                || entry.lastModified != lastModified) {
+            entry = new Entry(BinaryUtils.toHex(Md5Utils.computeMD5Hash(file)),
+                    length, lastModified);
+        }
+        current.put(path, entry);
+        return entry.md5Hex;
+    }
+
+    /**
+     * Records the hexadecimal MD5 checksum of the given file as it is now,
+     * such as the single-part ETag of the object it was just downloaded from.
+     *
+     * @param path
+     *            the path of the file relative to the synchronized directory
+     */
+    public void record(String path, File file, String md5Hex) {
+        current.put(path, new Entry(md5Hex, file.length(), file.lastModified()));
+    }
+
+    /**
+     * Writes the checksums looked up or recorded since this manifest was loaded to the
+     * manifest file, if any.
+     */
+    public void save() {
+        if (manifestFile == null)
+            return;
+        File tmp = new File(manifestFile.getPath() + ".tmp");
+        Writer writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(tmp), UTF8));
+            for (Map.Entry<String, Entry> e : current.entrySet()) {
+                Entry entry = e.getValue();
+                writer.write(entry.md5Hex + " " + entry.length + " "
+                        + entry.lastModified + " " + e.getKey() + "\n");
+            }
+            writer.close();
+            writer = null;
+            if (!(manifestFile.delete() || !manifestFile.exists())
+                    || !tmp.renameTo(manifestFile)) {
+                throw new IOException("Unable to replace " + manifestFile);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to save the sync manifest " + manifestFile, e);
+        } finally {
+            IOUtils.closeQuietly(writer, log);
+        }
+    }
+
+    private static final class Entry {
+        private final String md5Hex;
+        private final long length;
+        private final long lastModified;
+
+        Entry(String md5Hex, long length, long lastModified) {
+            this.md5Hex = md5Hex;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package com.amazonaws.services.s3.transfer.internal;
 
 import static com.amazonaws.services.s3.internal.Constants.MAXIMUM_UPLOAD_PARTS;
+import static com.amazonaws.services.s3.internal.Constants.MB;
 
 import java.io.File;
 import java.util.concurrent.Executors;
@@ -22,6 +23,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.transfer.PauseStatus;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
@@ -32,6 +34,12 @@ import com.amazonaws.services.s3.transfer.TransferManagerConfiguration;
  */
 public class TransferManagerUtils {
 
+    /** Minimum part size of an adaptive copy within a region. */
+    private static final long MINIMUM_ADAPTIVE_COPY_PART_SIZE = 64 * MB;
+
+    /** Minimum part size of an adaptive copy across regions. */
+    private static final long MINIMUM_CROSS_REGION_ADAPTIVE_COPY_PART_SIZE = 16 * MB;
+
     /**
      * Returns a new thread pool configured with the default settings.
      *
@@ -71,6 +79,65 @@ public class TransferManagerUtils {
         return (getRequestFile(putObjectRequest) != null);
     }
 
+    /**
+     * Returns true if the specified upload request reads from an input stream
+     * that can be split into parts read ahead into memory and uploaded in
+     * parallel.
+     *
+     * @param putObjectRequest
+     *            The request to check.
+     * @param isUsingEncryption
+     *            True if the upload is an encrypted upload, otherwise false.
+     * @param configuration
+     *            Configuration settings controlling how transfer manager
+     *            processes requests.
+     *
+     * @return True if this request can upload the parts of its input stream
+     *         in parallel.
+     */
+    public static boolean isUploadStreamable(final PutObjectRequest putObjectRequest,
+            final boolean isUsingEncryption,
+            final TransferManagerConfiguration configuration) {
+        // Parts of an encrypted upload must be uploaded in order
+        if (isUsingEncryption) return false;
+
+        return configuration.getMaxInFlightStreamUploadParts() > 1
+            && getRequestFile(putObjectRequest) == null
+            && putObjectRequest.getInputStream() != null;
+    }
+
+    /**
+     * Returns true if the specified download request can be fetched as
+     * concurrent byte-range GET requests for increased performance.
+     *
+     * @param getObjectRequest
+     *            The request to check.
+     * @param isUsingEncryption
+     *            True if the download is an encrypted download, otherwise
+     *            false.
+     * @param contentLength
+     *            The size of the object to download.
+     * @param configuration
+     *            Configuration settings controlling how transfer manager
+     *            processes requests.
+     *
+     * @return True if this request can use parallel ranged downloads.
+     */
+    public static boolean isDownloadParallelizable(
+            final GetObjectRequest getObjectRequest,
+            final boolean isUsingEncryption, final long contentLength,
+            final TransferManagerConfiguration configuration) {
+        // Ranges of an encrypted object can't be decrypted independently
+        if (isUsingEncryption) return false;
+
+        // Honor any range specified by the caller as a single request
+        if (getObjectRequest.getRange() != null) return false;
+
+        return configuration.getDownloadPartSize() > 0
+            && contentLength > configuration.getDownloadPartSize()
+            && contentLength >= configuration.getMultipartDownloadThreshold();
+    }
+
     /**
      * Returns the size of the data in this request, otherwise -1 if the content
      * length is unknown.
@@ -164,6 +231,69 @@ public class TransferManagerUtils {
                 configuration.getMultipartCopyPartSize());
     }
 
+    /**
+     * Calculates the optimal part size of each part request if the copy
+     * operation is carried out as multi-part copy, splitting the object into
+     * as many parts as the configured multi-part copy parallelism if any.
+     *
+     * @param copyObjectRequest
+     *            the original request.
+     * @param configuration
+     *            configuration containing the default part size.
+     * @param contentLengthOfSource
+     *            content length of the Amazon S3 object.
+     * @param isCrossRegion
+     *            whether the source and destination buckets are in different
+     *            regions.
+     * @return the optimal part size for a copy part request.
+     */
+    public static long calculateOptimalPartSizeForCopy(
+            CopyObjectRequest copyObjectRequest,
+            TransferManagerConfiguration configuration,
+            long contentLengthOfSource, boolean isCrossRegion) {
+        long optimalPartSize = calculateOptimalPartSizeForCopy(
+                copyObjectRequest, configuration, contentLengthOfSource);
+        int parallelism = configuration.getMultipartCopyParallelism();
+        if (parallelism <= 0)
+            return optimalPartSize;
+        if (isCrossRegion)
+            parallelism *= 2;
+        long adaptivePartSize = Math.max(
+                (contentLengthOfSource + parallelism - 1) / parallelism,
+                getMinimumAdaptiveCopyPartSize(isCrossRegion));
+        // never go over the maximum number of parts
+        long minimumPartSize = (contentLengthOfSource + MAXIMUM_UPLOAD_PARTS - 1)
+                / MAXIMUM_UPLOAD_PARTS;
+        return Math.max(Math.min(adaptivePartSize, optimalPartSize),
+                minimumPartSize);
+    }
+
+    /**
+     * Returns true if an object of the given size should be copied as a
+     * multi-part copy.
+     *
+     * @param contentLengthOfSource
+     *            content length of the Amazon S3 object.
+     * @param isCrossRegion
+     *            whether the source and destination buckets are in different
+     *            regions.
+     * @param configuration
+     *            configuration containing the multi-part copy threshold.
+     */
+    public static boolean isMultipartCopy(long contentLengthOfSource,
+            boolean isCrossRegion, TransferManagerConfiguration configuration) {
+        if (contentLengthOfSource > configuration.getMultipartCopyThreshold())
+            return true;
+        return configuration.getMultipartCopyParallelism() > 0
+            && contentLengthOfSource >= 2 * getMinimumAdaptiveCopyPartSize(isCrossRegion);
+    }
+
+    private static long getMinimumAdaptiveCopyPartSize(boolean isCrossRegion) {
+        return isCrossRegion
+             ? MINIMUM_CROSS_REGION_ADAPTIVE_COPY_PART_SIZE
+             : MINIMUM_ADAPTIVE_COPY_PART_SIZE;
+    }
+
     /**
      * Determines the pause status based on the current state of transfer.
      */
@@ -16,23 +16,32 @@ package com.amazonaws.services.s3.transfer.internal;
 
 import static com.amazonaws.event.SDKProgressPublisher.publishProgress;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.event.ProgressEventType;
 import com.amazonaws.event.ProgressListenerChain;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3Encryption;
+import com.amazonaws.services.s3.internal.ByteBufferInputStream;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
@@ -74,6 +83,27 @@ public class UploadCallable implements Callable<UploadResult> {
 
     private PersistableUpload persistableUpload;
 
+    /**
+     * True if this is an upload from an input stream of unknown length that
+     * turned out to be larger than a part.
+     */
+    private volatile boolean isMultipartStream;
+
+    /**
+     * Part buffers of a parallel input stream upload that are ready for
+     * reuse.
+     */
+    private final BlockingQueue<ByteBuffer> freeBuffers = new LinkedBlockingQueue<ByteBuffer>();
+
+    /** Number of part buffers allocated by a parallel input stream upload. */
+    private int buffersAllocated;
+
+    /**
+     * Parts of a parallel input stream upload that may not have completed
+     * yet, oldest first.
+     */
+    private final LinkedList<FutureTask<PartETag>> pendingParts = new LinkedList<FutureTask<PartETag>>();
+
     public UploadCallable(TransferManager transferManager,
             ExecutorService threadPool, UploadImpl upload,
             PutObjectRequest origReq,
@@ -111,33 +141,66 @@ public class UploadCallable implements Callable<UploadResult> {
      * @return True if this UploadCallable is processing a multipart upload.
      */
     public boolean isMultipartUpload() {
-        return TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
+        return isMultipartStream
+            || TransferManagerUtils.shouldUseMultipartUpload(origReq, configuration);
     }
 
     public UploadResult call() throws Exception {
         upload.setState(TransferState.InProgress);
         if ( isMultipartUpload() ) {
             publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
-            return uploadInParts();
+            return uploadInParts(null);
+        } else if (TransferManagerUtils.getContentLength(origReq) < 0
+                && TransferManagerUtils.isUploadStreamable(origReq,
+                        s3 instanceof AmazonS3Encryption, configuration)) {
+            return uploadStreamOfUnknownLength();
         } else {
-            return uploadInOneChunk();
+            return uploadInOneChunk(origReq);
         }
     }
 
     /**
      * Uploads the given request in a single chunk and returns the result.
      */
-    private UploadResult uploadInOneChunk() {
-        PutObjectResult putObjectResult = s3.putObject(origReq);
+    private UploadResult uploadInOneChunk(PutObjectRequest req) {
+        PutObjectResult putObjectResult = s3.putObject(req);
 
         UploadResult uploadResult = new UploadResult();
-        uploadResult.setBucketName(origReq.getBucketName());
-        uploadResult.setKey(origReq.getKey());
+        uploadResult.setBucketName(req.getBucketName());
+        uploadResult.setKey(req.getKey());
         uploadResult.setETag(putObjectResult.getETag());
         uploadResult.setVersionId(putObjectResult.getVersionId());
         return uploadResult;
     }
 
+    /**
+     * Uploads an input stream of unknown length in a single chunk if it fits
+     * in one part, or else in multiple parts uploaded in parallel, and
+     * returns the result of the single chunk upload or null.
+     */
+    private UploadResult uploadStreamOfUnknownLength() throws Exception {
+        ByteBuffer firstPart = acquirePartBuffer(getOptimalPartSize(false));
+        boolean isEndOfStream;
+        try {
+            isEndOfStream = fill(origReq.getInputStream(), firstPart);
+        } catch (IOException e) {
+            closeInputStream();
+            throw new AmazonClientException(
+                    "Unable to read the data to upload: " + e.getMessage(), e);
+        }
+        if (isEndOfStream) {
+            closeInputStream();
+            firstPart.flip();
+            PutObjectRequest req = origReq.clone();
+            req.setInputStream(new ByteBufferInputStream(firstPart));
+            req.getMetadata().setContentLength(firstPart.remaining());
+            return uploadInOneChunk(req);
+        }
+        isMultipartStream = true;
+        publishProgress(listener, ProgressEventType.TRANSFER_STARTED_EVENT);
+        return uploadInParts(firstPart);
+    }
+
     /**
      * Captures the state of the upload.
      */
@@ -168,8 +231,12 @@ public class UploadCallable implements Callable<UploadResult> {
      * Uploads the request in multiple chunks, submitting each upload chunk task
      * to the thread pool and recording its corresponding Future object, as well
      * as the multipart upload id.
+     *
+     * @param firstPart
+     *            the first part already read from the input stream of the
+     *            request, or null if none
      */
-    private UploadResult uploadInParts() throws Exception {
+    private UploadResult uploadInParts(ByteBuffer firstPart) throws Exception {
         boolean isUsingEncryption = s3 instanceof AmazonS3Encryption;
         long optimalPartSize = getOptimalPartSize(isUsingEncryption);
 
@@ -185,18 +252,28 @@ public class UploadCallable implements Callable<UploadResult> {
                 captureUploadStateIfPossible();
                 uploadPartsInParallel(requestFactory, multipartUploadId);
                 return null;
+            } else if (TransferManagerUtils.isUploadStreamable(origReq, isUsingEncryption, configuration)) {
+                uploadStreamPartsInParallel(optimalPartSize, firstPart);
+                return null;
             } else {
                 return uploadPartsInSeries(requestFactory);
             }
         } catch (Exception e) {
             publishProgress(listener, ProgressEventType.TRANSFER_FAILED_EVENT);
+            for (Future<PartETag> f : futures) {
+                f.cancel(true);
+            }
             performAbortMultipartUpload();
             throw e;
         } finally {
-            if (origReq.getInputStream() != null) {
-                try {origReq.getInputStream().close(); } catch (Exception e) {
-                    log.warn("Unable to cleanly close input stream: " + e.getMessage(), e);
-                }
+            closeInputStream();
+        }
+    }
+
+    private void closeInputStream() {
+        if (origReq.getInputStream() != null) {
+            try {origReq.getInputStream().close(); } catch (Exception e) {
+                log.warn("Unable to cleanly close input stream: " + e.getMessage(), e);
             }
         }
     }
@@ -294,6 +371,152 @@ public class UploadCallable implements Callable<UploadResult> {
         }
     }
 
+    /**
+     * Reads the input stream of the request into part buffers and submits a
+     * task uploading each part to our thread pool, recording its
+     * corresponding Future. No more part buffers are allocated than the
+     * configured maximum number of parts in flight: once they are all in
+     * use, reading waits for the oldest part to be uploaded.
+     *
+     * @param firstPart
+     *            the first part already read from the input stream, or null
+     *            if none
+     */
+    private void uploadStreamPartsInParallel(long optimalPartSize,
+            ByteBuffer firstPart) throws Exception {
+        final InputStream in = origReq.getInputStream();
+        long remainingBytes = TransferManagerUtils.getContentLength(origReq);
+        int partNumber = 1;
+        boolean isEndOfStream = false;
+        ByteBuffer part = firstPart;
+        while (!isEndOfStream) {
+            if (threadPool.isShutdown()) throw new CancellationException("TransferManager has been shutdown");
+            if (part == null) {
+                part = acquirePartBuffer(optimalPartSize);
+                if (remainingBytes >= 0 && remainingBytes < part.limit()) {
+                    part.limit((int) remainingBytes);
+                }
+                isEndOfStream = fill(in, part);
+            }
+            if (remainingBytes >= 0) {
+                remainingBytes -= part.position();
+                if (remainingBytes > 0 && isEndOfStream) {
+                    throw new AmazonClientException("Data read from the input stream is "
+                            + remainingBytes + " bytes shorter than the content length");
+                }
+                isEndOfStream = remainingBytes == 0;
+            }
+            part.flip();
+            if (part.hasRemaining()) {
+                submitStreamPart(part, partNumber++, isEndOfStream);
+            } else {
+                releasePartBuffer(part);
+            }
+            part = null;
+        }
+    }
+
+    /**
+     * Submits a task uploading the given part buffer to our thread pool, which
+     * releases the buffer once the part is uploaded.
+     */
+    private void submitStreamPart(final ByteBuffer part, int partNumber,
+            boolean isLastPart) {
+        final UploadPartRequest req = new UploadPartRequest()
+            .withBucketName(origReq.getBucketName())
+            .withKey(origReq.getKey())
+            .withUploadId(multipartUploadId)
+            .withInputStream(new ByteBufferInputStream(part))
+            .withPartNumber(partNumber)
+            .withPartSize(part.remaining())
+            .withLastPart(isLastPart);
+        TransferManager.appendMultipartUserAgent(req);
+        if (origReq.getSSECustomerKey() != null) req.setSSECustomerKey(origReq.getSSECustomerKey());
+        req.withGeneralProgressListener(origReq.getGeneralProgressListener())
+           .withRequestMetricCollector(origReq.getRequestMetricCollector())
+           ;
+        req.getRequestClientOptions().setReadLimit(origReq.getReadLimit());
+
+        FutureTask<PartETag> task = new FutureTask<PartETag>(new Callable<PartETag>() {
+            public PartETag call() throws Exception {
+                try {
+                    return s3.uploadPart(req).getPartETag();
+                } finally {
+                    releasePartBuffer(part);
+                }
+            }
+        });
+        pendingParts.add(task);
+        futures.add(task);
+        threadPool.execute(task);
+    }
+
+    /**
+     * Returns an empty part buffer, allocating one if the maximum number of
+     * parts in flight allows or else waiting for the oldest part to be
+     * uploaded.
+     */
+    private ByteBuffer acquirePartBuffer(long partSize) throws Exception {
+        ByteBuffer buffer = freeBuffers.poll();
+        if (buffer != null)
+            return buffer;
+        if (buffersAllocated < configuration.getMaxInFlightStreamUploadParts()) {
+            buffersAllocated++;
+            return ByteBuffer.allocate((int) partSize);
+        }
+        FutureTask<PartETag> oldest = oldestPendingPart();
+        if (oldest != null) {
+            // Upload the oldest part from this thread if the thread pool has
+            // not started it yet, as the pool may be busy with tasks waiting
+            // for part buffers just like this one; has no effect otherwise
+            oldest.run();
+        }
+        // Every buffer not yet free belongs to a pending part
+        return freeBuffers.take();
+    }
+
+    /**
+     * Returns the oldest part that may not have completed yet, or null if
+     * there is none, failing fast if a completed part failed.
+     */
+    private FutureTask<PartETag> oldestPendingPart() throws Exception {
+        while (!pendingParts.isEmpty()) {
+            FutureTask<PartETag> part = pendingParts.getFirst();
+            if (!part.isDone())
+                return part;
+            pendingParts.removeFirst();
+            try {
+                part.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return null;
+    }
+
+    private void releasePartBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        freeBuffers.add(buffer);
+    }
+
+    /**
+     * Reads from the given input stream into the given buffer until it is
+     * full, returning true if the end of the stream was reached.
+     */
+    private static boolean fill(InputStream in, ByteBuffer buffer)
+            throws IOException {
+        byte[] array = buffer.array();
+        while (buffer.hasRemaining()) {
+            int bytesRead = in.read(array, buffer.arrayOffset()
+                    + buffer.position(), buffer.remaining());
+            if (bytesRead == -1)
+                return true;
+            buffer.position(buffer.position() + bytesRead);
+        }
+        return false;
+    }
+
     private Map<Integer, PartSummary> identifyExistingPartsForResume(
             String uploadId) {
         Map<Integer, PartSummary> partNumbers = new HashMap<Integer, PartSummary>();
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.amazonaws.util.Base64;
+import com.amazonaws.util.StringUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link JsonDataConverter} that produces more compact data, for activities
+ * and workflows exchanging values that come close to the size limits of
+ * Simple Workflow. It only reduces the size of the data: converting a value
+ * takes as long as with {@link JsonDataConverter}, plus the time to compress
+ * it when it is compressed.
+ * <p>
+ * Values are serialized to the same JSON as {@link JsonDataConverter}, which
+ * is then compressed with DEFLATE and Base64 encoded whenever it is at least
+ * as long as the compression threshold and the result is shorter, as data
+ * passed to Simple Workflow must be a string. Compressed data is prefixed with
+ * a character that cannot start a JSON document, so this converter also reads
+ * the data produced by {@link JsonDataConverter}. The opposite is not true: all
+ * the workers exchanging data with this converter must use it.
+ * <p>
+ * Use it through
+ * {@link com.amazonaws.services.simpleworkflow.flow.pojo.POJOActivityImplementationFactory#setDataConverter(DataConverter)}
+ * ,
+ * {@link com.amazonaws.services.simpleworkflow.flow.pojo.POJOWorkflowDefinitionFactoryFactory#setDataConverter(DataConverter)}
+ * or the <code>dataConverter</code> attribute of the
+ * {@link com.amazonaws.services.simpleworkflow.flow.annotations.Activities} and
+ * {@link com.amazonaws.services.simpleworkflow.flow.annotations.Workflow}
+ * annotations, on both the implementation and the client side.
+ */
+public class CompactJsonDataConverter extends JsonDataConverter {
+
+    /**
+     * Prefix of compressed data, which is not valid at the start of a JSON
+     * document.
+     */
+    static final char COMPRESSED_PREFIX = '~';
+
+    /**
+     * Length in characters of the JSON below which it is not compressed by
+     * default, as compression hardly saves anything on small values.
+     */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+
+    private final int compressionThreshold;
+
+    /**
+     * Create instance of the converter that uses ObjectMapper configured like
+     * {@link JsonDataConverter#JsonDataConverter()} and the default compression
+     * threshold.
+     */
+    public CompactJsonDataConverter() {
+        super();
+        this.compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    }
+
+    /**
+     * Create instance of the converter that uses {@link ObjectMapper}
+     * configured externally and the default compression threshold.
+     */
+    public CompactJsonDataConverter(ObjectMapper mapper) {
+        this(mapper, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Create instance of the converter that uses {@link ObjectMapper}
+     * configured externally.
+     *
+     * @param compressionThreshold
+     *            length in characters of the JSON from which it is
+     *            compressed; {@link Integer#MAX_VALUE} disables compression
+     */
+    public CompactJsonDataConverter(ObjectMapper mapper, int compressionThreshold) {
+        super(mapper);
+        if (compressionThreshold < 0) {
+            throw new IllegalArgumentException("negative compressionThreshold: " + compressionThreshold);
+        }
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @Override
+    public String toData(Object value) throws DataConverterException {
+        String result = super.toData(value);
+        if (result.length() >= compressionThreshold) {
+            String compressed;
+            try {
+                compressed = COMPRESSED_PREFIX + Base64.encodeAsString(deflate(result.getBytes(StringUtils.UTF8)));
+            }
+            catch (IOException e) {
+                throw new DataConverterException(e);
+            }
+            if (compressed.length() < result.length()) {
+                result = compressed;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <T> T fromData(String serialized, Class<T> valueType) throws DataConverterException {
+        if (serialized == null || serialized.length() == 0 || serialized.charAt(0) != COMPRESSED_PREFIX) {
+            return super.fromData(serialized, valueType);
+        }
+        InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(Base64.decode(serialized.substring(1))));
+        try {
+            return mapper.readValue(in, valueType);
+        }
+        catch (IOException e) {
+            throw new DataConverterException(e);
+        }
+        finally {
+            try {
+                in.close();
+            }
+            catch (IOException e) {
+                // ignore as nothing is left to release
+            }
+        }
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2);
+        DeflaterOutputStream out = new DeflaterOutputStream(bytes);
+        out.write(data);
+        out.close();
+        return bytes.toByteArray();
+    }
+}
@@ -15,7 +15,9 @@
 package com.amazonaws.services.simpleworkflow.flow;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contains value that is bound to a currently executing workflow. Has the same
@@ -68,6 +70,51 @@ public class WorkflowExecutionLocal<T> {
         }
     }
 
+    /**
+     * Unbinds the values of the current thread like {@link #after()}, but
+     * returns them so that a decider kept in memory between decisions can
+     * resume with them through {@link #resume(Map)}, possibly on a different
+     * thread. It is not a good idea to call this method from non framework
+     * code.
+     */
+    public static Map<WorkflowExecutionLocal<?>, Object> suspend() {
+        List<WorkflowExecutionLocal<?>> currentLocals;
+        synchronized (locals) {
+            currentLocals = new ArrayList<WorkflowExecutionLocal<?>>(locals);
+        }
+        // Identity as hashCode() is the one of the value of the current thread
+        Map<WorkflowExecutionLocal<?>, Object> result = new IdentityHashMap<WorkflowExecutionLocal<?>, Object>();
+        for (WorkflowExecutionLocal<?> local : currentLocals) {
+            Wrapper<?> w = local.value.get();
+            if (w != null) {
+                result.put(local, w);
+            }
+            local.removeAfter();
+        }
+        return result;
+    }
+
+    /**
+     * Binds to the current thread the values returned by {@link #suspend()}
+     * instead of the initial ones set by {@link #before()}. It is not a good
+     * idea to call this method from non framework code.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static void resume(Map<WorkflowExecutionLocal<?>, Object> values) {
+        List<WorkflowExecutionLocal<?>> currentLocals;
+        synchronized (locals) {
+            currentLocals = new ArrayList<WorkflowExecutionLocal<?>>(locals);
+        }
+        for (WorkflowExecutionLocal local : currentLocals) {
+            Wrapper w = (Wrapper) values.get(local);
+            if (w == null) {
+                w = new Wrapper();
+                w.wrapped = local.initialValue();
+            }
+            local.set(w);
+        }
+    }
+
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public WorkflowExecutionLocal() {
         Wrapper w = new Wrapper();
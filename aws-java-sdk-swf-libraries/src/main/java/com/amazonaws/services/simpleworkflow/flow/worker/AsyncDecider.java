@@ -16,6 +16,7 @@ package com.amazonaws.services.simpleworkflow.flow.worker;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 
 import org.apache.commons.logging.Log;
@@ -25,6 +26,7 @@ import com.amazonaws.AmazonServiceException;
 import com.amazonaws.AmazonServiceException.ErrorType;
 import com.amazonaws.services.simpleworkflow.flow.DecisionContext;
 import com.amazonaws.services.simpleworkflow.flow.WorkflowException;
+import com.amazonaws.services.simpleworkflow.flow.WorkflowExecutionLocal;
 import com.amazonaws.services.simpleworkflow.flow.core.AsyncScope;
 import com.amazonaws.services.simpleworkflow.flow.core.AsyncTaskInfo;
 import com.amazonaws.services.simpleworkflow.flow.core.Promise;
@@ -131,7 +133,7 @@ class AsyncDecider {
 
     private WorkflowDefinition definition;
 
-    private final HistoryHelper historyHelper;
+    private HistoryHelper historyHelper;
 
     private final DecisionsHelper decisionsHelper;
 
@@ -157,6 +159,12 @@ class AsyncDecider {
 
     private Throwable failure;
 
+    /**
+     * Values of the workflow execution locals while the decider is kept alive
+     * between decisions.
+     */
+    private Map<WorkflowExecutionLocal<?>, Object> executionLocals;
+
     public AsyncDecider(WorkflowDefinitionFactory workflowDefinitionFactory, HistoryHelper historyHelper,
             DecisionsHelper decisionsHelper) throws Exception {
         this.workflowDefinitionFactory = workflowDefinitionFactory;
@@ -444,85 +452,65 @@ class AsyncDecider {
     }
 
     public void decide() throws Exception {
-        try {
-            definition = workflowDefinitionFactory.getWorkflowDefinition(context);
-            if (definition == null) {
-                throw new IllegalStateException("Unknown workflow type: " + context.getWorkflowContext().getWorkflowType());
-            }
-            long lastNonReplayedEventId = historyHelper.getLastNonReplayEventId();
-            // Buffer events until the next DecisionTaskStarted and then process them
-            // setting current time to the time of DecisionTaskStarted event
-            EventsIterator eventsIterator = historyHelper.getEvents();
-            List<HistoryEvent> reordered = null;
-            do {
-                List<HistoryEvent> decisionStartToCompletionEvents = new ArrayList<HistoryEvent>();
-                List<HistoryEvent> decisionCompletionToStartEvents = new ArrayList<HistoryEvent>();
-                boolean concurrentToDecision = true;
-                int lastDecisionIndex = -1;
-                while (eventsIterator.hasNext()) {
-                    HistoryEvent event = eventsIterator.next();
-                    EventType eventType = EventType.valueOf(event.getEventType());
-                    if (eventType == EventType.DecisionTaskCompleted) {
-                        decisionsHelper.setWorkflowContextData(event.getDecisionTaskCompletedEventAttributes().getExecutionContext());
-                        concurrentToDecision = false;
-                    }
-                    else if (eventType == EventType.DecisionTaskStarted) {
-                        decisionsHelper.handleDecisionTaskStartedEvent();
+        decide(false, false);
+    }
 
-                        if (!eventsIterator.isNextDecisionTimedOut()) {
-                            long replayCurrentTimeMilliseconds = event.getEventTimestamp().getTime();
-                            workflowClock.setReplayCurrentTimeMilliseconds(replayCurrentTimeMilliseconds);
-                            break;
-                        }
-                    }
-                    else if (eventType == EventType.DecisionTaskScheduled || eventType == EventType.DecisionTaskTimedOut) {
-                        // skip
-                    }
-                    else {
-                        if (concurrentToDecision) {
-                            decisionStartToCompletionEvents.add(event);
-                        }
-                        else {
-                            if (isDecisionEvent(eventType)) {
-                                lastDecisionIndex = decisionCompletionToStartEvents.size();
-                            }
-                            decisionCompletionToStartEvents.add(event);
-                        }
-                    }
-                }
-                int size = decisionStartToCompletionEvents.size() + decisionStartToCompletionEvents.size();
-                // Reorder events to correspond to the order that decider sees them. 
-                // The main difference is that events that were added during decision task execution 
-                // should be processed after events that correspond to the decisions. 
-                // Otherwise the replay is going to break.
-                reordered = new ArrayList<HistoryEvent>(size);
-                // First are events that correspond to the previous task decisions
-                if (lastDecisionIndex >= 0) {
-                    reordered.addAll(decisionCompletionToStartEvents.subList(0, lastDecisionIndex + 1));
-                }
-                // Second are events that were added during previous task execution
-                reordered.addAll(decisionStartToCompletionEvents);
-                // The last are events that were added after previous task completion
-                if (decisionCompletionToStartEvents.size() > lastDecisionIndex + 1) {
-                    reordered.addAll(decisionCompletionToStartEvents.subList(lastDecisionIndex + 1,
-                            decisionCompletionToStartEvents.size()));
-                }
-                for (HistoryEvent event : reordered) {
-                    if (event.getEventId() >= lastNonReplayedEventId) {
-                        workflowClock.setReplaying(false);
-                    }
-                    EventType eventType = EventType.valueOf(event.getEventType());
-                    processEvent(event, eventType);
-                    eventLoop(event);
-                }
-                completeWorkflow();
+    /**
+     * Replays the history and makes the decisions of the decision task like
+     * {@link #decide()}.
+     * 
+     * @param keepAlive
+     *            if true and the workflow is still open after the decisions,
+     *            the workflow definition is kept alive instead of deleted so
+     *            that the decider can handle the next decision task through
+     *            {@link #decideNext(HistoryHelper)}. It must then be
+     *            {@link #close() closed} once no longer needed.
+     * @return true if the decider is kept alive
+     */
+    boolean decide(boolean keepAlive) throws Exception {
+        return decide(false, keepAlive);
+    }
+
+    /**
+     * Makes the decisions of the next decision task of the workflow execution
+     * of a decider kept alive, applying only the events that were added to
+     * the history since the previous decision task.
+     * 
+     * @param newEvents
+     *            the events following the DecisionTaskStarted event of the
+     *            previous decision task, up to the DecisionTaskStarted event
+     *            of the new one
+     * @return true if the decider is still kept alive
+     */
+    boolean decideNext(HistoryHelper newEvents) throws Exception {
+        historyHelper = newEvents;
+        return decide(true, true);
+    }
+
+    /**
+     * Deletes the workflow definition of a decider kept alive.
+     */
+    void close() {
+        WorkflowExecutionLocal.resume(executionLocals);
+        executionLocals = null;
+        workflowDefinitionFactory.deleteWorkflowDefinition(definition);
+    }
 
+    private boolean decide(boolean resume, boolean keepAlive) throws Exception {
+        boolean alive = false;
+        try {
+            if (resume) {
+                WorkflowExecutionLocal.resume(executionLocals);
+                executionLocals = null;
             }
-            while (eventsIterator.hasNext());
-            if (unhandledDecision) {
-                unhandledDecision = false;
-                completeWorkflow();
+            else {
+                definition = workflowDefinitionFactory.getWorkflowDefinition(context);
+                if (definition == null) {
+                    throw new IllegalStateException("Unknown workflow type: " + context.getWorkflowContext().getWorkflowType());
+                }
             }
+            processEvents();
+            alive = keepAlive && !completed && !decisionsHelper.isWorkflowFailed();
         }
         catch (AmazonServiceException e) {
             // We don't want to fail workflow on service exceptions like 500 or throttling
@@ -553,7 +541,93 @@ class AsyncDecider {
             catch (Throwable e) {
                 decisionsHelper.setWorkflowContextData(e.getMessage());
             }
-            workflowDefinitionFactory.deleteWorkflowDefinition(this.definition);
+            if (alive) {
+                executionLocals = WorkflowExecutionLocal.suspend();
+                // The next decision only needs the state of the workflow, not its history
+                historyHelper.getDecisionTask().setEvents(null);
+                historyHelper = null;
+            }
+            else {
+                workflowDefinitionFactory.deleteWorkflowDefinition(this.definition);
+            }
+        }
+        return alive;
+    }
+
+    private void processEvents() throws Throwable {
+        long lastNonReplayedEventId = historyHelper.getLastNonReplayEventId();
+        // Buffer events until the next DecisionTaskStarted and then process them
+        // setting current time to the time of DecisionTaskStarted event
+        EventsIterator eventsIterator = historyHelper.getEvents();
+        List<HistoryEvent> reordered = null;
+        do {
+            List<HistoryEvent> decisionStartToCompletionEvents = new ArrayList<HistoryEvent>();
+            List<HistoryEvent> decisionCompletionToStartEvents = new ArrayList<HistoryEvent>();
+            boolean concurrentToDecision = true;
+            int lastDecisionIndex = -1;
+            while (eventsIterator.hasNext()) {
+                HistoryEvent event = eventsIterator.next();
+                EventType eventType = EventType.valueOf(event.getEventType());
+                if (eventType == EventType.DecisionTaskCompleted) {
+                    decisionsHelper.setWorkflowContextData(event.getDecisionTaskCompletedEventAttributes().getExecutionContext());
+                    concurrentToDecision = false;
+                }
+                else if (eventType == EventType.DecisionTaskStarted) {
+                    decisionsHelper.handleDecisionTaskStartedEvent();
+
+                    if (!eventsIterator.isNextDecisionTimedOut()) {
+                        long replayCurrentTimeMilliseconds = event.getEventTimestamp().getTime();
+                        workflowClock.setReplayCurrentTimeMilliseconds(replayCurrentTimeMilliseconds);
+                        break;
+                    }
+                }
+                else if (eventType == EventType.DecisionTaskScheduled || eventType == EventType.DecisionTaskTimedOut) {
+                    // skip
+                }
+                else {
+                    if (concurrentToDecision) {
+                        decisionStartToCompletionEvents.add(event);
+                    }
+                    else {
+                        if (isDecisionEvent(eventType)) {
+                            lastDecisionIndex = decisionCompletionToStartEvents.size();
+                        }
+                        decisionCompletionToStartEvents.add(event);
+                    }
+                }
+            }
+            int size = decisionStartToCompletionEvents.size() + decisionStartToCompletionEvents.size();
+            // Reorder events to correspond to the order that decider sees them. 
+            // The main difference is that events that were added during decision task execution 
+            // should be processed after events that correspond to the decisions. 
+            // Otherwise the replay is going to break.
+            reordered = new ArrayList<HistoryEvent>(size);
+            // First are events that correspond to the previous task decisions
+            if (lastDecisionIndex >= 0) {
+                reordered.addAll(decisionCompletionToStartEvents.subList(0, lastDecisionIndex + 1));
+            }
+            // Second are events that were added during previous task execution
+            reordered.addAll(decisionStartToCompletionEvents);
+            // The last are events that were added after previous task completion
+            if (decisionCompletionToStartEvents.size() > lastDecisionIndex + 1) {
+                reordered.addAll(decisionCompletionToStartEvents.subList(lastDecisionIndex + 1,
+                        decisionCompletionToStartEvents.size()));
+            }
+            for (HistoryEvent event : reordered) {
+                if (event.getEventId() >= lastNonReplayedEventId) {
+                    workflowClock.setReplaying(false);
+                }
+                EventType eventType = EventType.valueOf(event.getEventType());
+                processEvent(event, eventType);
+                eventLoop(event);
+            }
+            completeWorkflow();
+
+        }
+        while (eventsIterator.hasNext());
+        if (unhandledDecision) {
+            unhandledDecision = false;
+            completeWorkflow();
         }
     }
 
@@ -14,9 +14,13 @@
  */
 package com.amazonaws.services.simpleworkflow.flow.worker;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -27,6 +31,9 @@ import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFact
 import com.amazonaws.services.simpleworkflow.flow.generic.WorkflowDefinitionFactoryFactory;
 import com.amazonaws.services.simpleworkflow.model.Decision;
 import com.amazonaws.services.simpleworkflow.model.DecisionTask;
+import com.amazonaws.services.simpleworkflow.model.DecisionTaskCompletedEventAttributes;
+import com.amazonaws.services.simpleworkflow.model.EventType;
+import com.amazonaws.services.simpleworkflow.model.HistoryEvent;
 import com.amazonaws.services.simpleworkflow.model.RespondDecisionTaskCompletedRequest;
 import com.amazonaws.services.simpleworkflow.model.WorkflowType;
 
@@ -37,17 +44,135 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
     private static final Log asyncThreadDumpLog = LogFactory.getLog(AsyncDecisionTaskHandler.class.getName()
             + ".waitingTasksStacks");
 
+    /**
+     * A decider kept alive after a decision task of its workflow execution.
+     */
+    private static final class CachedDecider {
+
+        private final AsyncDecider decider;
+
+        private final long startedEventId;
+
+        private CachedDecider(AsyncDecider decider, long startedEventId) {
+            this.decider = decider;
+            this.startedEventId = startedEventId;
+        }
+    }
+
     private final WorkflowDefinitionFactoryFactory definitionFactoryFactory;
 
+    private final int deciderCacheSize;
+
+    /**
+     * Deciders kept alive by run id, in access order for the least recently
+     * used to be evicted first. Null if the cache is disabled.
+     */
+    private final LinkedHashMap<String, CachedDecider> cachedDeciders;
+
     public AsyncDecisionTaskHandler(WorkflowDefinitionFactoryFactory definitionFactoryFactory) {
+        this(definitionFactoryFactory, 0);
+    }
+
+    /**
+     * @param deciderCacheSize
+     *            maximum number of workflow executions whose deciders are
+     *            kept in memory between decision tasks, so that a decision
+     *            task of the same execution handled by this handler only
+     *            applies the events added since the previous one instead of
+     *            replaying the whole history. The least recently used deciders
+     *            are evicted first. 0 disables the cache.
+     */
+    public AsyncDecisionTaskHandler(WorkflowDefinitionFactoryFactory definitionFactoryFactory, int deciderCacheSize) {
+        if (deciderCacheSize < 0) {
+            throw new IllegalArgumentException("negative deciderCacheSize: " + deciderCacheSize);
+        }
         this.definitionFactoryFactory = definitionFactoryFactory;
+        this.deciderCacheSize = deciderCacheSize;
+        if (deciderCacheSize > 0) {
+            cachedDeciders = new LinkedHashMap<String, CachedDecider>(16, 0.75f, true);
+        }
+        else {
+            cachedDeciders = null;
+        }
+    }
+
+    public int getDeciderCacheSize() {
+        return deciderCacheSize;
+    }
+
+    /**
+     * The history is requested newest events first when the decider cache is
+     * enabled, so that paging stops at the events already applied to a cached
+     * decider.
+     */
+    @Override
+    public boolean isHistoryInReverseOrder() {
+        return cachedDeciders != null;
     }
 
     @Override
     public RespondDecisionTaskCompletedRequest handleDecisionTask(Iterator<DecisionTask> decisionTaskIterator) throws Exception {
-        HistoryHelper historyHelper = new HistoryHelper(decisionTaskIterator);
-        AsyncDecider decider = createDecider(historyHelper);
-        decider.decide();
+        HistoryHelper historyHelper;
+        AsyncDecider decider;
+        if (cachedDeciders == null) {
+            historyHelper = new HistoryHelper(decisionTaskIterator);
+            decider = createDecider(historyHelper);
+            decider.decide();
+        }
+        else {
+            DecisionTask firstPage = decisionTaskIterator.next();
+            String runId = firstPage.getWorkflowExecution().getRunId();
+            CachedDecider cached;
+            synchronized (cachedDeciders) {
+                // Removed while in use so that it is never shared by two decision tasks
+                cached = cachedDeciders.remove(runId);
+            }
+            long knownEventId = cached == null ? 0 : cached.startedEventId;
+            List<HistoryEvent> events = new ArrayList<HistoryEvent>();
+            boolean pagedToKnownEvent;
+            try {
+                pagedToKnownEvent = readHistoryInReverseOrder(firstPage, decisionTaskIterator, knownEventId, events);
+            }
+            catch (RuntimeException e) {
+                if (cached != null) {
+                    cached.decider.close();
+                }
+                throw e;
+            }
+            if (cached != null && !(pagedToKnownEvent && isContinuation(firstPage, knownEventId, events))) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Replaying full history instead of cached decider: workflowExecution="
+                            + firstPage.getWorkflowExecution() + ", previousStartedEventId="
+                            + firstPage.getPreviousStartedEventId() + ", cachedStartedEventId=" + knownEventId);
+                }
+                cached.decider.close();
+                cached = null;
+                readHistoryInReverseOrder(null, decisionTaskIterator, 0, events);
+            }
+            if (cached != null) {
+                // Only the events since the previous decision task are applied
+                for (int i = events.size() - 1; i >= 0 && events.get(i).getEventId() <= knownEventId; i--) {
+                    events.remove(i);
+                }
+            }
+            Collections.reverse(events);
+            DecisionTask decisionTask = firstPage.clone();
+            decisionTask.setEvents(events);
+            decisionTask.setNextPageToken(null);
+            historyHelper = new HistoryHelper(Collections.singletonList(decisionTask).iterator());
+            boolean alive;
+            if (cached != null) {
+                decider = cached.decider;
+                alive = decider.decideNext(historyHelper);
+            }
+            else {
+                decider = createDecider(historyHelper);
+                alive = decider.decide(true);
+            }
+            if (alive) {
+                cacheDecider(runId, new CachedDecider(decider, decisionTask.getStartedEventId()));
+            }
+        }
         DecisionsHelper decisionsHelper = decider.getDecisionsHelper();
         Collection<Decision> decisions = decisionsHelper.getDecisions();
         String context = decisionsHelper.getWorkflowContextDataToReturn();
@@ -95,6 +220,74 @@ public class AsyncDecisionTaskHandler extends DecisionTaskHandler {
         return decider.getAsynchronousThreadDumpAsString();
     }
 
+    /**
+     * Adds to the events the ones of the pages of a history in reverse order,
+     * starting from the given page if not null and then the following ones,
+     * until reaching the event with the given id.
+     * 
+     * @return true if the event with the given id was reached, false if all
+     *         the pages were read
+     */
+    private static boolean readHistoryInReverseOrder(DecisionTask page, Iterator<DecisionTask> decisionTaskIterator,
+            long knownEventId, List<HistoryEvent> events) {
+        while (true) {
+            if (page != null) {
+                List<HistoryEvent> pageEvents = page.getEvents();
+                events.addAll(pageEvents);
+                if (knownEventId > 0 && !pageEvents.isEmpty()
+                        && pageEvents.get(pageEvents.size() - 1).getEventId() <= knownEventId) {
+                    return true;
+                }
+            }
+            if (!decisionTaskIterator.hasNext()) {
+                return false;
+            }
+            page = decisionTaskIterator.next();
+        }
+    }
+
+    /**
+     * Checks that the decisions of the decision task that started with the
+     * given event were completed and that no other decision task was handled
+     * since, in which case the new events can be applied to the cached
+     * decider.
+     * 
+     * @param events
+     *            the events of the history in reverse order
+     */
+    private static boolean isContinuation(DecisionTask decisionTask, long knownEventId, List<HistoryEvent> events) {
+        Long previousStartedEventId = decisionTask.getPreviousStartedEventId();
+        if (previousStartedEventId == null || previousStartedEventId != knownEventId) {
+            return false;
+        }
+        for (HistoryEvent event : events) {
+            if (event.getEventId() <= knownEventId) {
+                break;
+            }
+            if (EventType.DecisionTaskCompleted.toString().equals(event.getEventType())) {
+                DecisionTaskCompletedEventAttributes attributes = event.getDecisionTaskCompletedEventAttributes();
+                Long startedEventId = attributes.getStartedEventId();
+                return startedEventId != null && startedEventId == knownEventId;
+            }
+        }
+        return false;
+    }
+
+    private void cacheDecider(String runId, CachedDecider decider) {
+        List<CachedDecider> evicted = new ArrayList<CachedDecider>();
+        synchronized (cachedDeciders) {
+            cachedDeciders.put(runId, decider);
+            Iterator<CachedDecider> iterator = cachedDeciders.values().iterator();
+            while (cachedDeciders.size() > deciderCacheSize) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        for (CachedDecider cached : evicted) {
+            cached.decider.close();
+        }
+    }
+
     private AsyncDecider createDecider(HistoryHelper historyHelper) throws Exception {
         DecisionTask decisionTask = historyHelper.getDecisionTask();
         WorkflowType workflowType = decisionTask.getWorkflowType();
@@ -53,6 +53,17 @@ public abstract class DecisionTaskHandler {
      */
     public abstract RespondDecisionTaskCompletedRequest handleDecisionTask(Iterator<DecisionTask> decisionTaskIterator) throws Exception;
 
+    /**
+     * @return true if the pages of the history passed to
+     *         {@link #handleDecisionTask(Iterator)} are expected in reverse
+     *         order, newest events first, so that the implementation can stop
+     *         paging once it reaches events it already knows about. False by
+     *         default.
+     */
+    public boolean isHistoryInReverseOrder() {
+        return false;
+    }
+
     public abstract List<AsyncTaskInfo> getAsynchronousThreadDump(Iterator<DecisionTask> decisionTaskIterator) throws Exception;
 
     public abstract String getAsynchronousThreadDumpAsString(Iterator<DecisionTask> decisionTaskIterator) throws Exception;
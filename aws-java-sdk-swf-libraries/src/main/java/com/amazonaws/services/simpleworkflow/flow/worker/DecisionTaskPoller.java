@@ -40,31 +40,37 @@ public class DecisionTaskPoller implements TaskPoller {
 
         private DecisionTask next;
 
+        private String nextPageToken;
+
         public DecisionTaskIterator() {
             next = firstDecisionTask = poll(null);
         }
 
         @Override
         public boolean hasNext() {
-            return next != null;
+            return next != null || nextPageToken != null;
         }
 
+        /**
+         * Pages are polled only when requested so that a handler can stop
+         * paging through the history once it has the events it needs.
+         */
         @Override
         public DecisionTask next() {
             if (!hasNext()) {
                 throw new IllegalStateException("hasNext() == false");
             }
             DecisionTask result = next;
-            if (next.getNextPageToken() == null) {
-                next = null;
-            }
-            else {
-                next = poll(next.getNextPageToken());
-                // Just to not keep around the history page
-                if (firstDecisionTask != result) {
-                    firstDecisionTask.setEvents(null);
+            next = null;
+            if (result == null) {
+                result = poll(nextPageToken);
+                if (result == null) {
+                    throw new IllegalStateException("No history page returned for nextPageToken=" + nextPageToken);
                 }
+                // Just to not keep around the history page
+                firstDecisionTask.setEvents(null);
             }
+            nextPageToken = result.getNextPageToken();
             return result;
         }
 
@@ -162,6 +168,9 @@ public class DecisionTaskPoller implements TaskPoller {
         pollRequest.setDomain(domain);
         pollRequest.setIdentity(identity);
         pollRequest.setNextPageToken(nextResultToken);
+        if (decisionTaskHandler.isHistoryInReverseOrder()) {
+            pollRequest.setReverseOrder(true);
+        }
 
         pollRequest.setTaskList(new TaskList().withName(taskListToPoll));
 
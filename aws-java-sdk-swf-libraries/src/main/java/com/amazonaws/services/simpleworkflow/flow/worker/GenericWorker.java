@@ -64,6 +64,7 @@ public abstract class GenericWorker implements WorkerBase {
 
         @Override
         public void run() {
+            boolean taskReceived = false;
             try {
                 if (log.isDebugEnabled()) {
                     log.debug("poll task begin");
@@ -91,7 +92,7 @@ public abstract class GenericWorker implements WorkerBase {
                 if (pollExecutor.isTerminating()) {
                     return;
                 }
-                poller.pollAndProcessSingleTask();
+                taskReceived = poller.pollAndProcessSingleTask();
                 pollBackoffThrottler.success();
             }
             catch (Throwable e) {
@@ -101,9 +102,14 @@ public abstract class GenericWorker implements WorkerBase {
                 }
             }
             finally {
-                // Resubmit itself back to pollExecutor
-                if (!pollExecutor.isShutdown()) {
+                int change = pollConcurrencyController.pollCompleted(taskReceived, getExecutionBacklog(),
+                        getExecutionCapacity());
+                // Resubmit itself back to pollExecutor unless retired
+                if (change >= 0 && !pollExecutor.isShutdown()) {
                     pollExecutor.execute(this);
+                    if (change > 0) {
+                        pollExecutor.execute(new PollServiceTask(poller));
+                    }
                 }
             }
         }
@@ -145,6 +151,12 @@ public abstract class GenericWorker implements WorkerBase {
 
     private int pollThreadCount = 1;
 
+    private boolean adaptivePolling;
+
+    private int minimumPollThreadCount = 1;
+
+    private PollConcurrencyController pollConcurrencyController;
+
     private BackoffThrottler pollBackoffThrottler;
 
     private Throttler pollRateThrottler;
@@ -338,6 +350,80 @@ public abstract class GenericWorker implements WorkerBase {
         this.pollThreadCount = threadCount;
     }
 
+    public boolean isAdaptivePolling() {
+        return adaptivePolling;
+    }
+
+    /**
+     * When enabled, the number of threads polling the task list varies
+     * between {@link #getMinimumPollThreadCount()} and
+     * {@link #getPollThreadCount()}: a poller is added after every poller got
+     * a task, unless the execution backlog leaves no room for more tasks, and
+     * one is retired after at least half of them came back empty. Disabled by
+     * default, in which case {@link #getPollThreadCount()} pollers always run.
+     */
+    public void setAdaptivePolling(boolean adaptivePolling) {
+        checkStarted();
+        this.adaptivePolling = adaptivePolling;
+    }
+
+    public int getMinimumPollThreadCount() {
+        return minimumPollThreadCount;
+    }
+
+    /**
+     * Number of pollers that keep running with adaptive polling, capped by
+     * {@link #getPollThreadCount()}. Default is 1.
+     */
+    public void setMinimumPollThreadCount(int minimumPollThreadCount) {
+        if (minimumPollThreadCount < 1) {
+            throw new IllegalArgumentException("0 or negative minimumPollThreadCount");
+        }
+        checkStarted();
+        this.minimumPollThreadCount = minimumPollThreadCount;
+    }
+
+    /**
+     * @return number of pollers running, which varies with adaptive polling
+     */
+    public int getActivePollThreadCount() {
+        return pollConcurrencyController == null ? 0 : pollConcurrencyController.getActive();
+    }
+
+    /**
+     * @return tasks received per second during the last round of polls of
+     *         all the active pollers
+     */
+    public double getTaskArrivalRate() {
+        return pollConcurrencyController == null ? 0 : pollConcurrencyController.getTaskArrivalRate();
+    }
+
+    /**
+     * @return ratio of the polls that returned no task during the last round
+     *         of polls of all the active pollers
+     */
+    public double getEmptyPollRatio() {
+        return pollConcurrencyController == null ? 0 : pollConcurrencyController.getEmptyPollRatio();
+    }
+
+    /**
+     * @return number of polled tasks waiting for or under execution by
+     *         threads other than the pollers; 0 as tasks are executed by the
+     *         polling threads unless overridden
+     */
+    public int getExecutionBacklog() {
+        return 0;
+    }
+
+    /**
+     * @return maximum number of polled tasks that can be executed
+     *         concurrently; unbounded as tasks are executed by the polling
+     *         threads unless overridden
+     */
+    protected int getExecutionCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
     @Override
     public void setDisableTypeRegistrationOnStart(boolean disableTypeRegistrationOnStart) {
         this.disableTypeRegitrationOnStart = disableTypeRegistrationOnStart;
@@ -376,11 +462,18 @@ public abstract class GenericWorker implements WorkerBase {
                 new LinkedBlockingQueue<Runnable>(pollThreadCount));
         ExecutorThreadFactory pollExecutorThreadFactory = getExecutorThreadFactory();
         pollExecutor.setThreadFactory(pollExecutorThreadFactory);
+        if (adaptivePolling) {
+            // Let the threads of retired pollers go
+            pollExecutor.allowCoreThreadTimeOut(true);
+        }
 
         pollBackoffThrottler = new BackoffThrottler(pollBackoffInitialInterval, pollBackoffMaximumInterval,
                 pollBackoffCoefficient);
         poller = createPoller();
-        for (int i = 0; i < pollThreadCount; i++) {
+        int minimum = adaptivePolling ? Math.min(minimumPollThreadCount, pollThreadCount) : pollThreadCount;
+        pollConcurrencyController = new PollConcurrencyController(getPollThreadNamePrefix().trim(), minimum,
+                pollThreadCount);
+        for (int i = 0; i < minimum; i++) {
             pollExecutor.execute(new PollServiceTask(poller));
         }
     }
@@ -492,7 +585,7 @@ public abstract class GenericWorker implements WorkerBase {
         return this.getClass().getSimpleName() + "[service=" + service + ", domain=" + domain + ", taskListToPoll="
                 + taskListToPoll + ", identity=" + identity + ", backoffInitialInterval=" + pollBackoffInitialInterval
                 + ", backoffMaximumInterval=" + pollBackoffMaximumInterval + ", backoffCoefficient=" + pollBackoffCoefficient
-                + "]";
+                + ", adaptivePolling=" + adaptivePolling + ", minimumPollThreadCount=" + minimumPollThreadCount + "]";
     }
 
     @Override
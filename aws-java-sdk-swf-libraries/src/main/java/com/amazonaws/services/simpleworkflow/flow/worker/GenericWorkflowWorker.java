@@ -38,6 +38,8 @@ public class GenericWorkflowWorker extends GenericWorker {
 
     private WorkflowDefinitionFactoryFactory workflowDefinitionFactoryFactory;
 
+    private int deciderCacheSize;
+
     public GenericWorkflowWorker() {
         setIdentity(ManagementFactory.getRuntimeMXBean().getName());
     }
@@ -57,6 +59,27 @@ public class GenericWorkflowWorker extends GenericWorker {
         this.workflowDefinitionFactoryFactory = workflowDefinitionFactoryFactory;
     }
 
+    public int getDeciderCacheSize() {
+        return deciderCacheSize;
+    }
+
+    /**
+     * Maximum number of workflow executions whose deciders are kept in memory
+     * between decision tasks. A decision task of a cached execution applies
+     * only the events added to the history since the previous decision task
+     * handled by this worker, and pages through only that part of the
+     * history, instead of replaying it all. Falls back to the full replay
+     * whenever another worker handled a decision task of the execution in
+     * between. Least recently used executions are evicted first. Default is
+     * 0, which disables the cache.
+     */
+    public void setDeciderCacheSize(int deciderCacheSize) {
+        if (deciderCacheSize < 0) {
+            throw new IllegalArgumentException("negative deciderCacheSize: " + deciderCacheSize);
+        }
+        this.deciderCacheSize = deciderCacheSize;
+    }
+
     protected DecisionTaskPoller createWorkflowPoller() {
         DecisionTaskPoller poller = new DecisionTaskPoller();
         return poller;
@@ -75,7 +98,7 @@ public class GenericWorkflowWorker extends GenericWorker {
     @Override
     protected TaskPoller createPoller() {
         DecisionTaskPoller result = new DecisionTaskPoller();
-        result.setDecisionTaskHandler(new AsyncDecisionTaskHandler(workflowDefinitionFactoryFactory));
+        result.setDecisionTaskHandler(new AsyncDecisionTaskHandler(workflowDefinitionFactoryFactory, deciderCacheSize));
         result.setDomain(getDomain());
         result.setIdentity(getIdentity());
         result.setService(getService());
@@ -91,7 +114,7 @@ public class GenericWorkflowWorker extends GenericWorker {
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "[super=" + super.toString() + ", workflowDefinitionFactoryFactory="
-                + workflowDefinitionFactoryFactory + "]";
+                + workflowDefinitionFactoryFactory + ", deciderCacheSize=" + deciderCacheSize + "]";
     }
 
     public static void registerWorkflowTypes(AmazonSimpleWorkflow service, String domain, String defaultTaskList,
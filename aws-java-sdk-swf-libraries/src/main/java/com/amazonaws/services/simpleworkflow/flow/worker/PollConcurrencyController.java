@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow.worker;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Decides how many pollers of a {@link GenericWorker} run concurrently,
+ * between a minimum and a maximum, from the outcome of their polls.
+ * <p>
+ * Polls are observed in rounds of as many polls as there are active pollers.
+ * After a round in which every poll returned a task, a poller is added unless
+ * the execution backlog leaves no room for more tasks. After a round in which
+ * at least half of the polls came back empty, a poller is retired. The task
+ * arrival rate and the empty poll ratio of the last round are kept as
+ * metrics.
+ */
+class PollConcurrencyController {
+
+    private static final Log log = LogFactory.getLog(PollConcurrencyController.class);
+
+    private final String name;
+
+    private final int minimum;
+
+    private final int maximum;
+
+    private int active;
+
+    private int polls;
+
+    private int emptyPolls;
+
+    private long roundStartNanos = System.nanoTime();
+
+    private double taskArrivalRate;
+
+    private double emptyPollRatio;
+
+    PollConcurrencyController(String name, int minimum, int maximum) {
+        if (minimum < 1 || maximum < minimum) {
+            throw new IllegalArgumentException("Invalid poller bounds: minimum=" + minimum + ", maximum=" + maximum);
+        }
+        this.name = name;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.active = minimum;
+    }
+
+    /**
+     * @return the number of pollers that should be running
+     */
+    synchronized int getActive() {
+        return active;
+    }
+
+    /**
+     * @return tasks received per second during the last round of polls
+     */
+    synchronized double getTaskArrivalRate() {
+        return taskArrivalRate;
+    }
+
+    /**
+     * @return ratio of the polls of the last round that returned no task
+     */
+    synchronized double getEmptyPollRatio() {
+        return emptyPollRatio;
+    }
+
+    /**
+     * Records the outcome of a poll, adjusting the number of active pollers at
+     * the end of a round.
+     *
+     * @param taskReceived
+     *            whether the poll returned a task
+     * @param backlog
+     *            number of tasks waiting for or under execution
+     * @param capacity
+     *            maximum number of tasks that can be executed concurrently
+     * @return 1 if the calling poller should start another one, -1 if it
+     *         should stop, 0 otherwise
+     */
+    synchronized int pollCompleted(boolean taskReceived, int backlog, int capacity) {
+        polls++;
+        if (!taskReceived) {
+            emptyPolls++;
+        }
+        if (polls < active) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max(now - roundStartNanos, 1) / 1e9;
+        taskArrivalRate = (polls - emptyPolls) / elapsedSeconds;
+        emptyPollRatio = (double) emptyPolls / polls;
+        int result = 0;
+        if (emptyPolls == 0 && active < maximum && (long) backlog + active < capacity) {
+            active++;
+            result = 1;
+        }
+        else if (emptyPolls * 2 >= polls && active > minimum) {
+            active--;
+            result = -1;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(name + ": activePollers=" + active + ", taskArrivalRate=" + taskArrivalRate + ", emptyPollRatio="
+                    + emptyPollRatio + ", executionBacklog=" + backlog);
+        }
+        polls = 0;
+        emptyPolls = 0;
+        roundStartNanos = now;
+        return result;
+    }
+}
@@ -30,11 +30,21 @@ import com.amazonaws.services.simpleworkflow.model.WorkflowType;
 class WorkfowContextImpl implements WorkflowContext {
 
     private final DecisionTask decisionTask;
+    private final WorkflowExecutionStartedEventAttributes workflowStartedEventAttributes;
     private boolean cancelRequested;
     private ContinueAsNewWorkflowExecutionParameters continueAsNewOnCompletion;
     
     public WorkfowContextImpl(DecisionTask decisionTask) {
         this.decisionTask = decisionTask;
+        // Captured upfront as the events of the task are not kept around
+        // once the history is paged through or the decider is cached
+        List<HistoryEvent> events = decisionTask.getEvents();
+        if (events != null && !events.isEmpty()) {
+            workflowStartedEventAttributes = events.get(0).getWorkflowExecutionStartedEventAttributes();
+        }
+        else {
+            workflowStartedEventAttributes = null;
+        }
     }
     
     @Override
@@ -110,9 +120,7 @@ class WorkfowContextImpl implements WorkflowContext {
     }
 
     private WorkflowExecutionStartedEventAttributes getWorkflowStartedEventAttributes() {
-        HistoryEvent firstHistoryEvent = decisionTask.getEvents().get(0);
-        WorkflowExecutionStartedEventAttributes attributes = firstHistoryEvent.getWorkflowExecutionStartedEventAttributes();
-        return attributes;
+        return workflowStartedEventAttributes;
     }
 
     @Override
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Compares the CPU time and data size of {@link JsonDataConverter} and
+ * {@link CompactJsonDataConverter} round trips on the same values. Run its
+ * main method with the test classpath; it is not run as a test.
+ * <p>
+ * Each round times every converter in turn, so that they all run with the
+ * same JIT and garbage collection state, and the best round is reported.
+ */
+public class CompactJsonDataConverterBenchmark {
+
+    /** Characters converted by each converter in a round. */
+    private static final int CHARACTERS_PER_ROUND = 4000000;
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static class Sample {
+
+        public String name;
+
+        public List<Integer> values = new ArrayList<Integer>();
+
+        public Map<String, Object> attributes = new HashMap<String, Object>();
+    }
+
+    public static void main(String[] args) {
+        Map<String, DataConverter> converters = new LinkedHashMap<String, DataConverter>();
+        converters.put("JsonDataConverter", new JsonDataConverter());
+        converters.put("CompactJsonDataConverter without compression",
+                new CompactJsonDataConverter(newMapper(), Integer.MAX_VALUE));
+        converters.put("CompactJsonDataConverter", new CompactJsonDataConverter());
+
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put("string", "activity input");
+        values.put("arguments", new Object[] { "name", 42, newSample(1) });
+        values.put("200 beans", new Object[] { newSamples(200) });
+
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            Object input = value.getValue();
+            Class<?> type = input.getClass();
+            int iterations = Math.max(100, CHARACTERS_PER_ROUND / new JsonDataConverter().toData(input).length());
+            Map<String, Long> best = new LinkedHashMap<String, Long>();
+            for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+                for (Map.Entry<String, DataConverter> converter : converters.entrySet()) {
+                    long start = System.nanoTime();
+                    roundTrips(converter.getValue(), input, type, iterations);
+                    long nanos = (System.nanoTime() - start) / iterations;
+                    Long previous = best.get(converter.getKey());
+                    if (round >= WARMUP_ROUNDS && (previous == null || nanos < previous)) {
+                        best.put(converter.getKey(), nanos);
+                    }
+                }
+            }
+            System.out.println(value.getKey() + ":");
+            for (Map.Entry<String, DataConverter> converter : converters.entrySet()) {
+                System.out.println("  " + converter.getKey() + ": " + best.get(converter.getKey())
+                        + " ns per round trip, " + converter.getValue().toData(input).length() + " characters");
+            }
+        }
+    }
+
+    private static void roundTrips(DataConverter converter, Object value, Class<?> type, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            converter.fromData(converter.toData(value), type);
+        }
+    }
+
+    private static ObjectMapper newMapper() {
+        // Configured like JsonDataConverter()
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        mapper.enableDefaultTyping(DefaultTyping.NON_FINAL);
+        return mapper;
+    }
+
+    private static Sample newSample(int i) {
+        Sample sample = new Sample();
+        sample.name = "sample" + i;
+        sample.values.add(i);
+        sample.values.add(i * 2);
+        sample.attributes.put("created", new Date(i));
+        return sample;
+    }
+
+    private static List<Sample> newSamples(int count) {
+        List<Sample> samples = new ArrayList<Sample>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(newSample(i));
+        }
+        return samples;
+    }
+}
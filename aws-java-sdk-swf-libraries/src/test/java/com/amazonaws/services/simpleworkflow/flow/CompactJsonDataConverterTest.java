@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.services.simpleworkflow.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CompactJsonDataConverterTest {
+
+    public static class Item {
+
+        public String name;
+
+        public List<Integer> values = new ArrayList<Integer>();
+
+        public Map<String, Object> attributes = new HashMap<String, Object>();
+    }
+
+    private final JsonDataConverter json = new JsonDataConverter();
+
+    private final CompactJsonDataConverter compact = new CompactJsonDataConverter();
+
+    @Test
+    public void roundTripsUncompressedValue() {
+        Object[] value = new Object[] { "name", 42, newItem(1) };
+        String data = compact.toData(value);
+        assertEquals(json.toData(value), data);
+
+        Object[] result = compact.fromData(data, Object[].class);
+        assertEquals(json.toData(value), json.toData(result));
+        assertTrue(((Item) result[2]).attributes.get("created") instanceof Date);
+    }
+
+    @Test
+    public void roundTripsCompressedValue() {
+        Object[] value = new Object[] { newItems(200) };
+        String data = compact.toData(value);
+        assertEquals(CompactJsonDataConverter.COMPRESSED_PREFIX, data.charAt(0));
+        assertTrue(data.length() < json.toData(value).length());
+
+        Object[] result = compact.fromData(data, Object[].class);
+        assertEquals(json.toData(value), json.toData(result));
+    }
+
+    @Test
+    public void doesNotCompressBelowThreshold() {
+        Object[] value = new Object[] { newItems(200) };
+        CompactJsonDataConverter uncompressed = new CompactJsonDataConverter(
+                new JsonDataConverter().mapper, Integer.MAX_VALUE);
+        assertEquals(json.toData(value), uncompressed.toData(value));
+    }
+
+    @Test
+    public void roundTripsNull() {
+        String data = compact.toData(null);
+        assertEquals(json.toData(null), data);
+        assertNull(compact.fromData(data, Object.class));
+    }
+
+    @Test
+    public void readsJsonDataConverterData() {
+        Object[] value = new Object[] { newItems(200) };
+        String data = json.toData(value);
+        assertFalse(data.charAt(0) == CompactJsonDataConverter.COMPRESSED_PREFIX);
+
+        Object[] result = compact.fromData(data, Object[].class);
+        assertEquals(data, json.toData(result));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeThreshold() {
+        new CompactJsonDataConverter(new JsonDataConverter().mapper, -1);
+    }
+
+    private static Item newItem(int i) {
+        Item item = new Item();
+        item.name = "item" + i;
+        item.values.add(i);
+        item.attributes.put("created", new Date(i));
+        return item;
+    }
+
+    private static List<Item> newItems(int count) {
+        List<Item> items = new ArrayList<Item>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(newItem(i));
+        }
+        return items;
+    }
+}